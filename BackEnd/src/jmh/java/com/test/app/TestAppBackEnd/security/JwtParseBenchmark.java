@@ -0,0 +1,67 @@
+package com.test.app.TestAppBackEnd.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request JWT work in JwtFilter before and after the single-parse API.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtParseBenchmark {
+
+    private static final String SECRET =
+            "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private String token;
+    private JwtUtil uncached;
+    private JwtUtil cached;
+
+    @Setup
+    public void setup() {
+        uncached = new JwtUtil(SECRET, 3_600_000L, 0, 0);
+        cached = new JwtUtil(SECRET, 3_600_000L, 10_000, 30);
+        token = uncached.generateToken("bench-user", List.of("ROLE_CLIENT"));
+    }
+
+    /** Old path: isTokenValid + extractUsername + extractRoles, each deriving the key and parser. */
+    @Benchmark
+    public Object legacyThreeParses() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token);
+        String username = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return username + claims.get("roles");
+    }
+
+    /** New path with the verified-token cache disabled: one HMAC verification per request. */
+    @Benchmark
+    public Object singleParse() {
+        return uncached.parseVerified(token);
+    }
+
+    /** New path for a token seen recently: no HMAC verification at all. */
+    @Benchmark
+    public Object singleParseCached() {
+        return cached.parseVerified(token);
+    }
+}
@@ -0,0 +1,129 @@
+package com.test.app.TestAppBackEnd.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for the mechanic and car-wash list endpoints. Run it once against a server started
+ * with the default profile and once with "vthreads" added, then compare throughput and p99 per endpoint:
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="--base-url=http://localhost:8080 --username=admin --password=secret --concurrency=200 --seconds=30 --label=platform"
+ * </pre>
+ * Keep the DB pool size identical between runs so the comparison measures the request threading model only.
+ */
+public class EndpointLoadTest {
+
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/request-mechanic/available",
+            "/api/request-mechanic/all",
+            "/api/carwash-bookings");
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = arg(args, "base-url", "http://localhost:8080");
+        String username = arg(args, "username", "admin");
+        String password = arg(args, "password", "");
+        int concurrency = Integer.parseInt(arg(args, "concurrency", "100"));
+        int seconds = Integer.parseInt(arg(args, "seconds", "30"));
+        int warmupSeconds = Integer.parseInt(arg(args, "warmup-seconds", "5"));
+        String label = arg(args, "label", "run");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String token = login(client, baseUrl, username, password);
+
+        System.out.printf("[%s] %d concurrent clients, %ds per endpoint (after %ds warm-up)%n",
+                label, concurrency, seconds, warmupSeconds);
+        System.out.printf("%-36s %10s %10s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (String endpoint : ENDPOINTS) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            run(client, request, concurrency, warmupSeconds);
+            Result result = run(client, request, concurrency, seconds);
+            System.out.printf("%-36s %10d %10.1f %9.1f %9.1f %9.1f %8d%n",
+                    endpoint, result.count(), result.count() / (double) seconds,
+                    result.percentile(50), result.percentile(99), result.percentile(100), result.errors());
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> perWorker = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<java.util.concurrent.Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(workers.submit(() -> {
+                    long[] samples = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n == samples.length) samples = Arrays.copyOf(samples, n * 2);
+                        samples[n++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, n);
+                }));
+            }
+            for (var future : futures) perWorker.add(future.get());
+        }
+        long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher m = ACCESS_TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !m.find()) {
+            throw new IllegalStateException("Login failed (" + response.statusCode() + "): " + response.body());
+        }
+        return m.group(1);
+    }
+
+    private static String arg(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String a : args) {
+            if (a.startsWith(prefix)) return a.substring(prefix.length());
+        }
+        return defaultValue;
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+        int count() {
+            return sortedNanos.length;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) return 0;
+            int index = (int) Math.ceil(p / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+}
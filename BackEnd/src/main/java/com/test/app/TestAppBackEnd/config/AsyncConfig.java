@@ -0,0 +1,117 @@
+package com.test.app.TestAppBackEnd.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One bounded executor per async workload, selected with {@code @Async(AsyncConfig.EMAIL_EXECUTOR)} etc., so a slow
+ * SMTP server or a long report cannot delay SMS or payment notifications. Sizes, queue limits and rejection
+ * policies come from app.async.&lt;workload&gt;.*. Unqualified {@code @Async} methods use the notification executor.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String SMS_EXECUTOR = "smsExecutor";
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    public static final String REPORT_EXECUTOR = "reportExecutor";
+    /** Writes StreamingResponseBody exports (see WebAsyncConfig). */
+    public static final String EXPORT_EXECUTOR = "exportExecutor";
+    /** Writes job feed events to SSE connections (see JobFeedService); one thread keeps them in order. */
+    public static final String FEED_EXECUTOR = "feedExecutor";
+
+    /** Spring's fallback name for unqualified {@code @Async}. */
+    private static final String DEFAULT_EXECUTOR = "taskExecutor";
+
+    private final Environment environment;
+
+    public AsyncConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Email and SMS reject when full rather than run on the caller: the outbox scheduler is their main producer and
+     * defers rejected batches to its next poll, which a slow SMTP server or SMS gateway must not stall.
+     */
+    @Bean(name = EMAIL_EXECUTOR, destroyMethod = "shutdown")
+    public WorkloadExecutor emailExecutor(@Value("${app.async.email.threads:4}") int threads,
+                                          @Value("${app.async.email.queue-capacity:500}") int queueCapacity,
+                                          @Value("${app.async.email.rejection-policy:abort}") String policy) {
+        return create("email", threads, queueCapacity, policy);
+    }
+
+    @Bean(name = SMS_EXECUTOR, destroyMethod = "shutdown")
+    public WorkloadExecutor smsExecutor(@Value("${app.async.sms.threads:4}") int threads,
+                                        @Value("${app.async.sms.queue-capacity:500}") int queueCapacity,
+                                        @Value("${app.async.sms.rejection-policy:abort}") String policy) {
+        return create("sms", threads, queueCapacity, policy);
+    }
+
+    @Bean(name = {NOTIFICATION_EXECUTOR, DEFAULT_EXECUTOR}, destroyMethod = "shutdown")
+    public WorkloadExecutor notificationExecutor(@Value("${app.async.notification.threads:4}") int threads,
+                                                 @Value("${app.async.notification.queue-capacity:1000}") int queueCapacity,
+                                                 @Value("${app.async.notification.rejection-policy:caller-runs}") String policy) {
+        return create("notification", threads, queueCapacity, policy);
+    }
+
+    @Bean(name = REPORT_EXECUTOR, destroyMethod = "shutdown")
+    public WorkloadExecutor reportExecutor(@Value("${app.async.report.threads:1}") int threads,
+                                           @Value("${app.async.report.queue-capacity:20}") int queueCapacity,
+                                           @Value("${app.async.report.rejection-policy:abort}") String policy) {
+        return create("report", threads, queueCapacity, policy);
+    }
+
+    @Bean(name = EXPORT_EXECUTOR, destroyMethod = "shutdown")
+    public WorkloadExecutor exportExecutor(@Value("${app.async.export.threads:4}") int threads,
+                                           @Value("${app.async.export.queue-capacity:50}") int queueCapacity,
+                                           @Value("${app.async.export.rejection-policy:abort}") String policy) {
+        return create("export", threads, queueCapacity, policy);
+    }
+
+    /**
+     * Always aborts when full: feed work is queued by the event bus while it holds its lock, so it must never run
+     * on the caller. JobFeedService counts the rejection and replays the dropped events from its next task.
+     */
+    @Bean(name = FEED_EXECUTOR, destroyMethod = "shutdown")
+    public WorkloadExecutor feedExecutor(@Value("${app.async.feed.threads:1}") int threads,
+                                         @Value("${app.async.feed.queue-capacity:2000}") int queueCapacity) {
+        return create("feed", threads, queueCapacity, "abort");
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                log.error("Async task {}.{} failed: {}", method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+
+    private WorkloadExecutor create(String name, int threads, int queueCapacity, String policy) {
+        WorkloadExecutor executor = new WorkloadExecutor(name, Math.max(1, threads), Math.max(1, queueCapacity),
+                WorkloadExecutor.RejectionPolicy.from(policy), threadFactory(name));
+        log.info("Async executor '{}': {} thread(s), queue {}, on full: {}", name, threads, queueCapacity, policy);
+        return executor;
+    }
+
+    /** Virtual threads when the vthreads profile is on; the pool size still caps concurrency per workload. */
+    private ThreadFactory threadFactory(String name) {
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.test.app.TestAppBackEnd.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Versioned schema migrations (src/main/resources/db/migration). Tables are still created by Hibernate
+ * (ddl-auto=update), so Flyway must run after the EntityManagerFactory instead of before it as Spring Boot
+ * does by default: the default strategy is a no-op and {@link SchemaMigrations} migrates once JPA is up.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrationConfig.class);
+
+    /** Marker bean: depend on it to run after migrations (e.g. before relying on an index they add). */
+    public static final class SchemaMigrations {
+        private SchemaMigrations() {}
+    }
+
+    @Bean
+    public FlywayMigrationStrategy deferredMigrationStrategy() {
+        return flyway -> {};
+    }
+
+    @Bean
+    public SchemaMigrations schemaMigrations(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        MigrateResult result = flyway.migrate();
+        log.info("Schema migrations: {} applied (schema version {})", result.migrationsExecuted, result.targetSchemaVersion);
+        return new SchemaMigrations();
+    }
+}
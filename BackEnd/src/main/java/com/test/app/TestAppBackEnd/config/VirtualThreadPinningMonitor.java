@@ -0,0 +1,89 @@
+package com.test.app.TestAppBackEnd.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Only active with the "vthreads" profile. Streams the JDK's jdk.VirtualThreadPinned JFR event and logs where a
+ * virtual thread blocked while pinned to its carrier (typically I/O inside a synchronized block), so such sections
+ * can be moved to a ReentrantLock.
+ */
+@Component
+@Profile("vthreads")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 6;
+
+    private final long thresholdMillis;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedMillis = new AtomicLong();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.vthreads.pinning-monitor.threshold-ms:20}") long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Virtual threads enabled; pinning monitor active (threshold {} ms)", thresholdMillis);
+        } catch (Exception e) {
+            log.warn("Virtual thread pinning monitor could not start: {}", e.getMessage());
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long millis = event.getDuration().toMillis();
+        pinnedEvents.incrementAndGet();
+        pinnedMillis.addAndGet(millis);
+        log.warn("Virtual thread pinned for {} ms at {}", millis, describe(event));
+    }
+
+    /** Prefers application frames so the offending synchronized section is easy to find. */
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "(no stack trace)";
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        List<RecordedFrame> appFrames = frames.stream()
+                .filter(f -> f.getMethod() != null && f.getMethod().getType().getName().startsWith("com.test.app"))
+                .toList();
+        return (appFrames.isEmpty() ? frames : appFrames).stream()
+                .limit(MAX_FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("thresholdMillis", thresholdMillis);
+        stats.put("pinnedEvents", pinnedEvents.get());
+        stats.put("pinnedMillis", pinnedMillis.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+}
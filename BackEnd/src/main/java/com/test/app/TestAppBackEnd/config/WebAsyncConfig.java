@@ -0,0 +1,31 @@
+package com.test.app.TestAppBackEnd.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed CSV exports (StreamingResponseBody) run on the bounded export executor rather than Spring MVC's
+ * unbounded fallback, with a timeout long enough for a large date range.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    private final WorkloadExecutor exportExecutor;
+    private final long timeoutMillis;
+
+    public WebAsyncConfig(@Qualifier(AsyncConfig.EXPORT_EXECUTOR) WorkloadExecutor exportExecutor,
+                          @Value("${app.async.export.timeout-ms:300000}") long timeoutMillis) {
+        this.exportExecutor = exportExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(exportExecutor));
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+}
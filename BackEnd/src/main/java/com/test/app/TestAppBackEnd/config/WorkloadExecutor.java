@@ -0,0 +1,130 @@
+package com.test.app.TestAppBackEnd.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size pool with a bounded queue for one async workload (email, SMS, ...). Counts rejections and
+ * records queue wait and run time per task so /api/metrics shows which workload is backing up.
+ */
+public class WorkloadExecutor extends ThreadPoolExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadExecutor.class);
+
+    /** What to do with a task when all threads are busy and the queue is full. */
+    public enum RejectionPolicy {
+        /** Run on the submitting thread: slows the producer down instead of losing the task. */
+        CALLER_RUNS,
+        /** Throw TaskRejectedException to the caller. */
+        ABORT,
+        /** Drop the task (logged and counted). */
+        DISCARD;
+
+        public static RejectionPolicy from(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final RejectionPolicy policy;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+    private final ThreadLocal<Long> runStart = new ThreadLocal<>();
+
+    public WorkloadExecutor(String name, int threads, int queueCapacity, RejectionPolicy policy, ThreadFactory threadFactory) {
+        super(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.policy = policy;
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler(this::reject);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command instanceof TimedTask ? command : new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        long now = System.nanoTime();
+        if (r instanceof TimedTask task) {
+            long wait = now - task.enqueuedAt;
+            totalWaitNanos.addAndGet(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+        }
+        runStart.set(now);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        Long start = runStart.get();
+        runStart.remove();
+        if (start == null) return;
+        long run = System.nanoTime() - start;
+        timedTasks.incrementAndGet();
+        totalRunNanos.addAndGet(run);
+        maxRunNanos.accumulateAndGet(run, Math::max);
+    }
+
+    private void reject(Runnable task, ThreadPoolExecutor executor) {
+        rejected.incrementAndGet();
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException(name + " executor is shut down");
+        }
+        switch (policy) {
+            case CALLER_RUNS -> {
+                log.warn("{} executor saturated (queue {}), running task on caller thread", name, queueCapacity);
+                task.run();
+            }
+            case DISCARD -> log.warn("{} executor saturated (queue {}), task dropped", name, queueCapacity);
+            case ABORT -> throw new RejectedExecutionException(name + " executor is at capacity");
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long tasks = timedTasks.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", getMaximumPoolSize());
+        stats.put("active", getActiveCount());
+        stats.put("queueDepth", getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("rejectionPolicy", policy.name());
+        stats.put("completed", getCompletedTaskCount());
+        stats.put("rejected", rejected.get());
+        stats.put("avgWaitMillis", tasks == 0 ? 0 : totalWaitNanos.get() / tasks / 1_000_000.0);
+        stats.put("maxWaitMillis", maxWaitNanos.get() / 1_000_000.0);
+        stats.put("avgRunMillis", tasks == 0 ? 0 : totalRunNanos.get() / tasks / 1_000_000.0);
+        stats.put("maxRunMillis", maxRunNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private static final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAt = System.nanoTime();
+
+        private TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.test.app.TestAppBackEnd.constants;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lifecycle of mechanic requests and car wash bookings. Stored and serialized as the lower-case label the
+ * clients already use; {@link #from} also accepts the spellings older clients send ("In progress",
+ * "in_progress", "declined"). Allowed moves are listed in {@link #canMoveTo}.
+ */
+public enum JobStatus {
+    PENDING("pending"),
+    /** Mechanic jobs are claimed as assigned, car wash bookings as accepted; both mean a provider took it. */
+    ASSIGNED("assigned"),
+    ACCEPTED("accepted"),
+    PAID("paid"),
+    IN_PROGRESS("in progress"),
+    COMPLETED("completed"),
+    CANCELLED("cancelled");
+
+    /** Statuses that occupy a provider's capacity (see ProviderCapacity). */
+    public static final Set<JobStatus> IN_FLIGHT = Collections.unmodifiableSet(EnumSet.of(PAID, IN_PROGRESS));
+
+    private final String label;
+    private Set<JobStatus> next;
+
+    static {
+        PENDING.next = EnumSet.of(ASSIGNED, ACCEPTED, CANCELLED);
+        // a provider may hand a job back before it is paid
+        ASSIGNED.next = EnumSet.of(PENDING, ACCEPTED, PAID, CANCELLED);
+        ACCEPTED.next = EnumSet.of(PENDING, ASSIGNED, PAID, CANCELLED);
+        PAID.next = EnumSet.of(IN_PROGRESS, COMPLETED, CANCELLED);
+        IN_PROGRESS.next = EnumSet.of(COMPLETED, CANCELLED);
+        COMPLETED.next = EnumSet.noneOf(JobStatus.class);
+        CANCELLED.next = EnumSet.noneOf(JobStatus.class);
+    }
+
+    JobStatus(String label) {
+        this.label = label;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    /** True for a move the lifecycle allows; staying in the same status is always allowed. */
+    public boolean canMoveTo(JobStatus target) {
+        return target == this || next.contains(target);
+    }
+
+    public boolean isInFlight() {
+        return IN_FLIGHT.contains(this);
+    }
+
+    /** Taken by a provider but not yet paid. */
+    public boolean isClaimed() {
+        return this == ASSIGNED || this == ACCEPTED;
+    }
+
+    /**
+     * Parses a label case-insensitively, including legacy aliases; null or blank gives null.
+     * @throws IllegalArgumentException for anything else
+     */
+    @JsonCreator
+    public static JobStatus from(String value) {
+        if (value == null || value.isBlank()) return null;
+        String key = value.trim().toLowerCase(Locale.ROOT).replace('_', ' ');
+        for (JobStatus status : values()) {
+            if (status.label.equals(key)) return status;
+        }
+        return switch (key) {
+            case "declined", "rejected", "canceled" -> CANCELLED;
+            default -> throw new IllegalArgumentException("Unknown status: " + value);
+        };
+    }
+
+    /** Stored labels of the statuses, for native queries. */
+    public static List<String> labels(Collection<JobStatus> statuses) {
+        return statuses.stream().map(JobStatus::getLabel).toList();
+    }
+
+    /** Statuses whose label contains the search text, for the LIKE search fallbacks. */
+    public static List<JobStatus> matching(String search) {
+        if (search == null || search.isBlank()) return List.of();
+        String q = search.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values()).filter(s -> s.label.contains(q)).toList();
+    }
+
+    /** Rejects a move the lifecycle does not allow, before anything is written. */
+    public static void checkTransition(JobStatus from, JobStatus to) {
+        if (from != null && to != null && !from.canMoveTo(to)) {
+            throw new IllegalStateException("Cannot change status from " + from.label + " to " + to.label);
+        }
+    }
+
+    /** The label, so status strings in messages and event keys read as before. */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
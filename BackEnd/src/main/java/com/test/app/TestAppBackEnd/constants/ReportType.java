@@ -0,0 +1,36 @@
+package com.test.app.TestAppBackEnd.constants;
+
+/** CSV report kinds; drives the file name and email wording. */
+public enum ReportType {
+    CARWASH("car-wash-history", "Car Wash History Report", "car wash history report"),
+    MECHANIC_REQUESTS("mechanic-requests-history", "Mechanic Requests History Report", "mechanic requests history report"),
+    EARNINGS("earnings", "Earnings Report", "earnings report"),
+    COMPLETED_JOBS("completed-jobs", "Completed Jobs Report", "completed jobs report");
+
+    private final String filePrefix;
+    private final String title;
+    private final String description;
+
+    ReportType(String filePrefix, String title, String description) {
+        this.filePrefix = filePrefix;
+        this.title = title;
+        this.description = description;
+    }
+
+    /** Reports scoped to a provider (mechanicId / carWashId) rather than a client username. */
+    public boolean isProviderReport() {
+        return this == EARNINGS || this == COMPLETED_JOBS;
+    }
+
+    public String fileName(String startDate, String endDate) {
+        return filePrefix + "-" + startDate + "-to-" + endDate + ".csv";
+    }
+
+    public String emailSubject(String startDate, String endDate) {
+        return title + " (" + startDate + " to " + endDate + ")";
+    }
+
+    public String emailBody() {
+        return "Please find your " + description + " for the selected date range attached.";
+    }
+}
@@ -1,6 +1,7 @@
 package com.test.app.TestAppBackEnd.controllers;
 
 import com.test.app.TestAppBackEnd.security.JwtUtil;
+import com.test.app.TestAppBackEnd.security.PasswordHashingService;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.repositories.UserRepository;
 import com.test.app.TestAppBackEnd.models.LoginRequest;
@@ -13,6 +14,7 @@ import com.test.app.TestAppBackEnd.models.ApiResponse;
 
 import com.test.app.TestAppBackEnd.services.DevDataService;
 import com.test.app.TestAppBackEnd.services.PasswordResetService;
+import com.test.app.TestAppBackEnd.services.TokenRevocationService;
 import com.test.app.TestAppBackEnd.services.UserProfileService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
@@ -21,7 +23,6 @@ import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -37,25 +38,28 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private UserProfileService userProfileService;
     private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final DevDataService devDataService;
     private final PasswordResetService passwordResetService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthController(UserRepository userRepository,
                           UserProfileRepository userProfileRepository,
                           AuthenticationManager authenticationManager, UserProfileService userProfileService,
                           JwtUtil jwtUtil,
-                          PasswordEncoder passwordEncoder,
+                          PasswordHashingService passwordHashingService,
                           DevDataService devDataService,
-                          PasswordResetService passwordResetService) {
+                          PasswordResetService passwordResetService,
+                          TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.userProfileRepository = userProfileRepository;
         this.authenticationManager = authenticationManager;
         this.userProfileService = userProfileService;
         this.jwtUtil = jwtUtil;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.devDataService = devDataService;
         this.passwordResetService = passwordResetService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     // ===== Helper method to get JWT from Authorization header =====
@@ -73,6 +77,11 @@ public class AuthController {
     }
 
     // ================= LOGIN =================
+    /**
+     * Only the BCrypt check (and a possible rehash) runs on the bounded hashing pool, through the encoder the
+     * AuthenticationManager uses. When the pool's queue is full the request is rejected with 503 + Retry-After
+     * (see GlobalExceptionHandler).
+     */
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<LoginResponse>> authenticateUser(@RequestBody LoginRequest request) {
         try {
@@ -127,6 +136,9 @@ public class AuthController {
                     .status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse<>("Authentication failed", HttpStatus.UNAUTHORIZED.value(), null));
 
+        } catch (PasswordHashingService.HashingCapacityExceededException e) {
+            throw e;
+
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -148,7 +160,7 @@ public class AuthController {
         }
 
         User savedUser = userRepository.save(
-                new User(user.getUsername(), passwordEncoder.encode(user.getPassword()))
+                new User(user.getUsername(), passwordHashingService.encode(user.getPassword()))
         );
 
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -191,6 +203,7 @@ public class AuthController {
         }
 
         User user = existingUser.get();
+        boolean credentialsChanged = !username.equals(updatedUser.getUsername());
         user.setUsername(updatedUser.getUsername());
         /*String newPassword = updatedUser.getPassword();
         if (newPassword != null
@@ -203,11 +216,15 @@ public class AuthController {
         if (newPassword != null
                 && !newPassword.isBlank()
                 && !newPassword.startsWith("$2")) {
-            user.setPassword(passwordEncoder.encode(newPassword));
+            user.setPassword(passwordHashingService.encode(newPassword));
+            credentialsChanged = true;
         }
 
 
         User savedUser = userRepository.save(user);
+        if (credentialsChanged) {
+            tokenRevocationService.revoke(username, "credentials-changed");
+        }
 
         return ResponseEntity.ok(new ApiResponse<>("User updated successfully", HttpStatus.OK.value(), savedUser));
     }
@@ -276,6 +293,8 @@ public class AuthController {
         }
         userProfileRepository.deleteByUsername(username);
         userRepository.delete(existingUser.get());
+        // Evict cached principals / revoke tokens so the filter's "deleted user" check applies immediately
+        tokenRevocationService.revoke(username, "user-deleted");
         return ResponseEntity.ok(new ApiResponse<>("User deleted successfully", HttpStatus.OK.value(), null));
     }
     // ================= DEV: RESET DB (ADMIN ONLY) =================
@@ -315,6 +334,7 @@ public class AuthController {
             userProfileRepository.deleteAll();
 
             userRepository.deleteAll();
+            tokenRevocationService.revokeAll("all-users-deleted");
 
             return ResponseEntity.status(HttpStatus.NO_CONTENT)
                     .body(new ApiResponse<>("All users deleted successfully", HttpStatus.NO_CONTENT.value(), null));
@@ -1,8 +1,11 @@
 package com.test.app.TestAppBackEnd.controllers;
 
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.models.CursorPage;
 import com.test.app.TestAppBackEnd.entities.CarWashBooking;
 import com.test.app.TestAppBackEnd.services.CarWashBookingService;
+import com.test.app.TestAppBackEnd.services.ResourceVersions;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,9 @@ public class CarWashController {
     @Autowired
     private CarWashBookingService bookingService;
 
+    @Autowired
+    private ConditionalGet conditionalGet;
+
     // Create booking
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<CarWashBooking>> createBooking(@RequestBody CarWashBooking booking) {
@@ -25,37 +31,52 @@ public class CarWashController {
         return ResponseEntity.ok(new ApiResponse<>("Booking created successfully", HttpStatus.OK.value(), saved));
     }
 
-    // Get all bookings
+    // Get all bookings. Paged: ?limit= and ?cursor= (nextCursor of the previous page)
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CarWashBooking>>> getAllBookings(@RequestParam(required = false) String search) {
-        List<CarWashBooking> bookings = bookingService.getAllBookings(search);
-        return ResponseEntity.ok(new ApiResponse<>("Fetched all bookings", HttpStatus.OK.value(), bookings));
+    public ResponseEntity<ApiResponse<List<CarWashBooking>>> getAllBookings(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<CarWashBooking> bookings = bookingService.getAllBookings(search, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Fetched all bookings", HttpStatus.OK.value(), bookings));
     }
 
-    // Get bookings by client
+    // Get bookings by client. ETag; 304 on a matching If-None-Match
     @GetMapping("/client/{username}")
     public ResponseEntity<ApiResponse<List<CarWashBooking>>> getBookingsByClient(
             @PathVariable String username,
-            @RequestParam(required = false) String search) {
-        List<CarWashBooking> bookings = bookingService.getBookingsByClient(username, search);
-        return ResponseEntity.ok(new ApiResponse<>("Fetched bookings for client: " + username, HttpStatus.OK.value(), bookings));
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<CarWashBooking> bookings = bookingService.getBookingsByClient(username, search, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page("Fetched bookings for client: " + username, HttpStatus.OK.value(), bookings));
+        }, ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "client", username));
     }
 
-    // Get bookings by car wash provider (for Manage Washes)
+    // Get bookings by car wash provider (for Manage Washes). ETag; 304 on a matching If-None-Match
     @GetMapping("/carwash/{carWashId}")
     public ResponseEntity<ApiResponse<List<CarWashBooking>>> getBookingsByCarWashId(
             @PathVariable String carWashId,
-            @RequestParam(required = false) String search) {
-        List<CarWashBooking> bookings = bookingService.getBookingsByCarWashId(carWashId, search);
-        return ResponseEntity.ok(new ApiResponse<>("Fetched bookings for car wash: " + carWashId, HttpStatus.OK.value(), bookings));
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<CarWashBooking> bookings = bookingService.getBookingsByCarWashId(carWashId, search, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page("Fetched bookings for car wash: " + carWashId, HttpStatus.OK.value(), bookings));
+        }, ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "carwash", carWashId));
     }
 
-    // Get booking by ID
+    // Get booking by ID. ETag; 304 on a matching If-None-Match
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<CarWashBooking>> getBookingById(@PathVariable String id) {
-        CarWashBooking booking = bookingService.getBookingById(id)
-                .orElseThrow(() -> new RuntimeException("Booking not found with id " + id));
-        return ResponseEntity.ok(new ApiResponse<>("Booking fetched successfully", HttpStatus.OK.value(), booking));
+    public ResponseEntity<ApiResponse<CarWashBooking>> getBookingById(@PathVariable String id, HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> {
+            CarWashBooking booking = bookingService.getBookingById(id)
+                    .orElseThrow(() -> new RuntimeException("Booking not found with id " + id));
+            return ResponseEntity.ok(new ApiResponse<>("Booking fetched successfully", HttpStatus.OK.value(), booking));
+        }, ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "id", id));
     }
 
     @PutMapping("/update/{id}")
@@ -0,0 +1,88 @@
+package com.test.app.TestAppBackEnd.controllers;
+
+import com.test.app.TestAppBackEnd.services.ResourceVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * ETag / If-None-Match for GET endpoints. The tag comes from {@link ResourceVersions} counters for the scopes the
+ * response depends on plus a digest of the URL and caller, so a 304 is answered before the loader (and its
+ * queries) runs. Responses are marked private, no-cache: clients keep them but revalidate every time.
+ */
+@Component
+public class ConditionalGet {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ResourceVersions versions;
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+
+    public ConditionalGet(ResourceVersions versions) {
+        this.versions = versions;
+    }
+
+    /** 304 if the client's If-None-Match still matches, otherwise the loader's response with the current ETag. */
+    public <T> ResponseEntity<T> respond(HttpServletRequest request, Supplier<ResponseEntity<T>> loader, String... scopes) {
+        if (!versions.isEnabled() || !"GET".equals(request.getMethod())) return loader.get();
+        String etag = "\"" + versions.tag(scopes) + "-" + requestDigest(request) + "\"";
+        if (matches(request, etag)) {
+            notModified.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        ResponseEntity<T> response = loader.get();
+        loaded.incrementAndGet();
+        if (!response.getStatusCode().is2xxSuccessful()) return response;
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setETag(etag);
+        headers.setCacheControl(REVALIDATE);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(versions.stats());
+        stats.put("notModified", notModified.get());
+        stats.put("loaded", loaded.get());
+        return stats;
+    }
+
+    private static boolean matches(HttpServletRequest request, String etag) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals("*") || tag.equals(etag)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Path, query (cursor, limit, search) and caller: the same scopes serve different pages and users. */
+    private static String requestDigest(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        String key = request.getRequestURI() + "?" + (request.getQueryString() != null ? request.getQueryString() : "")
+                + "#" + (principal != null ? principal.getName() : "");
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
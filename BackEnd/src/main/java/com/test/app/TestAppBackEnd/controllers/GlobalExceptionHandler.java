@@ -1,13 +1,17 @@
 package com.test.app.TestAppBackEnd.controllers;
 
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.security.PasswordHashingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -63,6 +67,17 @@ public class GlobalExceptionHandler {
                 .body(new ApiResponse<>(message, HttpStatus.BAD_REQUEST.value(), null));
     }
 
+    /** Unparseable body, e.g. an unknown job status; the IllegalArgumentException from the parser is the message. */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleUnreadableBody(HttpMessageNotReadableException ex) {
+        Throwable cause = ex.getMostSpecificCause();
+        String message = cause instanceof IllegalArgumentException && cause.getMessage() != null
+                ? cause.getMessage() : "Malformed request body";
+        log.warn("Unreadable request body: {}", cause.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse<>(message, HttpStatus.BAD_REQUEST.value(), null));
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiResponse<Object>> handleBadCredentials(BadCredentialsException ex) {
         log.warn("Authentication failed: {}", ex.getMessage());
@@ -91,6 +106,30 @@ public class GlobalExceptionHandler {
                 .body(new ApiResponse<>(ex.getMessage(), HttpStatus.CONFLICT.value(), null));
     }
 
+    @ExceptionHandler(org.springframework.dao.OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Object>> handleOptimisticLock(org.springframework.dao.OptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ApiResponse<>("This record was changed by someone else. Reload it and try again.",
+                        HttpStatus.CONFLICT.value(), null));
+    }
+
+    @ExceptionHandler(PasswordHashingService.HashingCapacityExceededException.class)
+    public ResponseEntity<ApiResponse<Object>> handleHashingCapacityExceeded(PasswordHashingService.HashingCapacityExceededException ex) {
+        log.warn("Password hashing pool saturated, rejecting request");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiResponse<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value(), null));
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleTaskRejected(TaskRejectedException ex) {
+        log.warn("Async executor saturated: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(new ApiResponse<>("Server is busy. Please retry shortly.", HttpStatus.SERVICE_UNAVAILABLE.value(), null));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Object>> handleRuntimeException(RuntimeException ex) {
         log.error("Unexpected error: ", ex);
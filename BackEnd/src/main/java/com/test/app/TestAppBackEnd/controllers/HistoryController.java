@@ -1,6 +1,7 @@
 package com.test.app.TestAppBackEnd.controllers;
 
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.models.CursorPage;
 import com.test.app.TestAppBackEnd.entities.RequestHistory;
 import com.test.app.TestAppBackEnd.entities.MechanicRequest;
 import com.test.app.TestAppBackEnd.services.RequestHistoryService;
@@ -25,10 +26,13 @@ public class HistoryController {
 
     // Get all histories
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getAll(@RequestParam(required = false) String search) {
-        List<MechanicRequest> histories = mechanicRequestService.getAll(search);
+    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getAll(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<MechanicRequest> histories = mechanicRequestService.getAll(search, cursor, limit);
         return ResponseEntity.ok(
-                new ApiResponse<>("Fetched all request histories", HttpStatus.OK.value(), histories)
+                ApiResponse.page("Fetched all request histories", HttpStatus.OK.value(), histories)
         );
     }
 
@@ -36,10 +40,12 @@ public class HistoryController {
     @GetMapping("/user/{username}")
     public ResponseEntity<ApiResponse<List<MechanicRequest>>> getByUsername(
             @PathVariable String username,
-            @RequestParam(required = false) String search) {
-        List<MechanicRequest> histories = mechanicRequestService.getByUsername(username, search);
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<MechanicRequest> histories = mechanicRequestService.getByUsername(username, search, cursor, limit);
         return ResponseEntity.ok(
-                new ApiResponse<>("Fetched request history for user: " + username, HttpStatus.OK.value(), histories)
+                ApiResponse.page("Fetched request history for user: " + username, HttpStatus.OK.value(), histories)
         );
     }
 
@@ -47,16 +53,18 @@ public class HistoryController {
     @GetMapping("/mechanic/{mechanicId}")
     public ResponseEntity<ApiResponse<List<MechanicRequest>>> getByMechanicId(
             @PathVariable String mechanicId,
-            @RequestParam(required = false) String search) {
-        List<MechanicRequest> histories = mechanicRequestService.getByMechanicId(mechanicId, search);
-        if (histories.isEmpty()) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<MechanicRequest> histories = mechanicRequestService.getByMechanicId(mechanicId, search, cursor, limit);
+        if (histories.getItems().isEmpty() && cursor == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
-                    new ApiResponse<>("No request history found for mechanic ID: " + mechanicId, HttpStatus.NOT_FOUND.value(), histories)
+                    new ApiResponse<>("No request history found for mechanic ID: " + mechanicId, HttpStatus.NOT_FOUND.value(), histories.getItems())
             );
         }
 
         return ResponseEntity.ok(
-                new ApiResponse<>("Fetched request history for mechanic ID: " + mechanicId, HttpStatus.OK.value(), histories)
+                ApiResponse.page("Fetched request history for mechanic ID: " + mechanicId, HttpStatus.OK.value(), histories)
         );
     }
 
@@ -0,0 +1,76 @@
+package com.test.app.TestAppBackEnd.controllers;
+
+import com.test.app.TestAppBackEnd.services.JobEventBus;
+import com.test.app.TestAppBackEnd.services.JobFeedService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/job-feed")
+@CrossOrigin(origins = "*")
+public class JobFeedController {
+
+    private final JobFeedService feedService;
+
+    public JobFeedController(JobFeedService feedService) {
+        this.feedService = feedService;
+    }
+
+    /**
+     * Job event stream (text/event-stream) for the logged-in mechanic or car wash; admins pick ?channel=mechanic|carwash.
+     * Reconnect with the Last-Event-ID header (or ?lastEventId=) to receive what was missed; a "reset" event means
+     * reload the lists over REST.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                @RequestParam(required = false) String lastEventId,
+                                @RequestParam(required = false) String channel,
+                                Authentication auth) {
+        Long after = parseEventId(lastEventIdHeader != null && !lastEventIdHeader.isBlank() ? lastEventIdHeader : lastEventId);
+        if (hasRole(auth, "ADMIN")) {
+            return feedService.subscribe(parseChannel(channel), null, after);
+        }
+        JobEventBus.Channel providerChannel;
+        if (hasRole(auth, "MECHANIC")) {
+            providerChannel = JobEventBus.Channel.MECHANIC;
+        } else if (hasRole(auth, "CARWASH")) {
+            providerChannel = JobEventBus.Channel.CARWASH;
+        } else {
+            throw new AccessDeniedException("The job feed is for mechanics and car washes");
+        }
+        String providerId = feedService.findProviderId(auth.getName())
+                .orElseThrow(() -> new IllegalStateException("No profile found for " + auth.getName()));
+        return feedService.subscribe(providerChannel, providerId, after);
+    }
+
+    private static Long parseEventId(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Last-Event-ID: " + value);
+        }
+    }
+
+    private static JobEventBus.Channel parseChannel(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("channel is required (mechanic or carwash)");
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT).replace("-", "").replace("_", "")) {
+            case "mechanic" -> JobEventBus.Channel.MECHANIC;
+            case "carwash" -> JobEventBus.Channel.CARWASH;
+            default -> throw new IllegalArgumentException("Unknown channel: " + value);
+        };
+    }
+
+    private boolean hasRole(Authentication auth, String role) {
+        if (auth == null || auth.getAuthorities() == null) return false;
+        return auth.getAuthorities().stream()
+                .anyMatch(a -> ("ROLE_" + role).equals(a.getAuthority()) || role.equals(a.getAuthority()));
+    }
+}
@@ -3,6 +3,9 @@ package com.test.app.TestAppBackEnd.controllers;
 import com.test.app.TestAppBackEnd.entities.MechanicRequest;
 import com.test.app.TestAppBackEnd.services.MechanicRequestService;
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.models.CursorPage;
+import com.test.app.TestAppBackEnd.services.ResourceVersions;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -18,9 +21,11 @@ import java.util.Optional;
 public class MechanicController {
 
     private final MechanicRequestService service;
+    private final ConditionalGet conditionalGet;
 
-    public MechanicController(MechanicRequestService service) {
+    public MechanicController(MechanicRequestService service, ConditionalGet conditionalGet) {
         this.service = service;
+        this.conditionalGet = conditionalGet;
     }
 
     /** Create a new mechanic request (job) - used by customers */
@@ -41,41 +46,67 @@ public class MechanicController {
                         .body(new ApiResponse<>("Mechanic request not found", HttpStatus.NOT_FOUND.value(), null)));
     }
 
-    /** Get all mechanic requests - admin/overview */
+    /** Get all mechanic requests - admin/overview. Paged: ?limit= and ?cursor= (nextCursor of the previous page) */
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getAllMechanicRequests() {
-        List<MechanicRequest> requests = service.getAll();
-        return ResponseEntity.ok(new ApiResponse<>("Fetched all mechanic requests successfully", HttpStatus.OK.value(), requests));
+    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getAllMechanicRequests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<MechanicRequest> requests = service.getAll(null, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Fetched all mechanic requests successfully", HttpStatus.OK.value(), requests));
     }
 
-    /** Get available (unassigned, pending) jobs for mechanics to accept */
+    /**
+     * Get available (unassigned, pending) jobs. Mechanics (or ?mechanicId=) only get the jobs they can accept;
+     * other callers get all of them.
+     */
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getAvailableJobsForMechanics() {
-        List<MechanicRequest> requests = service.getAvailableJobsForMechanics();
-        return ResponseEntity.ok(new ApiResponse<>("Fetched available jobs successfully", HttpStatus.OK.value(), requests));
+    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getAvailableJobsForMechanics(
+            @RequestParam(required = false) String mechanicId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth) {
+        if ((mechanicId == null || mechanicId.isBlank()) && isMechanic(auth)) {
+            mechanicId = service.findMechanicProfileId(auth.getName()).orElse(null);
+        }
+        CursorPage<MechanicRequest> requests = service.getAvailableJobsForMechanics(
+                mechanicId != null && !mechanicId.isBlank() ? mechanicId : null, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Fetched available jobs successfully", HttpStatus.OK.value(), requests));
     }
 
-    /** Get mechanic request by ID */
+    /** Get mechanic request by ID (ETag; 304 on a matching If-None-Match) */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<MechanicRequest>> getMechanicRequestById(@PathVariable String id) {
-        return service.getById(id)
+    public ResponseEntity<ApiResponse<MechanicRequest>> getMechanicRequestById(@PathVariable String id, HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> service.getById(id)
                 .map(r -> ResponseEntity.ok(new ApiResponse<>("Fetched mechanic request successfully", HttpStatus.OK.value(), r)))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(new ApiResponse<>("Mechanic request not found with id: " + id, HttpStatus.NOT_FOUND.value(), null)));
+                        .body(new ApiResponse<>("Mechanic request not found with id: " + id, HttpStatus.NOT_FOUND.value(), null))),
+                ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "id", id));
     }
 
-    /** Get mechanic requests by customer username (customer's job history) */
+    /** Get mechanic requests by customer username (customer's job history). ETag; 304 on a matching If-None-Match */
     @GetMapping("/user/username/{username}")
-    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getMechanicRequestsByCustomerUsername(@PathVariable String username) {
-        List<MechanicRequest> requests = service.getByUsername(username);
-        return ResponseEntity.ok(new ApiResponse<>("Fetched mechanic requests for customer successfully", HttpStatus.OK.value(), requests));
+    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getMechanicRequestsByCustomerUsername(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<MechanicRequest> requests = service.getByUsername(username, null, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page("Fetched mechanic requests for customer successfully", HttpStatus.OK.value(), requests));
+        }, ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "client", username));
     }
 
-    /** Get mechanic requests assigned to a specific mechanic */
+    /** Get mechanic requests assigned to a specific mechanic. ETag; 304 on a matching If-None-Match */
     @GetMapping("/mechanic/{mechanicId}")
-    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getMechanicRequestsByMechanicId(@PathVariable String mechanicId) {
-        List<MechanicRequest> requests = service.getByMechanicId(mechanicId);
-        return ResponseEntity.ok(new ApiResponse<>("Fetched mechanic requests for mechanic successfully", HttpStatus.OK.value(), requests));
+    public ResponseEntity<ApiResponse<List<MechanicRequest>>> getMechanicRequestsByMechanicId(
+            @PathVariable String mechanicId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<MechanicRequest> requests = service.getByMechanicId(mechanicId, null, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page("Fetched mechanic requests for mechanic successfully", HttpStatus.OK.value(), requests));
+        }, ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "mechanic", mechanicId));
     }
 
     /** Mechanic accepts an available job */
@@ -138,4 +169,10 @@ public class MechanicController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new ApiResponse<>("No mechanic requests found for user", HttpStatus.NOT_FOUND.value(), null));
     }
+
+    private boolean isMechanic(Authentication auth) {
+        if (auth == null || auth.getAuthorities() == null) return false;
+        return auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_MECHANIC".equals(a.getAuthority()) || "MECHANIC".equals(a.getAuthority()));
+    }
 }
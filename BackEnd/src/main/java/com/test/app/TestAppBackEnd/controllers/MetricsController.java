@@ -0,0 +1,123 @@
+package com.test.app.TestAppBackEnd.controllers;
+
+import com.test.app.TestAppBackEnd.config.VirtualThreadPinningMonitor;
+import com.test.app.TestAppBackEnd.config.WorkloadExecutor;
+import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.security.PasswordHashingService;
+import com.test.app.TestAppBackEnd.security.PrincipalCache;
+import com.test.app.TestAppBackEnd.services.JobFeedService;
+import com.test.app.TestAppBackEnd.services.MechanicDispatchEngine;
+import com.test.app.TestAppBackEnd.services.NotificationOutboxDispatcher;
+import com.test.app.TestAppBackEnd.services.NotificationOutboxService;
+import com.test.app.TestAppBackEnd.services.OfferingCatalogCache;
+import com.test.app.TestAppBackEnd.services.ProviderOfferingIndex;
+import com.test.app.TestAppBackEnd.services.OfferingGeoIndex;
+import com.test.app.TestAppBackEnd.services.ProviderCapacity;
+import com.test.app.TestAppBackEnd.services.ReportJobService;
+import com.test.app.TestAppBackEnd.services.SmtpConnectionPool;
+import com.test.app.TestAppBackEnd.services.TokenRevocationService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin-only runtime counters (caches, pools) for diagnosing performance in deployed environments.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final PasswordHashingService passwordHashingService;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final List<WorkloadExecutor> executors;
+    private final NotificationOutboxService outboxService;
+    private final NotificationOutboxDispatcher outboxDispatcher;
+    private final SmtpConnectionPool smtpConnectionPool;
+    private final ReportJobService reportJobService;
+    private final OfferingGeoIndex offeringGeoIndex;
+    private final MechanicDispatchEngine dispatchEngine;
+    private final ProviderCapacity providerCapacity;
+    private final JobFeedService jobFeedService;
+    private final ConditionalGet conditionalGet;
+    private final OfferingCatalogCache catalogCache;
+    private final ProviderOfferingIndex offeringIndex;
+
+    public MetricsController(PrincipalCache principalCache,
+                             TokenRevocationService tokenRevocationService,
+                             PasswordHashingService passwordHashingService,
+                             ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+                             List<WorkloadExecutor> executors,
+                             NotificationOutboxService outboxService,
+                             NotificationOutboxDispatcher outboxDispatcher,
+                             SmtpConnectionPool smtpConnectionPool,
+                             ReportJobService reportJobService,
+                             OfferingGeoIndex offeringGeoIndex,
+                             MechanicDispatchEngine dispatchEngine,
+                             ProviderCapacity providerCapacity,
+                             JobFeedService jobFeedService,
+                             ConditionalGet conditionalGet,
+                             OfferingCatalogCache catalogCache,
+                             ProviderOfferingIndex offeringIndex) {
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.passwordHashingService = passwordHashingService;
+        this.pinningMonitor = pinningMonitor;
+        this.executors = executors;
+        this.outboxService = outboxService;
+        this.outboxDispatcher = outboxDispatcher;
+        this.smtpConnectionPool = smtpConnectionPool;
+        this.reportJobService = reportJobService;
+        this.offeringGeoIndex = offeringGeoIndex;
+        this.dispatchEngine = dispatchEngine;
+        this.providerCapacity = providerCapacity;
+        this.jobFeedService = jobFeedService;
+        this.conditionalGet = conditionalGet;
+        this.catalogCache = catalogCache;
+        this.offeringIndex = offeringIndex;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getMetrics(Authentication auth) {
+        if (!isAdmin(auth)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse<>("Admin access required", HttpStatus.FORBIDDEN.value(), null));
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("principalCache", principalCache.stats());
+        metrics.put("tokenRevocation", tokenRevocationService.stats());
+        metrics.put("passwordHashing", passwordHashingService.stats());
+        Map<String, Object> executorStats = new LinkedHashMap<>();
+        executors.forEach(e -> executorStats.put(e.getName(), e.stats()));
+        metrics.put("executors", executorStats);
+        Map<String, Object> outboxStats = new LinkedHashMap<>(outboxService.stats());
+        outboxStats.putAll(outboxDispatcher.stats());
+        metrics.put("notificationOutbox", outboxStats);
+        metrics.put("smtpPool", smtpConnectionPool.stats());
+        metrics.put("reportJobs", reportJobService.stats());
+        metrics.put("offeringGeoIndex", offeringGeoIndex.stats());
+        metrics.put("catalogCache", catalogCache.stats());
+        metrics.put("offeringIndex", offeringIndex.stats());
+        metrics.put("dispatch", dispatchEngine.stats());
+        metrics.put("providerCapacity", providerCapacity.stats());
+        metrics.put("jobFeed", jobFeedService.stats());
+        metrics.put("etags", conditionalGet.stats());
+        pinningMonitor.ifAvailable(m -> metrics.put("virtualThreadPinning", m.stats()));
+        return ResponseEntity.ok(new ApiResponse<>("Metrics retrieved", HttpStatus.OK.value(), metrics));
+    }
+
+    private boolean isAdmin(Authentication auth) {
+        if (auth == null || auth.getAuthorities() == null) return false;
+        return auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ADMIN".equals(a.getAuthority()));
+    }
+}
@@ -4,11 +4,15 @@ import com.stripe.exception.StripeException;
 import com.test.app.TestAppBackEnd.constants.Role;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.models.CursorPage;
 import com.test.app.TestAppBackEnd.models.PaymentRequest;
+import com.test.app.TestAppBackEnd.models.PaymentTotals;
 import com.test.app.TestAppBackEnd.entities.Payment;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.services.PaymentService;
+import com.test.app.TestAppBackEnd.services.ResourceVersions;
 import com.test.app.TestAppBackEnd.services.StripeService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -32,6 +36,9 @@ public class PaymentController {
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private ConditionalGet conditionalGet;
+
     private boolean isAdmin(Authentication auth) {
         if (auth == null || auth.getAuthorities() == null) return false;
         return auth.getAuthorities().stream()
@@ -86,38 +93,88 @@ public class PaymentController {
 
     // Get all payments (supports both GET /api/payments and GET /api/payments/getPayments)
     // Admin: all payments. Others: only payments linked to the current user (as client, mechanic, or car wash).
+    // Paged: ?limit= and ?cursor= (nextCursor of the previous page). ETag; 304 on a matching If-None-Match
     @GetMapping({"", "/"})
     public ResponseEntity<ApiResponse<List<Payment>>> getPaymentsRoot(
             @RequestParam(required = false) String search,
-            Authentication auth) {
-        return getAllPayments(search, auth);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth,
+            HttpServletRequest httpRequest) {
+        return getAllPayments(search, cursor, limit, auth, httpRequest);
     }
 
     @GetMapping("/getPayments")
     public ResponseEntity<ApiResponse<List<Payment>>> getAllPayments(
             @RequestParam(required = false) String search,
-            Authentication auth) {
-        List<Payment> payments;
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth,
+            HttpServletRequest httpRequest) {
         if (isAdmin(auth)) {
-            payments = paymentService.getAllPayments(search);
-        } else {
-            Optional<UserProfile> profileOpt = currentProfile(auth);
-            if (profileOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new ApiResponse<>("Profile not found", HttpStatus.FORBIDDEN.value(), List.of()));
-            }
-            UserProfile profile = profileOpt.get();
-            String username = profile.getUsername();
-            String profileId = profile.getId();
-            if (profile.getRoles().contains(Role.MECHANIC)) {
-                payments = paymentService.getPaymentsByMechanic(profileId, search);
-            } else if (profile.getRoles().contains(Role.CARWASH)) {
-                payments = paymentService.getPaymentsByCarWash(profileId, search);
-            } else {
-                payments = paymentService.getPaymentsByClient(username, search);
-            }
+            return conditionalGet.respond(httpRequest,
+                    () -> paymentsPage(paymentService.getAllPayments(search, cursor, limit)),
+                    ResourceVersions.PAYMENTS);
+        }
+        Optional<UserProfile> profileOpt = currentProfile(auth);
+        if (profileOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse<>("Profile not found", HttpStatus.FORBIDDEN.value(), List.of()));
+        }
+        UserProfile profile = profileOpt.get();
+        String username = profile.getUsername();
+        String profileId = profile.getId();
+        if (profile.getRoles().contains(Role.MECHANIC)) {
+            return conditionalGet.respond(httpRequest,
+                    () -> paymentsPage(paymentService.getPaymentsByMechanic(profileId, search, cursor, limit)),
+                    ResourceVersions.scope(ResourceVersions.PAYMENTS, "mechanic", profileId));
+        } else if (profile.getRoles().contains(Role.CARWASH)) {
+            return conditionalGet.respond(httpRequest,
+                    () -> paymentsPage(paymentService.getPaymentsByCarWash(profileId, search, cursor, limit)),
+                    ResourceVersions.scope(ResourceVersions.PAYMENTS, "carwash", profileId));
+        }
+        return conditionalGet.respond(httpRequest,
+                () -> paymentsPage(paymentService.getPaymentsByClient(username, search, cursor, limit)),
+                ResourceVersions.scope(ResourceVersions.PAYMENTS, "client", username));
+    }
+
+    // Payment count and sums for the current user, scoped like GET /getPayments (admin: all payments).
+    // For dashboard and earnings totals, so clients do not page through every payment to add them up
+    @GetMapping("/totals")
+    public ResponseEntity<ApiResponse<PaymentTotals>> getPaymentTotals(Authentication auth, HttpServletRequest httpRequest) {
+        if (isAdmin(auth)) {
+            return conditionalGet.respond(httpRequest,
+                    () -> totals(paymentService.getTotals()),
+                    ResourceVersions.PAYMENTS);
+        }
+        Optional<UserProfile> profileOpt = currentProfile(auth);
+        if (profileOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse<>("Profile not found", HttpStatus.FORBIDDEN.value(), null));
         }
-        return ResponseEntity.ok(new ApiResponse<>(
+        UserProfile profile = profileOpt.get();
+        String username = profile.getUsername();
+        String profileId = profile.getId();
+        if (profile.getRoles().contains(Role.MECHANIC)) {
+            return conditionalGet.respond(httpRequest,
+                    () -> totals(paymentService.getTotalsByMechanic(profileId)),
+                    ResourceVersions.scope(ResourceVersions.PAYMENTS, "mechanic", profileId));
+        } else if (profile.getRoles().contains(Role.CARWASH)) {
+            return conditionalGet.respond(httpRequest,
+                    () -> totals(paymentService.getTotalsByCarWash(profileId)),
+                    ResourceVersions.scope(ResourceVersions.PAYMENTS, "carwash", profileId));
+        }
+        return conditionalGet.respond(httpRequest,
+                () -> totals(paymentService.getTotalsByClient(username)),
+                ResourceVersions.scope(ResourceVersions.PAYMENTS, "client", username));
+    }
+
+    private static ResponseEntity<ApiResponse<PaymentTotals>> totals(PaymentTotals totals) {
+        return ResponseEntity.ok(new ApiResponse<>("Fetched payment totals", HttpStatus.OK.value(), totals));
+    }
+
+    private static ResponseEntity<ApiResponse<List<Payment>>> paymentsPage(CursorPage<Payment> payments) {
+        return ResponseEntity.ok(ApiResponse.page(
                 "Fetched payments",
                 HttpStatus.OK.value(),
                 payments));
@@ -128,16 +185,21 @@ public class PaymentController {
     public ResponseEntity<ApiResponse<List<Payment>>> getPaymentsByClient(
             @PathVariable String username,
             @RequestParam(required = false) String search,
-            Authentication auth) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth,
+            HttpServletRequest httpRequest) {
         if (!isAdmin(auth) && (auth == null || !username.equals(auth.getName()))) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new ApiResponse<>("You may only view your own payments", HttpStatus.FORBIDDEN.value(), null));
         }
-        List<Payment> payments = paymentService.getPaymentsByClient(username, search);
-        return ResponseEntity.ok(new ApiResponse<>(
-                "Fetched payments for client: " + username,
-                HttpStatus.OK.value(),
-                payments));
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<Payment> payments = paymentService.getPaymentsByClient(username, search, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page(
+                    "Fetched payments for client: " + username,
+                    HttpStatus.OK.value(),
+                    payments));
+        }, ResourceVersions.scope(ResourceVersions.PAYMENTS, "client", username));
     }
 
     // Get payments by mechanic ID (non-admin may only request their own profile id)
@@ -145,7 +207,10 @@ public class PaymentController {
     public ResponseEntity<ApiResponse<List<Payment>>> getPaymentsByMechanic(
             @PathVariable String mechanicId,
             @RequestParam(required = false) String search,
-            Authentication auth) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth,
+            HttpServletRequest httpRequest) {
         if (!isAdmin(auth)) {
             Optional<UserProfile> profileOpt = currentProfile(auth);
             if (profileOpt.isEmpty() || !mechanicId.equals(profileOpt.get().getId())) {
@@ -153,11 +218,13 @@ public class PaymentController {
                         .body(new ApiResponse<>("You may only view your own payments", HttpStatus.FORBIDDEN.value(), null));
             }
         }
-        List<Payment> payments = paymentService.getPaymentsByMechanic(mechanicId, search);
-        return ResponseEntity.ok(new ApiResponse<>(
-                "Fetched payments for mechanic ID: " + mechanicId,
-                HttpStatus.OK.value(),
-                payments));
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<Payment> payments = paymentService.getPaymentsByMechanic(mechanicId, search, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page(
+                    "Fetched payments for mechanic ID: " + mechanicId,
+                    HttpStatus.OK.value(),
+                    payments));
+        }, ResourceVersions.scope(ResourceVersions.PAYMENTS, "mechanic", mechanicId));
     }
 
     // Get payments by car wash ID (non-admin may only request their own profile id)
@@ -165,7 +232,10 @@ public class PaymentController {
     public ResponseEntity<ApiResponse<List<Payment>>> getPaymentsByCarWash(
             @PathVariable String carWashId,
             @RequestParam(required = false) String search,
-            Authentication auth) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth,
+            HttpServletRequest httpRequest) {
         if (!isAdmin(auth)) {
             Optional<UserProfile> profileOpt = currentProfile(auth);
             if (profileOpt.isEmpty() || !carWashId.equals(profileOpt.get().getId())) {
@@ -173,11 +243,13 @@ public class PaymentController {
                         .body(new ApiResponse<>("You may only view your own payments", HttpStatus.FORBIDDEN.value(), null));
             }
         }
-        List<Payment> payments = paymentService.getPaymentsByCarWash(carWashId, search);
-        return ResponseEntity.ok(new ApiResponse<>(
-                "Fetched payments for car wash ID: " + carWashId,
-                HttpStatus.OK.value(),
-                payments));
+        return conditionalGet.respond(httpRequest, () -> {
+            CursorPage<Payment> payments = paymentService.getPaymentsByCarWash(carWashId, search, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page(
+                    "Fetched payments for car wash ID: " + carWashId,
+                    HttpStatus.OK.value(),
+                    payments));
+        }, ResourceVersions.scope(ResourceVersions.PAYMENTS, "carwash", carWashId));
     }
 
     // Delete payment by ID
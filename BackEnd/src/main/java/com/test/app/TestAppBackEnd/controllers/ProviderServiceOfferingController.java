@@ -5,7 +5,9 @@ import com.test.app.TestAppBackEnd.entities.UserProfile;
 import com.test.app.TestAppBackEnd.models.ApiResponse;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.services.ProviderServiceOfferingService;
+import com.test.app.TestAppBackEnd.services.ResourceVersions;
 import com.test.app.TestAppBackEnd.services.UserProfileService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -20,22 +22,28 @@ public class ProviderServiceOfferingController {
 
     private final ProviderServiceOfferingService service;
 private final UserProfileService userProfileService;
-    public ProviderServiceOfferingController(ProviderServiceOfferingService service, UserProfileService userProfileService) {
+    private final ConditionalGet conditionalGet;
+    public ProviderServiceOfferingController(ProviderServiceOfferingService service, UserProfileService userProfileService,
+                                             ConditionalGet conditionalGet) {
         this.service = service;
         this.userProfileService = userProfileService;
+        this.conditionalGet = conditionalGet;
     }
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<ProviderServiceOffering>>> getMyOfferings(
             @RequestParam String providerType,
-            Authentication auth) {
+            Authentication auth,
+            HttpServletRequest httpRequest) {
         String username = auth != null ? auth.getName() : null;
         if (username == null || username.isBlank()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse<>("Unauthorized", HttpStatus.UNAUTHORIZED.value(), null));
         }
-        List<ProviderServiceOffering> list = service.getMyOfferings(username, providerType);
-        return ResponseEntity.ok(new ApiResponse<>("OK", HttpStatus.OK.value(), list));
+        return conditionalGet.respond(httpRequest, () -> {
+            List<ProviderServiceOffering> list = service.getMyOfferings(username, providerType);
+            return ResponseEntity.ok(new ApiResponse<>("OK", HttpStatus.OK.value(), list));
+        }, ResourceVersions.scope(ResourceVersions.OFFERINGS, "provider", username));
     }
     @GetMapping("/nearby")
     public ResponseEntity<List<ProviderServiceOffering>> getNearbyOfferings(
@@ -54,11 +62,14 @@ private final UserProfileService userProfileService;
 
         return ResponseEntity.ok(results);
     }
-    /** Catalog for clients: all services and prices by provider type (no auth filter) */
+    /** Catalog for clients: all services and prices by provider type (no auth filter). ETag; 304 on a matching If-None-Match */
     @GetMapping("/catalog")
-    public ResponseEntity<ApiResponse<List<ProviderServiceOffering>>> getCatalog(@RequestParam String providerType) {
-        List<ProviderServiceOffering> list = service.getCatalog(providerType);
-        return ResponseEntity.ok(new ApiResponse<>("OK", HttpStatus.OK.value(), list));
+    public ResponseEntity<ApiResponse<List<ProviderServiceOffering>>> getCatalog(@RequestParam String providerType,
+                                                                                  HttpServletRequest httpRequest) {
+        return conditionalGet.respond(httpRequest, () -> {
+            List<ProviderServiceOffering> list = service.getCatalog(providerType);
+            return ResponseEntity.ok(new ApiResponse<>("OK", HttpStatus.OK.value(), list));
+        }, ResourceVersions.scope(ResourceVersions.OFFERINGS, "type", providerType));
     }
 
     @PostMapping
@@ -1,15 +1,26 @@
 package com.test.app.TestAppBackEnd.controllers;
 
+import com.test.app.TestAppBackEnd.constants.ReportType;
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.models.ReportJobResponse;
 import com.test.app.TestAppBackEnd.models.ReportRequest;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
+import com.test.app.TestAppBackEnd.services.ReportJobService;
+import com.test.app.TestAppBackEnd.services.ReportJobService.ReportSpec;
 import com.test.app.TestAppBackEnd.services.ReportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -17,10 +28,14 @@ import org.springframework.web.bind.annotation.*;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportJobService reportJobService;
     private final UserProfileRepository userProfileRepository;
 
-    public ReportController(ReportService reportService, UserProfileRepository userProfileRepository) {
+    public ReportController(ReportService reportService,
+                            ReportJobService reportJobService,
+                            UserProfileRepository userProfileRepository) {
         this.reportService = reportService;
+        this.reportJobService = reportJobService;
         this.userProfileRepository = userProfileRepository;
     }
 
@@ -46,7 +61,7 @@ public class ReportController {
     // ---------- Car Wash Report ----------
 
     @GetMapping("/carwash/export")
-    public ResponseEntity<byte[]> exportCarWashReport(
+    public ResponseEntity<StreamingResponseBody> exportCarWashReport(
             @RequestParam String username,
             @RequestParam String startDate,
             @RequestParam String endDate,
@@ -55,34 +70,20 @@ public class ReportController {
         if (current == null || (!current.equals(username) && !isAdmin(auth))) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        byte[] csv = reportService.getCarWashReportCsv(username, startDate, endDate);
+        reportService.validateDateRange(startDate, endDate);
         String fileName = "car-wash-history-" + startDate + "-to-" + endDate + ".csv";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
-        headers.setContentDispositionFormData("attachment", fileName);
-        return ResponseEntity.ok().headers(headers).body(csv);
+        return csvResponse(fileName, out -> reportService.writeCarWashReportCsv(username, startDate, endDate, out));
     }
 
     @PostMapping("/carwash/email")
     public ResponseEntity<ApiResponse<Void>> emailCarWashReport(@RequestBody ReportRequest request, Authentication auth) {
-        String current = currentUsername(auth);
-        if (current == null || (request.getUsername() != null && !current.equals(request.getUsername()) && !isAdmin(auth))) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(new ApiResponse<>("Not allowed", HttpStatus.FORBIDDEN.value(), null));
-        }
-        String username = request.getUsername() != null ? request.getUsername() : current;
-        if (request.getStartDate() == null || request.getEndDate() == null) {
-            return ResponseEntity.badRequest()
-                    .body(new ApiResponse<>("startDate and endDate are required", HttpStatus.BAD_REQUEST.value(), null));
-        }
-        reportService.sendCarWashReportToEmail(username, request.getStartDate(), request.getEndDate(), request.getEmail());
-        return ResponseEntity.ok(new ApiResponse<>("Report will be sent to your email shortly.", HttpStatus.OK.value(), null));
+        return emailJob(submitJob(ReportType.CARWASH, request, true, auth));
     }
 
     // ---------- Mechanic Requests Report ----------
 
     @GetMapping("/mechanic-requests/export")
-    public ResponseEntity<byte[]> exportMechanicRequestsReport(
+    public ResponseEntity<StreamingResponseBody> exportMechanicRequestsReport(
             @RequestParam(required = false) String username,
             @RequestParam(required = false) String mechanicId,
             @RequestParam String startDate,
@@ -98,46 +99,22 @@ public class ReportController {
         if (!byMechanic && !username.equals(current) && !isAdmin(auth)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        byte[] csv = byMechanic
-                ? reportService.getMechanicRequestsReportCsvByMechanic(mechanicId, startDate, endDate)
-                : reportService.getMechanicRequestsReportCsvByUser(username, startDate, endDate);
+        reportService.validateDateRange(startDate, endDate);
+        String user = username;
         String fileName = "mechanic-requests-history-" + startDate + "-to-" + endDate + ".csv";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
-        headers.setContentDispositionFormData("attachment", fileName);
-        return ResponseEntity.ok().headers(headers).body(csv);
+        return csvResponse(fileName, out -> reportService.writeMechanicRequestsReportCsv(
+                user, byMechanic ? mechanicId : null, startDate, endDate, out));
     }
 
     @PostMapping("/mechanic-requests/email")
     public ResponseEntity<ApiResponse<Void>> emailMechanicRequestsReport(@RequestBody ReportRequest request, Authentication auth) {
-        String current = currentUsername(auth);
-        if (current == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new ApiResponse<>("Unauthorized", HttpStatus.UNAUTHORIZED.value(), null));
-        }
-        if (request.getStartDate() == null || request.getEndDate() == null) {
-            return ResponseEntity.badRequest()
-                    .body(new ApiResponse<>("startDate and endDate are required", HttpStatus.BAD_REQUEST.value(), null));
-        }
-        String username = request.getUsername() != null ? request.getUsername() : current;
-        String mechanicId = request.getMechanicId();
-        boolean byMechanic = mechanicId != null && !mechanicId.isBlank();
-        if (byMechanic && !mechanicId.equals(current) && !isAdmin(auth)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(new ApiResponse<>("Not allowed", HttpStatus.FORBIDDEN.value(), null));
-        }
-        if (!byMechanic && !username.equals(current) && !isAdmin(auth)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(new ApiResponse<>("Not allowed", HttpStatus.FORBIDDEN.value(), null));
-        }
-        reportService.sendMechanicRequestsReportToEmail(username, mechanicId, request.getStartDate(), request.getEndDate(), request.getEmail());
-        return ResponseEntity.ok(new ApiResponse<>("Report will be sent to your email shortly.", HttpStatus.OK.value(), null));
+        return emailJob(submitJob(ReportType.MECHANIC_REQUESTS, request, true, auth));
     }
 
     // ---------- Earnings Report (service provider only) ----------
 
     @GetMapping("/earnings/export")
-    public ResponseEntity<byte[]> exportEarningsReport(
+    public ResponseEntity<StreamingResponseBody> exportEarningsReport(
             @RequestParam(required = false) String mechanicId,
             @RequestParam(required = false) String carWashId,
             @RequestParam String startDate,
@@ -147,33 +124,20 @@ public class ReportController {
         if (!isCurrentUserProvider(mechanicId, carWashId, auth) && !isAdmin(auth)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        byte[] csv = reportService.getEarningsReportCsv(mechanicId, carWashId, startDate, endDate);
+        reportService.validateDateRange(startDate, endDate);
         String fileName = "earnings-" + startDate + "-to-" + endDate + ".csv";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
-        headers.setContentDispositionFormData("attachment", fileName);
-        return ResponseEntity.ok().headers(headers).body(csv);
+        return csvResponse(fileName, out -> reportService.writeEarningsReportCsv(mechanicId, carWashId, startDate, endDate, out));
     }
 
     @PostMapping("/earnings/email")
     public ResponseEntity<ApiResponse<Void>> emailEarningsReport(@RequestBody ReportRequest request, Authentication auth) {
-        if (currentUsername(auth) == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("Unauthorized", HttpStatus.UNAUTHORIZED.value(), null));
-        }
-        if (request.getStartDate() == null || request.getEndDate() == null) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("startDate and endDate are required", HttpStatus.BAD_REQUEST.value(), null));
-        }
-        if (!isCurrentUserProvider(request.getMechanicId(), request.getCarWashId(), auth) && !isAdmin(auth)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse<>("Not allowed", HttpStatus.FORBIDDEN.value(), null));
-        }
-        reportService.sendEarningsReportToEmail(request.getMechanicId(), request.getCarWashId(), request.getStartDate(), request.getEndDate(), request.getEmail());
-        return ResponseEntity.ok(new ApiResponse<>("Report will be sent to your email shortly.", HttpStatus.OK.value(), null));
+        return emailJob(submitJob(ReportType.EARNINGS, request, true, auth));
     }
 
     // ---------- Completed Jobs Report (service provider only) ----------
 
     @GetMapping("/completed-jobs/export")
-    public ResponseEntity<byte[]> exportCompletedJobsReport(
+    public ResponseEntity<StreamingResponseBody> exportCompletedJobsReport(
             @RequestParam(required = false) String mechanicId,
             @RequestParam(required = false) String carWashId,
             @RequestParam String startDate,
@@ -183,27 +147,146 @@ public class ReportController {
         if (!isCurrentUserProvider(mechanicId, carWashId, auth) && !isAdmin(auth)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        byte[] csv = reportService.getCompletedJobsReportCsv(mechanicId, carWashId, startDate, endDate);
+        reportService.validateDateRange(startDate, endDate);
         String fileName = "completed-jobs-" + startDate + "-to-" + endDate + ".csv";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
-        headers.setContentDispositionFormData("attachment", fileName);
-        return ResponseEntity.ok().headers(headers).body(csv);
+        return csvResponse(fileName, out -> reportService.writeCompletedJobsReportCsv(mechanicId, carWashId, startDate, endDate, out));
     }
 
     @PostMapping("/completed-jobs/email")
     public ResponseEntity<ApiResponse<Void>> emailCompletedJobsReport(@RequestBody ReportRequest request, Authentication auth) {
-        if (currentUsername(auth) == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiResponse<>("Unauthorized", HttpStatus.UNAUTHORIZED.value(), null));
+        return emailJob(submitJob(ReportType.COMPLETED_JOBS, request, true, auth));
+    }
+
+    // ---------- Report jobs ----------
+
+    /**
+     * Queues a report and returns 202 with the job id; poll {@code GET /jobs/{id}} and fetch the CSV from
+     * its downloadUrl. An identical recent request returns the existing job (cached = true).
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> createReportJob(@RequestBody ReportRequest request, Authentication auth) {
+        if (request.getType() == null) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("type is required", HttpStatus.BAD_REQUEST.value(), null));
+        }
+        return submitJob(request.getType(), request, request.getEmail() != null && !request.getEmail().isBlank(), auth);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getReportJob(@PathVariable String id, Authentication auth) {
+        HttpStatus denied = checkJobAccess(id, auth);
+        if (denied != null) {
+            return ResponseEntity.status(denied).body(new ApiResponse<>(denied.getReasonPhrase(), denied.value(), null));
+        }
+        return reportJobService.getStatus(id)
+                .map(job -> ResponseEntity.ok(new ApiResponse<>("Report job retrieved", HttpStatus.OK.value(), job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>("Report job not found", HttpStatus.NOT_FOUND.value(), null)));
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<Resource> downloadReportJob(@PathVariable String id, Authentication auth) {
+        HttpStatus denied = checkJobAccess(id, auth);
+        if (denied != null) return ResponseEntity.status(denied).build();
+        Optional<ReportJobResponse> job = reportJobService.getStatus(id);
+        Optional<Path> file = reportJobService.getResultFile(id);
+        if (job.isEmpty() || file.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        headers.setContentDispositionFormData("attachment", job.get().getFileName());
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file.get()));
+    }
+
+    private ResponseEntity<ApiResponse<ReportJobResponse>> submitJob(ReportType type, ReportRequest request,
+                                                                      boolean sendEmail, Authentication auth) {
+        String current = currentUsername(auth);
+        if (current == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse<>("Unauthorized", HttpStatus.UNAUTHORIZED.value(), null));
         }
         if (request.getStartDate() == null || request.getEndDate() == null) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>("startDate and endDate are required", HttpStatus.BAD_REQUEST.value(), null));
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>("startDate and endDate are required", HttpStatus.BAD_REQUEST.value(), null));
         }
-        if (!isCurrentUserProvider(request.getMechanicId(), request.getCarWashId(), auth) && !isAdmin(auth)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiResponse<>("Not allowed", HttpStatus.FORBIDDEN.value(), null));
+        ReportSpec spec = toSpec(type, request, current);
+        HttpStatus denied = checkAccess(spec, auth);
+        if (denied != null) {
+            return ResponseEntity.status(denied).body(new ApiResponse<>("Not allowed", denied.value(), null));
         }
-        reportService.sendCompletedJobsReportToEmail(request.getMechanicId(), request.getCarWashId(), request.getStartDate(), request.getEndDate(), request.getEmail());
-        return ResponseEntity.ok(new ApiResponse<>("Report will be sent to your email shortly.", HttpStatus.OK.value(), null));
+        String emailTo = null;
+        if (sendEmail) {
+            emailTo = request.getEmail() != null && !request.getEmail().isBlank()
+                    ? request.getEmail()
+                    : reportService.defaultEmail(type, spec.username(), spec.mechanicId(), spec.carWashId());
+            if (emailTo == null) {
+                throw new IllegalArgumentException("No email address: set email in the request or in the profile");
+            }
+        }
+        ReportJobResponse job = reportJobService.submit(spec, emailTo);
+        String message = sendEmail ? "Report will be sent to your email shortly." : "Report job accepted";
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ApiResponse<>(message, HttpStatus.ACCEPTED.value(), job));
+    }
+
+    /**
+     * The email endpoints keep their original 200 + message response; the job they queued is
+     * exposed through the Location header for callers that want to poll it.
+     */
+    private ResponseEntity<ApiResponse<Void>> emailJob(ResponseEntity<ApiResponse<ReportJobResponse>> submitted) {
+        ApiResponse<ReportJobResponse> body = submitted.getBody();
+        if (submitted.getStatusCode().value() != HttpStatus.ACCEPTED.value() || body == null || body.getData() == null) {
+            return ResponseEntity.status(submitted.getStatusCode())
+                    .body(body == null ? null : new ApiResponse<>(body.getMessage(), body.getStatusCode(), null));
+        }
+        return ResponseEntity.ok()
+                .location(URI.create("/api/reports/jobs/" + body.getData().getId()))
+                .body(new ApiResponse<>(body.getMessage(), HttpStatus.OK.value(), null));
+    }
+
+    /** Keeps only the fields the report type reads, so identical reports share one job. */
+    private ReportSpec toSpec(ReportType type, ReportRequest request, String current) {
+        String username = request.getUsername() != null && !request.getUsername().isBlank() ? request.getUsername() : current;
+        String mechanicId = blankToNull(request.getMechanicId());
+        String carWashId = blankToNull(request.getCarWashId());
+        return switch (type) {
+            case CARWASH -> new ReportSpec(type, username, null, null, request.getStartDate(), request.getEndDate());
+            case MECHANIC_REQUESTS -> mechanicId != null
+                    ? new ReportSpec(type, null, mechanicId, null, request.getStartDate(), request.getEndDate())
+                    : new ReportSpec(type, username, null, null, request.getStartDate(), request.getEndDate());
+            case EARNINGS, COMPLETED_JOBS ->
+                    new ReportSpec(type, null, mechanicId, carWashId, request.getStartDate(), request.getEndDate());
+        };
+    }
+
+    /** Same rules as the export endpoints: own data for client reports, own profile for provider reports, or admin. */
+    private HttpStatus checkAccess(ReportSpec spec, Authentication auth) {
+        String current = currentUsername(auth);
+        if (current == null) return HttpStatus.UNAUTHORIZED;
+        if (isAdmin(auth)) return null;
+        boolean allowed = switch (spec.type()) {
+            case CARWASH -> current.equals(spec.username());
+            case MECHANIC_REQUESTS -> spec.mechanicId() != null ? spec.mechanicId().equals(current) : current.equals(spec.username());
+            case EARNINGS, COMPLETED_JOBS -> isCurrentUserProvider(spec.mechanicId(), spec.carWashId(), auth);
+        };
+        return allowed ? null : HttpStatus.FORBIDDEN;
+    }
+
+    private HttpStatus checkJobAccess(String jobId, Authentication auth) {
+        if (currentUsername(auth) == null) return HttpStatus.UNAUTHORIZED;
+        Optional<ReportSpec> spec = reportJobService.getSpec(jobId);
+        if (spec.isEmpty()) return HttpStatus.NOT_FOUND;
+        return checkAccess(spec.get(), auth);
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
+
+    /** The body is written after the handler returns, straight from the DB cursor to the response. */
+    private ResponseEntity<StreamingResponseBody> csvResponse(String fileName, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        headers.setContentDispositionFormData("attachment", fileName);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     private boolean isAdmin(Authentication auth) {
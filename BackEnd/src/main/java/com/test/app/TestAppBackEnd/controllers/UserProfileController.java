@@ -4,11 +4,15 @@ import com.test.app.TestAppBackEnd.constants.Role;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
 import com.test.app.TestAppBackEnd.services.UserProfileService;
 import com.test.app.TestAppBackEnd.models.ApiResponse;
+import com.test.app.TestAppBackEnd.models.CursorPage;
+import com.test.app.TestAppBackEnd.models.UserProfileSummary;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/user-profile")
 @CrossOrigin(origins = { "https://172.20.10.11:3000", "https://172.19.80.1:3000", "http://localhost:5173",
@@ -75,8 +79,10 @@ public class UserProfileController {
 
     // Get user profiles by role
     @GetMapping("/role/{role}")
-    public ResponseEntity<ApiResponse<Iterable<UserProfile>>> getProfilesByRole(
+    public ResponseEntity<ApiResponse<List<UserProfileSummary>>> getProfilesByRole(
             @PathVariable String role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
 
         String loggedInUsername = authentication.getName();
@@ -84,11 +90,11 @@ public class UserProfileController {
 
         try {
             Role enumRole = Role.valueOf(role.toUpperCase()); // ensure case safety
-            Iterable<UserProfile> profiles = userProfileService.getProfilesByRole(enumRole);
+            CursorPage<UserProfileSummary> profiles = userProfileService.getProfilesByRole(enumRole, cursor, limit);
 
-            if (profiles.iterator().hasNext()) {
+            if (!profiles.getItems().isEmpty()) {
                 return ResponseEntity.ok(
-                        new ApiResponse<>("Profiles retrieved successfully", HttpStatus.OK.value(), profiles));
+                        ApiResponse.page("Profiles retrieved successfully", HttpStatus.OK.value(), profiles));
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>("No profiles found for role: " + role, HttpStatus.NOT_FOUND.value(),
@@ -109,17 +115,19 @@ public class UserProfileController {
 
     // ================= GET ALL PROFILES (ADMIN ONLY) =================
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse<Iterable<UserProfile>>> getAllProfiles(
+    public ResponseEntity<ApiResponse<List<UserProfileSummary>>> getAllProfiles(
             Authentication authentication,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         String loggedInUsername = authentication.getName();
         boolean isAdmin = userProfileService.isAdminByUsername(loggedInUsername);
 
         System.out.println("[GET ALL] Logged-in user: " + loggedInUsername + ", IsAdmin: " + isAdmin);
 
-        Iterable<UserProfile> profiles = userProfileService.getAllProfiles(search);
+        CursorPage<UserProfileSummary> profiles = userProfileService.getAllProfiles(search, cursor, limit);
         System.out.println("[GET ALL] Response ready with all profiles");
-        return ResponseEntity.ok(new ApiResponse<>("All profiles retrieved", HttpStatus.OK.value(), profiles));
+        return ResponseEntity.ok(ApiResponse.page("All profiles retrieved", HttpStatus.OK.value(), profiles));
     }
 
     // ================= UPDATE OWN PROFILE =================
@@ -1,13 +1,17 @@
 package com.test.app.TestAppBackEnd.entities;
 
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.util.PageCursor;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "car_wash_booking")
@@ -40,9 +44,18 @@ public class CarWashBooking {
     private String carDescription;
 
     // ================== SERVICE DETAILS ==================
+    /**
+     * Requested services; lazy, and loaded for a whole list page (probe row included) in one query when the first
+     * booking's are touched. Unpaged lists fetch-join them, CSV exports aggregate them in SQL.
+     */
     @ElementCollection
-    @CollectionTable(name = "car_wash_services", joinColumns = @JoinColumn(name = "booking_id"))
-    @Column(name = "service_type")
+    @CollectionTable(name = "car_wash_booking_line_items", joinColumns = @JoinColumn(name = "booking_id"))
+    @OrderColumn(name = "line_no")
+    @BatchSize(size = PageCursor.MAX_LIMIT + 1)
+    private List<JobLineItem> lineItems = new ArrayList<>();
+
+    /** Service names as older clients send them; read back from the line items once there are any. */
+    @Transient
     private List<String> serviceTypes;
 
     @Column(nullable = false, name = "service_price")
@@ -58,12 +71,23 @@ public class CarWashBooking {
     @Column(nullable = false)
     private String location;
 
-    @Column(nullable = false)
-    private String status = "pending";
+    @Convert(converter = JobStatusConverter.class)
+    @Column(nullable = false, length = 16)
+    private JobStatus status = JobStatus.PENDING;
 
     @Column(nullable = false, name = "created_at")
     private LocalDateTime createdAt;
 
+    /** Optimistic lock: a save based on a stale read fails instead of overwriting a concurrent change. */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public List<String> getServiceTypes() {
+        if (lineItems == null || lineItems.isEmpty()) return serviceTypes;
+        return lineItems.stream().map(JobLineItem::getServiceName).toList();
+    }
+
     // ================== AUTO FIELDS ==================
     @PrePersist
     public void prePersist() {
@@ -74,7 +98,7 @@ public class CarWashBooking {
             createdAt = LocalDateTime.now();
         }
         if (status == null) {
-            status = "pending";
+            status = JobStatus.PENDING;
         }
     }
 }
\ No newline at end of file
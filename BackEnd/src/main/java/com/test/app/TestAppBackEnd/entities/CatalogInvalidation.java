@@ -0,0 +1,49 @@
+package com.test.app.TestAppBackEnd.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One catalog change, written by the node that made it and read by the others (app.catalog-cache.invalidation=jdbc).
+ * A null provider type invalidates every type.
+ */
+@Entity
+@Table(name = "catalog_invalidations",
+        indexes = @Index(name = "idx_catalog_invalidations_created", columnList = "created_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogInvalidation {
+
+    // ================== PRIMARY KEY ==================
+    @Id
+    @Column(length = 36, updatable = false, nullable = false)
+    private String id;
+
+    // ================== INVALIDATION INFO ==================
+    @Column(length = 20, name = "provider_type")
+    private String providerType;
+
+    @Column(nullable = false, length = 36, name = "node_id")
+    private String nodeId;
+
+    @Column(nullable = false, name = "created_at")
+    private Instant createdAt;
+
+    public CatalogInvalidation(String providerType, String nodeId, Instant createdAt) {
+        this.providerType = providerType;
+        this.nodeId = nodeId;
+        this.createdAt = createdAt;
+    }
+
+    // ================== AUTO GENERATE ID ==================
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.test.app.TestAppBackEnd.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One requested service of a mechanic job or car wash booking. offeringId and price snapshot the offering the line
+ * is priced from: the catalog offering the client picked, then the accepting provider's own offering. Lines booked
+ * by service name only have neither until a provider accepts.
+ */
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobLineItem {
+
+    @Column(nullable = false, name = "service_name")
+    private String serviceName;
+
+    @Column(length = 36, name = "offering_id")
+    private String offeringId;
+
+    /** Price of the offering when the line was priced; later offering price changes do not touch it. */
+    @Column(name = "price")
+    private Double price;
+
+    public static JobLineItem named(String serviceName) {
+        return new JobLineItem(serviceName, null, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.test.app.TestAppBackEnd.entities;
+
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores {@link JobStatus} as its label, the values the status columns already hold (normalized by V4). */
+@Converter
+public class JobStatusConverter implements AttributeConverter<JobStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(JobStatus status) {
+        return status != null ? status.getLabel() : null;
+    }
+
+    @Override
+    public JobStatus convertToEntityAttribute(String value) {
+        return JobStatus.from(value);
+    }
+}
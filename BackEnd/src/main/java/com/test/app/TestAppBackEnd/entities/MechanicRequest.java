@@ -1,12 +1,17 @@
 package com.test.app.TestAppBackEnd.entities;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.util.PageCursor;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
@@ -33,6 +38,13 @@ public class MechanicRequest {
     @Column(nullable = false, name = "Job Description")
     private String description;
 
+    /** Requested services, built from the description when a client sends none; batch-loaded like bookings'. */
+    @ElementCollection
+    @CollectionTable(name = "request_mechanic_line_items", joinColumns = @JoinColumn(name = "request_id"))
+    @OrderColumn(name = "line_no")
+    @BatchSize(size = PageCursor.MAX_LIMIT + 1)
+    private List<JobLineItem> lineItems = new ArrayList<>();
+
     @Column(nullable = false, name = "Job Location")
     private String location;
 
@@ -45,8 +57,9 @@ public class MechanicRequest {
     @Column(nullable = false, name = "Date")
     private LocalDate date;
 
-    @Column(nullable = false)
-    private String status = "pending";
+    @Convert(converter = JobStatusConverter.class)
+    @Column(nullable = false, length = 16)
+    private JobStatus status = JobStatus.PENDING;
 
     @Column(nullable = false, name = "Service Price")
     private Double servicePrice;
@@ -65,12 +78,21 @@ public class MechanicRequest {
     @Column(nullable = true, name = "Service Provider Id")
     private String mechanicId;
 
+    // ================== CONCURRENCY ==================
+    /** Optimistic lock: a save based on a stale read fails instead of overwriting a concurrent change. */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     // ================== AUTO GENERATE ID ==================
     @PrePersist
     public void prePersist() {
         if (id == null) {
             id = UUID.randomUUID().toString();
         }
+        if (status == null) {
+            status = JobStatus.PENDING;
+        }
     }
 
 
@@ -0,0 +1,82 @@
+package com.test.app.TestAppBackEnd.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A rendered email/SMS written in the same transaction as the state change that caused it,
+ * delivered later by NotificationOutboxDispatcher. {@code dedupKey} makes enqueueing idempotent.
+ */
+@Entity
+@Table(name = "notification_outbox",
+        indexes = @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationOutbox {
+
+    public static final String CHANNEL_EMAIL = "email";
+    public static final String CHANNEL_SMS = "sms";
+
+    // ================== PRIMARY KEY ==================
+    @Id
+    @Column(length = 36, updatable = false, nullable = false)
+    private String id;
+
+    // ================== MESSAGE ==================
+    @Column(nullable = false, length = 10)
+    private String channel; // email, sms
+
+    /** Email address, or E.164 phone number for SMS. */
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(nullable = false, unique = true, length = 191, name = "dedup_key")
+    private String dedupKey;
+
+    // ================== DELIVERY STATE ==================
+    @Column(nullable = false, length = 10)
+    private String status = "pending"; // pending, sent, failed
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    /** Earliest time of the next delivery attempt; also acts as the lease while an attempt is in flight. */
+    @Column(nullable = false, name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(nullable = false, name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    @Column(length = 500, name = "last_error")
+    private String lastError;
+
+    public NotificationOutbox(String channel, String recipient, String subject, String body, String dedupKey) {
+        this.channel = channel;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.dedupKey = dedupKey;
+    }
+
+    // ================== AUTO GENERATE ID ==================
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = UUID.randomUUID().toString();
+        if (createdAt == null) createdAt = Instant.now();
+        if (nextAttemptAt == null) nextAttemptAt = createdAt;
+    }
+}
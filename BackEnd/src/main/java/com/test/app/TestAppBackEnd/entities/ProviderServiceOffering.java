@@ -1,5 +1,7 @@
 package com.test.app.TestAppBackEnd.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.test.app.TestAppBackEnd.util.GeoHash;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -52,11 +54,27 @@ public class ProviderServiceOffering {
     @Column(nullable = false)
     private String longitude;
 
+    /** Numeric copies of latitude/longitude for the nearby search index; null when the strings don't parse. */
+    @JsonIgnore
+    @Column(name = "geo_lat")
+    private Double geoLat;
+
+    @JsonIgnore
+    @Column(name = "geo_lng")
+    private Double geoLng;
+
     // ================== AUTO GENERATE ID ==================
     @PrePersist
     public void prePersist() {
         if (id == null) {
             id = UUID.randomUUID().toString();
         }
+        syncCoordinates();
+    }
+
+    @PreUpdate
+    public void syncCoordinates() {
+        geoLat = GeoHash.parseCoordinate(latitude, 90);
+        geoLng = GeoHash.parseCoordinate(longitude, 180);
     }
 }
\ No newline at end of file
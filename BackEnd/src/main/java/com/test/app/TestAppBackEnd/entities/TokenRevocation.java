@@ -0,0 +1,48 @@
+package com.test.app.TestAppBackEnd.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Marks every token issued to a user before {@code revokedAt} as invalid (stateless auth mode).
+ * Username "*" revokes all tokens issued before that instant.
+ */
+@Entity
+@Table(name = "token_revocations")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenRevocation {
+
+    // ================== PRIMARY KEY ==================
+    @Id
+    @Column(length = 36, updatable = false, nullable = false)
+    private String id;
+
+    // ================== REVOCATION INFO ==================
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false, name = "revoked_at")
+    private Instant revokedAt;
+
+    @Column(length = 50)
+    private String reason;
+
+    public TokenRevocation(String username, Instant revokedAt, String reason) {
+        this.username = username;
+        this.revokedAt = revokedAt;
+        this.reason = reason;
+    }
+
+    // ================== AUTO GENERATE ID ==================
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = UUID.randomUUID().toString();
+    }
+}
@@ -1,8 +1,13 @@
 package com.test.app.TestAppBackEnd.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
 /**
  * Standard API response wrapper for all endpoints.
  * Includes success flag for frontend compatibility.
+ * List endpoints set nextCursor when more rows exist; pass it back as ?cursor= for the next page.
  */
 public class ApiResponse<T> {
 
@@ -10,6 +15,8 @@ public class ApiResponse<T> {
     private String message;
     private int statusCode;
     private T data;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     public ApiResponse() {}
 
@@ -20,6 +27,13 @@ public class ApiResponse<T> {
         this.data = data;
     }
 
+    /** Response for one page of a list endpoint. */
+    public static <E> ApiResponse<List<E>> page(String message, int statusCode, CursorPage<E> page) {
+        ApiResponse<List<E>> response = new ApiResponse<>(message, statusCode, page.getItems());
+        response.setNextCursor(page.getNextCursor());
+        return response;
+    }
+
     // ===== Getters & Setters =====
     public boolean isSuccess() {
         return success;
@@ -52,4 +66,11 @@ public class ApiResponse<T> {
         this.data = data;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
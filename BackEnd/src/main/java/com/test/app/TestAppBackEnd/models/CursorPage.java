@@ -0,0 +1,35 @@
+package com.test.app.TestAppBackEnd.models;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. nextCursor is null on the last page.
+ */
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}: the extra row only signals that more exist.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<T> page = rows.subList(0, limit);
+        return new CursorPage<>(page, cursorOf.apply(page.get(limit - 1)));
+    }
+
+    /** A single bounded page, e.g. relevance-ordered search results. */
+    public static <T> CursorPage<T> single(List<T> rows) {
+        return new CursorPage<>(rows, null);
+    }
+
+    public List<T> getItems() { return items; }
+
+    public String getNextCursor() { return nextCursor; }
+}
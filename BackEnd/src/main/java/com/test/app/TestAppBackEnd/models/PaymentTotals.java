@@ -0,0 +1,17 @@
+package com.test.app.TestAppBackEnd.models;
+
+import com.test.app.TestAppBackEnd.repositories.PaymentRepository;
+
+/**
+ * Totals over a user's or provider's payments (or all of them, for admins): the payment count, the provider payouts
+ * and the platform fees. What a client paid is amount + platformFee; what a provider earned is amount.
+ */
+public record PaymentTotals(long payments, double amount, double platformFee) {
+
+    public static PaymentTotals of(PaymentRepository.Totals row) {
+        return new PaymentTotals(
+                row.getPayments() != null ? row.getPayments() : 0,
+                row.getAmount() != null ? row.getAmount() : 0,
+                row.getPlatformFee() != null ? row.getPlatformFee() : 0);
+    }
+}
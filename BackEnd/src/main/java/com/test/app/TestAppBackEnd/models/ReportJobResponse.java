@@ -0,0 +1,50 @@
+package com.test.app.TestAppBackEnd.models;
+
+import com.test.app.TestAppBackEnd.constants.ReportType;
+
+import java.time.Instant;
+
+/**
+ * Status of an asynchronous report job. downloadUrl is set once the CSV is ready;
+ * cached means the result of an identical recent request was reused.
+ */
+public class ReportJobResponse {
+    private String id;
+    private ReportType type;
+    private String status; // queued, running, completed, failed
+    private Instant createdAt;
+    private Instant completedAt;
+    private String fileName;
+    private String downloadUrl;
+    private String error;
+    private boolean cached;
+
+    public ReportJobResponse() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public ReportType getType() { return type; }
+    public void setType(ReportType type) { this.type = type; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getDownloadUrl() { return downloadUrl; }
+    public void setDownloadUrl(String downloadUrl) { this.downloadUrl = downloadUrl; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+}
@@ -1,9 +1,12 @@
 package com.test.app.TestAppBackEnd.models;
 
+import com.test.app.TestAppBackEnd.constants.ReportType;
+
 /**
  * Request body for exporting or emailing a history report for a date range.
  */
 public class ReportRequest {
+    private ReportType type;   // report jobs only: CARWASH, MECHANIC_REQUESTS, EARNINGS, COMPLETED_JOBS
     private String username;   // client/customer username
     private String mechanicId; // optional; for mechanic earnings/completed jobs
     private String carWashId;  // optional; for car wash earnings/completed jobs
@@ -11,6 +14,9 @@ public class ReportRequest {
     private String endDate;    // yyyy-MM-dd
     private String email;      // optional; if not set, resolved from user profile
 
+    public ReportType getType() { return type; }
+    public void setType(ReportType type) { this.type = type; }
+
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
 
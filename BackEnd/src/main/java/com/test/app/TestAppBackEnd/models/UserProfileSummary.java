@@ -0,0 +1,35 @@
+package com.test.app.TestAppBackEnd.models;
+
+import com.test.app.TestAppBackEnd.constants.Role;
+import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A profile as the profile lists return it: what the user tables show and the edit dialog sends back. Full profiles
+ * (coordinates, account flags, timestamps) stay on GET /api/user-profile.
+ */
+public record UserProfileSummary(String id,
+                                 String username,
+                                 String email,
+                                 String firstName,
+                                 String lastName,
+                                 String phoneNumber,
+                                 String countryCode,
+                                 String address,
+                                 Long numberOfEmployees,
+                                 Set<Role> roles) {
+
+    public static UserProfileSummary of(UserProfileRepository.SummaryRow row) {
+        return new UserProfileSummary(row.getId(), row.getUsername(), row.getEmail(), row.getFirstName(),
+                row.getLastName(), row.getPhoneNumber(), row.getCountryCode(), row.getAddress(),
+                row.getNumberOfEmployees(), roles(row.getRoles()));
+    }
+
+    private static Set<Role> roles(String roles) {
+        if (roles == null || roles.isBlank()) return Set.of();
+        return Arrays.stream(roles.split(",")).map(Role::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+}
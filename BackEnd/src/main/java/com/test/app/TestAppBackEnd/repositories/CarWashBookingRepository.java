@@ -1,14 +1,25 @@
 package com.test.app.TestAppBackEnd.repositories;
 
+import com.test.app.TestAppBackEnd.constants.JobStatus;
 import com.test.app.TestAppBackEnd.entities.CarWashBooking;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CarWashBookingRepository extends JpaRepository<CarWashBooking, String> {
@@ -16,23 +27,27 @@ public interface CarWashBookingRepository extends JpaRepository<CarWashBooking,
     List<CarWashBooking> findByClientUsername(String clientUsername);
     List<CarWashBooking> findByCarWashId(String carWashId);
 
-    /** Search bookings for a client (ignores date for string search) */
+    /**
+     * Search bookings for a client (ignores date for string search). In these LIKE searches :statuses are the
+     * statuses whose label contains :q ({@link JobStatus#matching}).
+     */
     @Query("SELECT b FROM CarWashBooking b WHERE b.clientUsername = :username AND " +
             "(:q IS NULL OR :q = '' " +
             "OR LOWER(COALESCE(b.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
-            "OR LOWER(b.status) LIKE LOWER(CONCAT('%', :q, '%')) " +
+            "OR b.status IN :statuses " +
             "OR LOWER(COALESCE(b.carDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%'))) " +
             "ORDER BY b.date DESC")
-    List<CarWashBooking> findByClientUsernameWithSearch(@Param("username") String username, @Param("q") String q);
+    List<CarWashBooking> findByClientUsernameWithSearch(@Param("username") String username, @Param("q") String q,
+                                                  @Param("statuses") Collection<JobStatus> statuses, Pageable pageable);
 
     /** Search all bookings (ignores date for string search), limited by pageable. */
     @Query(value = "SELECT b FROM CarWashBooking b WHERE " +
             "(:q IS NULL OR :q = '' " +
             "OR LOWER(COALESCE(b.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
-            "OR LOWER(b.status) LIKE LOWER(CONCAT('%', :q, '%')) " +
+            "OR b.status IN :statuses " +
             "OR LOWER(COALESCE(b.carDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%'))) " +
             "ORDER BY b.createdAt DESC",
@@ -40,41 +55,148 @@ public interface CarWashBookingRepository extends JpaRepository<CarWashBooking,
             "(:q IS NULL OR :q = '' " +
             "OR LOWER(COALESCE(b.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
-            "OR LOWER(b.status) LIKE LOWER(CONCAT('%', :q, '%')) " +
+            "OR b.status IN :statuses " +
             "OR LOWER(COALESCE(b.carDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%')))")
-    Page<CarWashBooking> findAllWithSearch(@Param("q") String q, Pageable pageable);
+    Page<CarWashBooking> findAllWithSearch(@Param("q") String q, @Param("statuses") Collection<JobStatus> statuses, Pageable pageable);
 
     /** Search bookings for a specific car wash */
     @Query("SELECT b FROM CarWashBooking b WHERE b.carWashId = :carWashId AND " +
             "(:q IS NULL OR :q = '' " +
             "OR LOWER(COALESCE(b.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
             "OR LOWER(COALESCE(b.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) " +
-            "OR LOWER(b.status) LIKE LOWER(CONCAT('%', :q, '%')) " +
+            "OR b.status IN :statuses " +
             "OR LOWER(COALESCE(b.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%'))) " + // removed date from LOWER()
             "ORDER BY b.date DESC")
-    List<CarWashBooking> findByCarWashIdWithSearch(@Param("carWashId") String carWashId, @Param("q") String q);
+    List<CarWashBooking> findByCarWashIdWithSearch(@Param("carWashId") String carWashId, @Param("q") String q,
+                                             @Param("statuses") Collection<JobStatus> statuses, Pageable pageable);
+
+    /**
+     * Keyset pages ordered by (date, id) descending: rows strictly after the cursor (afterDate, afterId),
+     * or the first page when afterDate is null. Pass {@code PageCursor.probe(limit)} as the pageable.
+     */
+    String AFTER_CURSOR = "(:afterDate IS NULL OR b.date < :afterDate OR (b.date = :afterDate AND b.id < :afterId))";
+
+    @Query("SELECT b FROM CarWashBooking b WHERE " + AFTER_CURSOR + " ORDER BY b.date DESC, b.id DESC")
+    List<CarWashBooking> findPage(@Param("afterDate") LocalDate afterDate, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT b FROM CarWashBooking b WHERE b.clientUsername = :username AND " + AFTER_CURSOR +
+            " ORDER BY b.date DESC, b.id DESC")
+    List<CarWashBooking> findPageByClientUsername(@Param("username") String username, @Param("afterDate") LocalDate afterDate,
+                                                  @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT b FROM CarWashBooking b WHERE b.carWashId = :carWashId AND " + AFTER_CURSOR +
+            " ORDER BY b.date DESC, b.id DESC")
+    List<CarWashBooking> findPageByCarWashId(@Param("carWashId") String carWashId, @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterId") String afterId, Pageable pageable);
 
-    /** Bookings for a client within a date range */
-    @Query("SELECT b FROM CarWashBooking b WHERE b.clientUsername = :username " +
+    /** FULLTEXT variants of the searches above; :q is a boolean-mode query from FullTextSearch. Best match first. */
+    String FULLTEXT_MATCH = "MATCH(b.car_plate, b.location, b.status, b.car_description, b.client_username) " +
+            "AGAINST(:q IN BOOLEAN MODE)";
+
+    @Query(value = "SELECT b.* FROM car_wash_booking b WHERE b.client_username = :username AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, b.date DESC", nativeQuery = true)
+    List<CarWashBooking> searchByClientUsername(@Param("username") String username, @Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT b.* FROM car_wash_booking b WHERE b.car_wash_id = :carWashId AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, b.date DESC", nativeQuery = true)
+    List<CarWashBooking> searchByCarWashId(@Param("carWashId") String carWashId, @Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT b.* FROM car_wash_booking b WHERE " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, b.created_at DESC",
+            countQuery = "SELECT COUNT(*) FROM car_wash_booking b WHERE " + FULLTEXT_MATCH, nativeQuery = true)
+    Page<CarWashBooking> searchAll(@Param("q") String q, Pageable pageable);
+
+    /** Bookings for a client within a date range, with their line items (unpaged, so fetched in the same query) */
+    @Query("SELECT b FROM CarWashBooking b LEFT JOIN FETCH b.lineItems WHERE b.clientUsername = :username " +
             "AND b.date >= :startDate AND b.date <= :endDate ORDER BY b.date DESC")
     List<CarWashBooking> findByClientUsernameAndDateBetween(@Param("username") String username,
                                                             @Param("startDate") String startDate,
                                                             @Param("endDate") String endDate);
 
-    /** Completed bookings for a car wash provider within a date range */
-    @Query("SELECT b FROM CarWashBooking b WHERE b.carWashId = :carWashId AND LOWER(b.status) = 'completed' " +
+    /** Bookings in a status (completed, for earnings) for a car wash provider within a date range, with their line items */
+    @Query("SELECT b FROM CarWashBooking b LEFT JOIN FETCH b.lineItems WHERE b.carWashId = :carWashId AND b.status = :status " +
             "AND b.date >= :startDate AND b.date <= :endDate ORDER BY b.date DESC")
-    List<CarWashBooking> findByCarWashIdAndStatusCompletedAndDateBetween(@Param("carWashId") String carWashId,
-                                                                         @Param("startDate") String startDate,
-                                                                         @Param("endDate") String endDate);
+    List<CarWashBooking> findByCarWashIdAndStatusAndDateBetween(@Param("carWashId") String carWashId,
+                                                                @Param("status") JobStatus status,
+                                                                @Param("startDate") String startDate,
+                                                                @Param("endDate") String endDate);
+
+    /**
+     * One CSV export row: the booking columns the reports print, with its services joined in line order. A
+     * streaming cursor cannot share its connection with lazy loads, so the services come from the same statement.
+     */
+    interface ReportRow {
+        String getCarPlate();
+        String getServices();
+        String getDate();
+        Double getServicePrice();
+        String getStatus();
+        String getLocation();
+        String getClientUsername();
+    }
+
+    String REPORT_COLUMNS = "SELECT b.car_plate AS carPlate, b.date AS date, b.service_price AS servicePrice, " +
+            "b.status AS status, b.location AS location, b.client_username AS clientUsername, " +
+            "(SELECT GROUP_CONCAT(li.service_name ORDER BY li.line_no SEPARATOR '; ') " +
+            "FROM car_wash_booking_line_items li WHERE li.booking_id = b.id) AS services FROM car_wash_booking b ";
+
+    /** Streaming report rows of {@link #findByClientUsernameAndDateBetween} for CSV export. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query(value = REPORT_COLUMNS + "WHERE b.client_username = :username " +
+            "AND b.date >= :startDate AND b.date <= :endDate ORDER BY b.date DESC", nativeQuery = true)
+    Stream<ReportRow> streamReportByClientUsernameAndDateBetween(@Param("username") String username,
+                                                                 @Param("startDate") String startDate,
+                                                                 @Param("endDate") String endDate);
+
+    /** Streaming report rows of {@link #findByCarWashIdAndStatusAndDateBetween} for CSV export; status is its label. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query(value = REPORT_COLUMNS + "WHERE b.car_wash_id = :carWashId AND b.status = :status " +
+            "AND b.date >= :startDate AND b.date <= :endDate ORDER BY b.date DESC", nativeQuery = true)
+    Stream<ReportRow> streamReportByCarWashIdAndStatusAndDateBetween(@Param("carWashId") String carWashId,
+                                                                     @Param("status") String status,
+                                                                     @Param("startDate") String startDate,
+                                                                     @Param("endDate") String endDate);
+
+    long countByCarWashIdAndStatusNotIn(String carWashId, Collection<JobStatus> statuses);
 
     /** Count incomplete bookings for a car wash */
-    @Query("SELECT COUNT(b) FROM CarWashBooking b WHERE b.carWashId = :carWashId AND b.status NOT IN ('completed', 'cancelled')")
-    long countIncompleteByCarWashId(@Param("carWashId") String carWashId);
-
-    /** Count paid or in-progress bookings for a car wash */
-    @Query("SELECT COUNT(b) FROM CarWashBooking b WHERE b.carWashId = :carWashId " +
-            "AND (LOWER(b.status) = 'paid' OR LOWER(b.status) = 'in progress')")
-    long countPaidIncompleteByCarWashId(@Param("carWashId") String carWashId);
-}
\ No newline at end of file
+    default long countIncompleteByCarWashId(String carWashId) {
+        return countByCarWashIdAndStatusNotIn(carWashId, EnumSet.of(JobStatus.COMPLETED, JobStatus.CANCELLED));
+    }
+
+    @Query("SELECT b.carWashId, COUNT(b) FROM CarWashBooking b WHERE b.status IN :statuses " +
+            "AND b.carWashId IS NOT NULL GROUP BY b.carWashId")
+    List<Object[]> countByStatusInGroupByCarWash(@Param("statuses") Collection<JobStatus> statuses);
+
+    /** (carWashId, count) of paid or in-progress bookings per car wash, for ProviderCapacity's rebuild */
+    default List<Object[]> countInFlightByCarWash() {
+        return countByStatusInGroupByCarWash(JobStatus.IN_FLIGHT);
+    }
+
+    /** ProviderCapacity's rule for car washes, checked inside the claim statement; see MechanicRequestRepository. */
+    String CAR_WASH_HAS_ROOM = "(SELECT in_flight.n FROM (SELECT COUNT(*) AS n FROM car_wash_booking f " +
+            "WHERE f.car_wash_id = :carWashId AND f.status IN (:inFlight)) in_flight) " +
+            "< (SELECT GREATEST(COALESCE(MAX(p.number_of_employees), 1), 1) FROM user_profiles p WHERE p.id = :carWashId)";
+
+    /**
+     * Compare-and-set of the accepting provider: succeeds (returns 1) only if the booking is still pending and held by
+     * {@code expectedCarWashId} (null = unassigned), so a cancelled, completed or already accepted booking cannot be
+     * claimed, and only while the car wash has capacity. Clears the persistence context, so re-read the booking afterwards.
+     */
+    default int claim(String id, String carWashId, String expectedCarWashId) {
+        return claimWithinCapacity(id, carWashId, expectedCarWashId, JobStatus.PENDING.getLabel(),
+                JobStatus.ACCEPTED.getLabel(), JobStatus.labels(JobStatus.IN_FLIGHT));
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE car_wash_booking b SET b.car_wash_id = :carWashId, b.status = :claimed, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.status = :open " +
+            "AND ((:expectedCarWashId IS NULL AND b.car_wash_id IS NULL) OR b.car_wash_id = :expectedCarWashId) " +
+            "AND " + CAR_WASH_HAS_ROOM, nativeQuery = true)
+    int claimWithinCapacity(@Param("id") String id, @Param("carWashId") String carWashId,
+                            @Param("expectedCarWashId") String expectedCarWashId,
+                            @Param("open") String open, @Param("claimed") String claimed,
+                            @Param("inFlight") Collection<String> inFlight);
+}
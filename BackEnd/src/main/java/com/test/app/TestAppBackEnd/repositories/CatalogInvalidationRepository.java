@@ -0,0 +1,22 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.entities.CatalogInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CatalogInvalidationRepository extends JpaRepository<CatalogInvalidation, String> {
+    /** Invalidations since the last poll. */
+    List<CatalogInvalidation> findByCreatedAtAfter(Instant since);
+
+    /** Rows older than the retention have been seen by every live node. */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CatalogInvalidation c WHERE c.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
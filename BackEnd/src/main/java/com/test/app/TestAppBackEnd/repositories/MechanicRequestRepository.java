@@ -1,61 +1,170 @@
 package com.test.app.TestAppBackEnd.repositories;
 
+import com.test.app.TestAppBackEnd.constants.JobStatus;
 import com.test.app.TestAppBackEnd.entities.MechanicRequest;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface MechanicRequestRepository extends JpaRepository<MechanicRequest, String> {
     List<MechanicRequest> findByUsername(String username);
     List<MechanicRequest> findByMechanicId(String mechanicId);
+    /** Every open job of a status with its line items (one query), for MechanicDispatchEngine's reload. */
+    @EntityGraph(attributePaths = "lineItems")
+    List<MechanicRequest> findByStatusAndMechanicIdIsNull(JobStatus status);
 
+    /** LIKE searches; :statuses are the statuses whose label contains :q ({@link JobStatus#matching}). */
     @Query("SELECT m FROM MechanicRequest m WHERE m.username = :username AND (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(m.description, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
-            "LOWER(m.status) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
+            "m.status IN :statuses OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(m.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.carType, '')) LIKE LOWER(CONCAT('%', :q, '%'))) " +
             "ORDER BY m.date DESC")
-    List<MechanicRequest> findByUsernameWithSearch(@Param("username") String username, @Param("q") String q);
+    List<MechanicRequest> findByUsernameWithSearch(@Param("username") String username, @Param("q") String q,
+                                                 @Param("statuses") Collection<JobStatus> statuses, Pageable pageable);
 
     @Query("SELECT m FROM MechanicRequest m WHERE m.mechanicId = :mechanicId AND (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(m.description, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
-            "LOWER(m.status) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
+            "m.status IN :statuses OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(m.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY m.date DESC")
-    List<MechanicRequest> findByMechanicIdWithSearch(@Param("mechanicId") String mechanicId, @Param("q") String q);
+    List<MechanicRequest> findByMechanicIdWithSearch(@Param("mechanicId") String mechanicId, @Param("q") String q,
+                                                   @Param("statuses") Collection<JobStatus> statuses, Pageable pageable);
 
     @Query(value = "SELECT m FROM MechanicRequest m WHERE (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(m.description, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
-            "LOWER(m.status) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
+            "m.status IN :statuses OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(m.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY m.date DESC",
             countQuery = "SELECT COUNT(m) FROM MechanicRequest m WHERE (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(m.description, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.location, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
-            "LOWER(m.status) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
+            "m.status IN :statuses OR LOWER(COALESCE(m.username, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(m.carPlate, '')) LIKE LOWER(CONCAT('%', :q, '%')))")
-    Page<MechanicRequest> findAllWithSearch(@Param("q") String q, Pageable pageable);
+    Page<MechanicRequest> findAllWithSearch(@Param("q") String q, @Param("statuses") Collection<JobStatus> statuses, Pageable pageable);
+
+    /**
+     * Keyset pages ordered by (date, id) descending: rows strictly after the cursor (afterDate, afterId),
+     * or the first page when afterDate is null. Pass {@code PageCursor.probe(limit)} as the pageable.
+     */
+    String AFTER_CURSOR = "(:afterDate IS NULL OR m.date < :afterDate OR (m.date = :afterDate AND m.id < :afterId))";
+
+    @Query("SELECT m FROM MechanicRequest m WHERE " + AFTER_CURSOR + " ORDER BY m.date DESC, m.id DESC")
+    List<MechanicRequest> findPage(@Param("afterDate") LocalDate afterDate, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT m FROM MechanicRequest m WHERE m.username = :username AND " + AFTER_CURSOR +
+            " ORDER BY m.date DESC, m.id DESC")
+    List<MechanicRequest> findPageByUsername(@Param("username") String username, @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT m FROM MechanicRequest m WHERE m.mechanicId = :mechanicId AND " + AFTER_CURSOR +
+            " ORDER BY m.date DESC, m.id DESC")
+    List<MechanicRequest> findPageByMechanicId(@Param("mechanicId") String mechanicId, @Param("afterDate") LocalDate afterDate,
+                                               @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT m FROM MechanicRequest m WHERE m.status = :status AND m.mechanicId IS NULL AND " + AFTER_CURSOR +
+            " ORDER BY m.date DESC, m.id DESC")
+    List<MechanicRequest> findPageByStatusAndMechanicIdIsNull(@Param("status") JobStatus status, @Param("afterDate") LocalDate afterDate,
+                                                              @Param("afterId") String afterId, Pageable pageable);
+
+    /** FULLTEXT variants of the searches above; :q is a boolean-mode query from FullTextSearch. Best match first. */
+    String FULLTEXT_MATCH = "MATCH(m.`Job Description`, m.`Job Location`, m.status, m.`Client Username`, m.`Car Plate`, m.`Car Type`) " +
+            "AGAINST(:q IN BOOLEAN MODE)";
+
+    @Query(value = "SELECT m.* FROM request_mechanic m WHERE m.`Client Username` = :username AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, m.Date DESC", nativeQuery = true)
+    List<MechanicRequest> searchByUsername(@Param("username") String username, @Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT m.* FROM request_mechanic m WHERE m.`Service Provider Id` = :mechanicId AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, m.Date DESC", nativeQuery = true)
+    List<MechanicRequest> searchByMechanicId(@Param("mechanicId") String mechanicId, @Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT m.* FROM request_mechanic m WHERE " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, m.Date DESC",
+            countQuery = "SELECT COUNT(*) FROM request_mechanic m WHERE " + FULLTEXT_MATCH, nativeQuery = true)
+    Page<MechanicRequest> searchAll(@Param("q") String q, Pageable pageable);
 
-    /** Requests for a user within date range */
+    /** Requests for a user within date range, with their line items (unpaged, so fetched in the same query) */
+    @EntityGraph(attributePaths = "lineItems")
     List<MechanicRequest> findByUsernameAndDateBetweenOrderByDateDesc(String username, LocalDate startDate, LocalDate endDate);
 
-    /** Requests for a mechanic within date range */
+    /** Requests for a mechanic within date range, with their line items */
+    @EntityGraph(attributePaths = "lineItems")
     List<MechanicRequest> findByMechanicIdAndDateBetweenOrderByDateDesc(String mechanicId, LocalDate startDate, LocalDate endDate);
 
-    /** Completed jobs for a mechanic within date range */
-    List<MechanicRequest> findByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(String mechanicId, String status, LocalDate startDate, LocalDate endDate);
+    /** Completed jobs for a mechanic within date range, with their line items */
+    @EntityGraph(attributePaths = "lineItems")
+    List<MechanicRequest> findByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(String mechanicId, JobStatus status, LocalDate startDate, LocalDate endDate);
+
+    /** Streaming variants of the date-range queries above, for CSV export. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<MechanicRequest> streamByUsernameAndDateBetweenOrderByDateDesc(String username, LocalDate startDate, LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<MechanicRequest> streamByMechanicIdAndDateBetweenOrderByDateDesc(String mechanicId, LocalDate startDate, LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<MechanicRequest> streamByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(String mechanicId, JobStatus status, LocalDate startDate, LocalDate endDate);
 
-    List<MechanicRequest> findByStatusAndMechanicIdIsNull(String status);
     void deleteByUsername(String username);
 
-    @Query("SELECT COUNT(m) FROM MechanicRequest m WHERE m.mechanicId = :mechanicId AND m.status NOT IN ('completed', 'cancelled')")
-    long countIncompleteByMechanicId(@Param("mechanicId") String mechanicId);
+    long countByMechanicIdAndStatusNotIn(String mechanicId, Collection<JobStatus> statuses);
+
+    default long countIncompleteByMechanicId(String mechanicId) {
+        return countByMechanicIdAndStatusNotIn(mechanicId, EnumSet.of(JobStatus.COMPLETED, JobStatus.CANCELLED));
+    }
+
+    @Query("SELECT m.mechanicId, COUNT(m) FROM MechanicRequest m WHERE m.status IN :statuses " +
+            "AND m.mechanicId IS NOT NULL GROUP BY m.mechanicId")
+    List<Object[]> countByStatusInGroupByMechanic(@Param("statuses") Collection<JobStatus> statuses);
+
+    /** (mechanicId, count) of paid or in-progress jobs per mechanic, for ProviderCapacity's rebuild */
+    default List<Object[]> countInFlightByMechanic() {
+        return countByStatusInGroupByMechanic(JobStatus.IN_FLIGHT);
+    }
+
+    /**
+     * ProviderCapacity's rule, checked inside the claim statement: the mechanic's paid/in-progress jobs are below
+     * numberOfEmployees (at least 1). The count sits in a derived table because MySQL cannot otherwise read the
+     * table an UPDATE writes.
+     */
+    String MECHANIC_HAS_ROOM = "(SELECT in_flight.n FROM (SELECT COUNT(*) AS n FROM request_mechanic f " +
+            "WHERE f.`Service Provider Id` = :mechanicId AND f.status IN (:inFlight)) in_flight) " +
+            "< (SELECT GREATEST(COALESCE(MAX(p.number_of_employees), 1), 1) FROM user_profiles p WHERE p.id = :mechanicId)";
+
+    /**
+     * Assigns an open job in one statement: returns 1 for the single winner, 0 if another mechanic claimed it
+     * (or it left pending) since it was read, or if the mechanic is at capacity. Clears the persistence context,
+     * so re-read the job afterwards.
+     */
+    default int claim(String id, String mechanicId) {
+        return claim(id, mechanicId, JobStatus.PENDING, JobStatus.ASSIGNED);
+    }
+
+    default int claim(String id, String mechanicId, JobStatus open, JobStatus claimed) {
+        return claimWithinCapacity(id, mechanicId, open.getLabel(), claimed.getLabel(), JobStatus.labels(JobStatus.IN_FLIGHT));
+    }
 
-    /** Count paid or in-progress jobs (not completed) - used to limit new accepts when 5 paid jobs pending */
-    @Query("SELECT COUNT(m) FROM MechanicRequest m WHERE m.mechanicId = :mechanicId " +
-            "AND (LOWER(m.status) = 'paid' OR LOWER(m.status) = 'in progress')")
-    long countPaidIncompleteByMechanicId(@Param("mechanicId") String mechanicId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE request_mechanic m SET m.`Service Provider Id` = :mechanicId, m.status = :claimed, " +
+            "m.version = m.version + 1 " +
+            "WHERE m.id = :id AND m.`Service Provider Id` IS NULL AND m.status = :open AND " + MECHANIC_HAS_ROOM,
+            nativeQuery = true)
+    int claimWithinCapacity(@Param("id") String id, @Param("mechanicId") String mechanicId,
+                            @Param("open") String open, @Param("claimed") String claimed,
+                            @Param("inFlight") Collection<String> inFlight);
 }
@@ -0,0 +1,74 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, String> {
+
+    /**
+     * Queues a message unless one with the same dedup key exists: returns 1 if inserted, 0 for a duplicate. One
+     * statement, so a concurrent duplicate is resolved by the unique key instead of failing the caller's transaction.
+     */
+    default int insertIfAbsent(NotificationOutbox m) {
+        return insertIfAbsent(m.getId(), m.getChannel(), m.getRecipient(), m.getSubject(), m.getBody(), m.getDedupKey(),
+                m.getNextAttemptAt(), m.getCreatedAt());
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_outbox (id, channel, recipient, subject, body, dedup_key, status, attempts, " +
+            "next_attempt_at, created_at) VALUES (:id, :channel, :recipient, :subject, :body, :dedupKey, 'pending', 0, " +
+            ":nextAttemptAt, :createdAt) ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("channel") String channel, @Param("recipient") String recipient,
+                       @Param("subject") String subject, @Param("body") String body, @Param("dedupKey") String dedupKey,
+                       @Param("nextAttemptAt") Instant nextAttemptAt, @Param("createdAt") Instant createdAt);
+
+    long countByStatus(String status);
+
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = 'pending' AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt")
+    List<NotificationOutbox> findDue(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Takes a lease on one row: succeeds (returns 1) only if no other poller claimed it since it was read.
+     * If the claiming node dies, the row becomes due again once {@code leaseUntil} passes.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :leaseUntil " +
+            "WHERE o.id = :id AND o.status = 'pending' AND o.attempts = :attempts")
+    int claim(@Param("id") String id, @Param("attempts") int attempts, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Undoes a claim whose delivery never started (executor full): gives the attempt back and makes the row due at
+     * {@code dueAt}. Only while the row still holds that lease ({@code attempts} as claimed).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.attempts = o.attempts - 1, o.nextAttemptAt = :dueAt " +
+            "WHERE o.id = :id AND o.status = 'pending' AND o.attempts = :attempts")
+    int release(@Param("id") String id, @Param("attempts") int attempts, @Param("dueAt") Instant dueAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.status = 'sent', o.sentAt = :sentAt, o.lastError = null WHERE o.id = :id")
+    int markSent(@Param("id") String id, @Param("sentAt") Instant sentAt);
+
+    /** Records a failed attempt: reschedules it ({@code status = pending}) or gives up ({@code status = failed}). */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id = :id")
+    int markAttemptFailed(@Param("id") String id, @Param("status") String status,
+                          @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = 'sent' AND o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Instant cutoff);
+}
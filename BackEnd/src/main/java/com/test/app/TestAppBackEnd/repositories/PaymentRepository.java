@@ -1,14 +1,19 @@
 package com.test.app.TestAppBackEnd.repositories;
 
 import com.test.app.TestAppBackEnd.entities.Payment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface PaymentRepository extends JpaRepository<Payment, String> {
     List<Payment> findByClientUsername(String clientUsername);
@@ -18,6 +23,13 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
     List<Payment> findByMechanicIdAndPaidAtBetweenOrderByPaidAtDesc(String mechanicId, LocalDateTime start, LocalDateTime end);
     List<Payment> findByCarWashIdAndPaidAtBetweenOrderByPaidAtDesc(String carWashId, LocalDateTime start, LocalDateTime end);
 
+    /** Streaming variants for CSV export. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<Payment> streamByMechanicIdAndPaidAtBetweenOrderByPaidAtDesc(String mechanicId, LocalDateTime start, LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<Payment> streamByCarWashIdAndPaidAtBetweenOrderByPaidAtDesc(String carWashId, LocalDateTime start, LocalDateTime end);
+
     @Query(value = "SELECT p FROM Payment p WHERE (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(p.jobDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(p.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(p.status, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(p.jobId, '')) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY p.paidAt DESC",
@@ -29,14 +41,79 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
     @Query("SELECT p FROM Payment p WHERE p.mechanicId = :mechanicId AND (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(p.jobDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(p.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(p.status, '')) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY p.paidAt DESC")
-    List<Payment> findByMechanicIdWithSearch(@Param("mechanicId") String mechanicId, @Param("q") String q);
+    List<Payment> findByMechanicIdWithSearch(@Param("mechanicId") String mechanicId, @Param("q") String q, Pageable pageable);
 
     @Query("SELECT p FROM Payment p WHERE p.carWashId = :carWashId AND (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(p.jobDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(p.clientUsername, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
             "LOWER(COALESCE(p.status, '')) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY p.paidAt DESC")
-    List<Payment> findByCarWashIdWithSearch(@Param("carWashId") String carWashId, @Param("q") String q);
+    List<Payment> findByCarWashIdWithSearch(@Param("carWashId") String carWashId, @Param("q") String q, Pageable pageable);
 
     @Query("SELECT p FROM Payment p WHERE p.clientUsername = :username AND (:q IS NULL OR :q = '' OR " +
             "LOWER(COALESCE(p.jobDescription, '')) LIKE LOWER(CONCAT('%', :q, '%')) OR LOWER(COALESCE(p.status, '')) LIKE LOWER(CONCAT('%', :q, '%'))) ORDER BY p.paidAt DESC")
-    List<Payment> findByClientUsernameWithSearch(@Param("username") String username, @Param("q") String q);
+    List<Payment> findByClientUsernameWithSearch(@Param("username") String username, @Param("q") String q, Pageable pageable);
+
+    /**
+     * Keyset pages ordered by (paidAt, id) descending: rows strictly after the cursor (afterPaidAt, afterId),
+     * or the first page when afterPaidAt is null. Pass {@code PageCursor.probe(limit)} as the pageable.
+     */
+    String AFTER_CURSOR = "(:afterPaidAt IS NULL OR p.paidAt < :afterPaidAt OR (p.paidAt = :afterPaidAt AND p.id < :afterId))";
+
+    @Query("SELECT p FROM Payment p WHERE " + AFTER_CURSOR + " ORDER BY p.paidAt DESC, p.id DESC")
+    List<Payment> findPage(@Param("afterPaidAt") LocalDateTime afterPaidAt, @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.clientUsername = :username AND " + AFTER_CURSOR +
+            " ORDER BY p.paidAt DESC, p.id DESC")
+    List<Payment> findPageByClientUsername(@Param("username") String username, @Param("afterPaidAt") LocalDateTime afterPaidAt,
+                                           @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.mechanicId = :mechanicId AND " + AFTER_CURSOR +
+            " ORDER BY p.paidAt DESC, p.id DESC")
+    List<Payment> findPageByMechanicId(@Param("mechanicId") String mechanicId, @Param("afterPaidAt") LocalDateTime afterPaidAt,
+                                       @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.carWashId = :carWashId AND " + AFTER_CURSOR +
+            " ORDER BY p.paidAt DESC, p.id DESC")
+    List<Payment> findPageByCarWashId(@Param("carWashId") String carWashId, @Param("afterPaidAt") LocalDateTime afterPaidAt,
+                                      @Param("afterId") String afterId, Pageable pageable);
+    /** Count and sums of a set of payments, for dashboard and earnings totals without loading the rows. */
+    interface Totals {
+        Long getPayments();
+        Double getAmount();
+        Double getPlatformFee();
+    }
+
+    String TOTALS = "SELECT COUNT(p) AS payments, COALESCE(SUM(p.amount), 0.0) AS amount, " +
+            "COALESCE(SUM(p.platformFee), 0.0) AS platformFee FROM Payment p";
+
+    @Query(TOTALS)
+    Totals totals();
+
+    @Query(TOTALS + " WHERE p.clientUsername = :username")
+    Totals totalsByClientUsername(@Param("username") String username);
+
+    @Query(TOTALS + " WHERE p.mechanicId = :mechanicId")
+    Totals totalsByMechanicId(@Param("mechanicId") String mechanicId);
+
+    @Query(TOTALS + " WHERE p.carWashId = :carWashId")
+    Totals totalsByCarWashId(@Param("carWashId") String carWashId);
+
+    /** FULLTEXT variants of the searches above; :q is a boolean-mode query from FullTextSearch. Best match first. */
+    String FULLTEXT_MATCH = "MATCH(p.job_description, p.client_username, p.status, p.job_id) AGAINST(:q IN BOOLEAN MODE)";
+
+    @Query(value = "SELECT p.* FROM payments p WHERE " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, p.paid_at DESC",
+            countQuery = "SELECT COUNT(*) FROM payments p WHERE " + FULLTEXT_MATCH, nativeQuery = true)
+    Page<Payment> searchAll(@Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT p.* FROM payments p WHERE p.mechanic_id = :mechanicId AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, p.paid_at DESC", nativeQuery = true)
+    List<Payment> searchByMechanicId(@Param("mechanicId") String mechanicId, @Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT p.* FROM payments p WHERE p.car_wash_id = :carWashId AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, p.paid_at DESC", nativeQuery = true)
+    List<Payment> searchByCarWashId(@Param("carWashId") String carWashId, @Param("q") String q, Pageable pageable);
+
+    @Query(value = "SELECT p.* FROM payments p WHERE p.client_username = :username AND " + FULLTEXT_MATCH +
+            " ORDER BY " + FULLTEXT_MATCH + " DESC, p.paid_at DESC", nativeQuery = true)
+    List<Payment> searchByClientUsername(@Param("username") String username, @Param("q") String q, Pageable pageable);
 }
@@ -15,20 +15,26 @@ List<ProviderServiceOffering> findByProviderId(String providerId);
     /** All offerings for a provider type (for client catalog) */
     List<ProviderServiceOffering> findByProviderTypeOrderByServiceNameAsc(String providerType);
 
-@Query(value = """
-    SELECT *
-    FROM provider_service_offering p
-    WHERE p.provider_type = :providerType
-    AND ST_Distance_Sphere(
-            point(CAST(p.longitude AS DECIMAL(12,8)), CAST(p.latitude AS DECIMAL(12,8))),
-            point(:lng, :lat)
-    ) <= :radiusMeters
-    ORDER BY p.service_name ASC
-""", nativeQuery = true)
-List<ProviderServiceOffering> findNearbyByOfferingType(
-        @Param("providerType") String providerType,
-        @Param("lat") double lat,
-        @Param("lng") double lng,
-        @Param("radiusMeters") double radiusMeters
-);
+    /**
+     * Offerings within radiusMeters of (lat, lng). The bounding box (minLng > maxLng when it wraps the
+     * antimeridian) range-scans idx_pso_type_geo; ST_Distance_Sphere only runs on rows inside it.
+     */
+    @Query(value = """
+            SELECT *
+            FROM provider_service_offering p
+            WHERE p.provider_type = :providerType
+              AND p.geo_lat BETWEEN :minLat AND :maxLat
+              AND (p.geo_lng BETWEEN :minLng AND :maxLng
+                   OR (:minLng > :maxLng AND (p.geo_lng >= :minLng OR p.geo_lng <= :maxLng)))
+              AND ST_Distance_Sphere(point(p.geo_lng, p.geo_lat), point(:lng, :lat)) <= :radiusMeters
+            ORDER BY p.service_name ASC
+            """, nativeQuery = true)
+    List<ProviderServiceOffering> findNearbyByOfferingType(@Param("providerType") String providerType,
+                                                           @Param("lat") double lat,
+                                                           @Param("lng") double lng,
+                                                           @Param("radiusMeters") double radiusMeters,
+                                                           @Param("minLat") double minLat,
+                                                           @Param("maxLat") double maxLat,
+                                                           @Param("minLng") double minLng,
+                                                           @Param("maxLng") double maxLng);
 }
@@ -0,0 +1,13 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+/**
+ * Fetch size hint for {@code Stream<T>} repository methods. MySQL Connector/J only streams rows (instead of
+ * buffering the whole result) when the fetch size is Integer.MIN_VALUE, so exports run in constant memory.
+ * Stream results must be consumed inside a transaction and closed.
+ */
+public final class StreamingQuery {
+
+    public static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingQuery() {}
+}
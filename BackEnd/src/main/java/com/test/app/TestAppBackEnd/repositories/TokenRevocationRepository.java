@@ -0,0 +1,22 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.entities.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+    /** Revocations since the last sync (incremental refresh of the in-memory list). */
+    List<TokenRevocation> findByRevokedAtAfter(Instant since);
+
+    /** Rows older than the max token lifetime no longer matter: every token they cover has expired. */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation t WHERE t.revokedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -1,8 +1,6 @@
 package com.test.app.TestAppBackEnd.repositories;
 
-import com.test.app.TestAppBackEnd.constants.Role;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -18,7 +16,13 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, String
 
     Optional<UserProfile> findByUsername(String username);
 
-    List<UserProfile> findByUsernameIn(Collection<String> usernames);
+    /** Username and phone number only (a closed projection: two columns, no entity or role load). */
+    interface PhoneNumberRow {
+        String getUsername();
+        String getPhoneNumber();
+    }
+
+    List<PhoneNumberRow> findPhoneNumbersByUsernameIn(Collection<String> usernames);
 
     Optional<UserProfile> findByEmail(String email);
 
@@ -26,29 +30,57 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, String
 
     boolean existsByEmail(String email);
 
-    List<UserProfile> findByRoles(Role role);
-
     void deleteByUsername(String username);
 
-    @Query(value = """
-        SELECT u FROM UserProfile u
-        WHERE (:q IS NULL OR :q = ''
-           OR LOWER(u.username) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.email) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.phoneNumber) LIKE LOWER(CONCAT('%', :q, '%'))
-        )
-        """,
-        countQuery = """
-        SELECT COUNT(u) FROM UserProfile u
-        WHERE (:q IS NULL OR :q = ''
-           OR LOWER(u.username) LIKE LOWER(CONCAT('%', :q, '%'))
+    /**
+     * Row of the profile list views: the listed and editable fields only, without coordinates, account flags or
+     * timestamps, and with the roles as one comma-separated column instead of an eager collection load per profile.
+     * Read straight from the columns, so no entity is hydrated or tracked for dirty checking.
+     */
+    interface SummaryRow {
+        String getId();
+        String getUsername();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+        String getPhoneNumber();
+        String getCountryCode();
+        String getAddress();
+        Long getNumberOfEmployees();
+        String getRoles();
+    }
+
+    String SUMMARY_COLUMNS = "SELECT u.id AS id, u.username AS username, u.email AS email, u.first_name AS firstName, " +
+            "u.last_name AS lastName, u.phone_number AS phoneNumber, u.country_code AS countryCode, u.address AS address, " +
+            "u.number_of_employees AS numberOfEmployees, " +
+            "(SELECT GROUP_CONCAT(r.role ORDER BY r.role) FROM user_roles r WHERE r.user_id = u.id) AS roles " +
+            "FROM user_profiles u ";
+
+    /** Keyset pages ordered by username (unique): rows after afterUsername, or the first page when it is null. */
+    @Query(value = SUMMARY_COLUMNS + "WHERE (:afterUsername IS NULL OR u.username > :afterUsername) ORDER BY u.username",
+            nativeQuery = true)
+    List<SummaryRow> findSummaryPage(@Param("afterUsername") String afterUsername, Pageable pageable);
+
+    /** Like {@link #findSummaryPage}, for profiles holding the role (its enum name). */
+    @Query(value = SUMMARY_COLUMNS + "WHERE EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = :role) " +
+            "AND (:afterUsername IS NULL OR u.username > :afterUsername) ORDER BY u.username", nativeQuery = true)
+    List<SummaryRow> findSummaryPageByRole(@Param("role") String role, @Param("afterUsername") String afterUsername,
+                                           Pageable pageable);
+
+    @Query(value = SUMMARY_COLUMNS + """
+        WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :q, '%'))
            OR LOWER(u.email) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(u.phoneNumber) LIKE LOWER(CONCAT('%', :q, '%'))
-        )
-        """)
-    Page<UserProfile> findAllWithSearch(@Param("q") String q, Pageable pageable);
-}
\ No newline at end of file
+           OR LOWER(u.first_name) LIKE LOWER(CONCAT('%', :q, '%'))
+           OR LOWER(u.last_name) LIKE LOWER(CONCAT('%', :q, '%'))
+           OR LOWER(u.phone_number) LIKE LOWER(CONCAT('%', :q, '%'))
+        ORDER BY u.username
+        """, nativeQuery = true)
+    List<SummaryRow> findSummariesWithSearch(@Param("q") String q, Pageable pageable);
+
+    /** FULLTEXT variant of {@link #findSummariesWithSearch}; :q is a boolean-mode query from FullTextSearch. Best match first. */
+    String FULLTEXT_MATCH = "MATCH(u.username, u.email, u.first_name, u.last_name, u.phone_number) AGAINST(:q IN BOOLEAN MODE)";
+
+    @Query(value = SUMMARY_COLUMNS + "WHERE " + FULLTEXT_MATCH + " ORDER BY " + FULLTEXT_MATCH + " DESC, u.username",
+            nativeQuery = true)
+    List<SummaryRow> searchSummaries(@Param("q") String q, Pageable pageable);
+}
@@ -2,6 +2,7 @@ package com.test.app.TestAppBackEnd.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.test.app.TestAppBackEnd.services.CustomUserDetailsService;
+import com.test.app.TestAppBackEnd.services.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,6 +10,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,11 +27,17 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
 
     public JwtFilter(JwtUtil jwtUtil,
-                     CustomUserDetailsService userDetailsService) {
+                     CustomUserDetailsService userDetailsService,
+                     PrincipalCache principalCache,
+                     TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -56,18 +66,48 @@ public class JwtFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            if (!jwtUtil.isTokenValid(token)) {
+            // Single verification per request; subject and roles come from the same parse
+            JwtUtil.VerifiedToken verified;
+            try {
+                verified = jwtUtil.parseVerified(token);
+            } catch (io.jsonwebtoken.ExpiredJwtException e) {
+                logger.warn("JWT token expired: {}", e.getMessage());
+                sendUnauthorized(response, "Token expired");
+                return;
+            } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
                 sendUnauthorized(response, "Invalid or expired token");
                 return;
             }
 
-            String username = jwtUtil.extractUsername(token);
+            String username = verified.username();
 
             if (username != null &&
                     SecurityContextHolder.getContext().getAuthentication() == null) {
 
                 try {
-                    var userDetails = userDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails;
+                    if (tokenRevocationService.isStatelessAuth() && !verified.roles().isEmpty()) {
+                        // Stateless mode: authorities come from the signed token; deleted/changed users are
+                        // rejected via the in-memory revocation list, so no SQL runs here
+                        if (tokenRevocationService.isRevoked(username, verified.issuedAtMillis())) {
+                            logger.warn("Revoked token used for user: {}", username);
+                            SecurityContextHolder.clearContext();
+                            sendUnauthorized(response, "Token has been revoked. Please log in again.");
+                            return;
+                        }
+                        userDetails = User.withUsername(username)
+                                .password("")
+                                .authorities(verified.roles().stream().map(SimpleGrantedAuthority::new).toList())
+                                .build();
+                    } else {
+                        // Cached principals skip the users + user_profiles lookups; services invalidate on changes.
+                        // Tokens without roles (issued before the profile existed) also take this path.
+                        userDetails = principalCache.get(username, token);
+                        if (userDetails == null) {
+                            userDetails = principalCache.put(username, token,
+                                    userDetailsService.loadUserByUsername(username));
+                        }
+                    }
 
                     UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(
@@ -90,11 +130,6 @@ public class JwtFilter extends OncePerRequestFilter {
 
             filterChain.doFilter(request, response);
 
-        } catch (io.jsonwebtoken.ExpiredJwtException e) {
-            logger.warn("JWT token expired: {}", e.getMessage());
-            SecurityContextHolder.clearContext();
-            sendUnauthorized(response, "Token expired");
-
         } catch (Exception e) {
             logger.error("JWT validation error", e);
             SecurityContextHolder.clearContext();
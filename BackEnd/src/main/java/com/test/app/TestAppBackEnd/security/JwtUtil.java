@@ -8,24 +8,48 @@ import org.springframework.stereotype.Component;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.Collections;
 
 @Component
 public class JwtUtil {
 
-    private final String secret;
+    /** Username, roles, issue time and expiry of a token whose signature has already been verified. */
+    public record VerifiedToken(String username, List<String> roles, long issuedAtMillis, long expiresAtMillis) {
+        public boolean isExpired() {
+            return expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
     private final long expiration;
+    // Key and parser are immutable and thread-safe, so build them once instead of per call
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    private final int verifiedCacheMaxSize;
+    private final long verifiedCacheTtlMillis;
+    private final Map<String, CachedToken> verifiedTokens;
+
+    private record CachedToken(VerifiedToken token, long cachedUntilMillis) {}
 
     public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration}") long expiration) {
-        this.secret = secret;
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheMaxSize,
+                   @Value("${jwt.verified-cache.ttl-seconds:30}") long verifiedCacheTtlSeconds) {
         this.expiration = expiration;
-    }
-
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedCacheMaxSize = Math.max(0, verifiedCacheMaxSize);
+        this.verifiedCacheTtlMillis = Math.max(0, verifiedCacheTtlSeconds) * 1000L;
+        this.verifiedTokens = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > JwtUtil.this.verifiedCacheMaxSize;
+            }
+        };
     }
 
     public String generateToken(String username, List<String> roles) {
@@ -34,44 +58,77 @@ public class JwtUtil {
                 .claim("roles", roles)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies the token once and returns its subject, roles, issue time and expiry.
+     * Tokens verified within the last few seconds are served from a small cache, skipping the HMAC check.
+     *
+     * @throws ExpiredJwtException if the token has expired
+     * @throws JwtException if the signature or structure is invalid
+     */
+    public VerifiedToken parseVerified(String token) throws JwtException {
+        if (token == null || token.isBlank()) {
+            throw new MalformedJwtException("Token is empty");
+        }
+        long now = System.currentTimeMillis();
+        if (verifiedCacheTtlMillis > 0) {
+            CachedToken cached;
+            synchronized (verifiedTokens) {
+                cached = verifiedTokens.get(token);
+            }
+            if (cached != null && cached.cachedUntilMillis() > now) {
+                if (!cached.token().isExpired()) return cached.token();
+                synchronized (verifiedTokens) {
+                    verifiedTokens.remove(token);
+                }
+            }
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date iat = claims.getIssuedAt();
+        Date exp = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                rolesFrom(claims),
+                iat != null ? iat.getTime() : 0L,
+                exp != null ? exp.getTime() : Long.MAX_VALUE);
+
+        if (verifiedCacheTtlMillis > 0) {
+            long cachedUntil = Math.min(now + verifiedCacheTtlMillis, verified.expiresAtMillis());
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(token, new CachedToken(verified, cachedUntil));
+            }
+        }
+        return verified;
+    }
+
     public String extractUsername(String token) throws JwtException {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseVerified(token).username();
     }
 
     public List<String> extractRoles(String token) throws JwtException {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        Object rolesObject = claims.get("roles");
-        if (rolesObject instanceof List<?>) {
-            return ((List<?>) rolesObject).stream()
-                    .map(Object::toString)
-                    .collect(Collectors.toList());
-        }
-        return Collections.emptyList();
+        return parseVerified(token).roles();
     }
 
     public boolean isTokenValid(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseVerified(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private static List<String> rolesFrom(Claims claims) {
+        Object rolesObject = claims.get("roles");
+        if (rolesObject instanceof List<?>) {
+            return ((List<?>) rolesObject).stream()
+                    .map(Object::toString)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,165 @@
+package com.test.app.TestAppBackEnd.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashes and checks on a dedicated, bounded pool so a login burst cannot run more of them at once than
+ * there are cores. Only the hash itself goes to the pool; the rest of a login (user and profile reads, token minting)
+ * stays on the request thread. When the queue is full callers get {@link HashingCapacityExceededException}
+ * (mapped to 503 + Retry-After). The BCrypt cost is calibrated at startup to hit a target hash latency.
+ */
+@Component
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+    /** Never go below Spring's default strength, whatever the calibration says. */
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 16;
+
+    public static class HashingCapacityExceededException extends RuntimeException {
+        private final int retryAfterSeconds;
+
+        public HashingCapacityExceededException(int retryAfterSeconds) {
+            super("Server is busy processing logins. Please retry shortly.");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int retryAfterSeconds;
+    private final int cost;
+    private final long targetMillis;
+    private final BCryptPasswordEncoder bcrypt;
+    private final PasswordEncoder encoder = new PooledEncoder();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PasswordHashingService(@Value("${app.security.bcrypt.threads:0}") int threads,
+                                  @Value("${app.security.bcrypt.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.security.bcrypt.retry-after-seconds:2}") int retryAfterSeconds,
+                                  @Value("${app.security.bcrypt.cost:0}") int fixedCost,
+                                  @Value("${app.security.bcrypt.target-millis:100}") long targetMillis) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors());
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.targetMillis = targetMillis;
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.cost = fixedCost > 0 ? clamp(fixedCost) : calibrate(targetMillis);
+        this.bcrypt = new BCryptPasswordEncoder(cost);
+        log.info("BCrypt cost {} ({}), hashing pool: {} thread(s), queue {}",
+                cost, fixedCost > 0 ? "configured" : "calibrated for ~" + targetMillis + "ms", poolSize, this.queueCapacity);
+    }
+
+    /**
+     * Encoder used by the AuthenticationManager: {@code encode} and {@code matches} run on the pool. Its
+     * {@code upgradeEncoding} reports hashes below the current cost, which triggers rehash-on-login through
+     * {@code UserDetailsPasswordService}.
+     */
+    public PasswordEncoder encoder() {
+        return encoder;
+    }
+
+    /** Hashes on the bcrypt pool; the caller waits but CPU concurrency stays bounded. */
+    public String encode(CharSequence rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /** Runs one hash or check on the pool and waits for it. */
+    private <T> T onPool(Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private final class PooledEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return onPool(() -> bcrypt.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return onPool(() -> bcrypt.matches(rawPassword, encodedPassword));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return bcrypt.upgradeEncoding(encodedPassword);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cost", cost);
+        stats.put("targetMillis", targetMillis);
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** Times a few hashes at the minimum cost and adds one cost step per doubling needed to reach the target. */
+    private static int calibrate(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_COST);
+        probe.encode("warm-up");
+        int samples = 3;
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            probe.encode("calibration-" + i);
+        }
+        double perHashMillis = Math.max(1.0, (System.nanoTime() - start) / 1_000_000.0 / samples);
+        int cost = MIN_COST;
+        while (cost < MAX_COST && perHashMillis * 2 <= targetMillis) {
+            perHashMillis *= 2;
+            cost++;
+        }
+        return cost;
+    }
+
+    private static int clamp(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+}
@@ -0,0 +1,131 @@
+package com.test.app.TestAppBackEnd.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-evicted cache of authenticated principals used by {@link JwtFilter}.
+ * Entries are keyed by username + token fingerprint so a new login always reloads from the DB.
+ * Services call {@link #invalidate(String)} when a user's account, password or roles change,
+ * so a deleted user is rejected on the very next request.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private record Key(String username, String fingerprint) {}
+
+    private record Entry(UserDetails principal, long expiresAtMillis) {}
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<Key, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        // Access-ordered so the least recently used principal is dropped first when full
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > PrincipalCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the cached principal for this username/token, or null on miss or expiry. */
+    public UserDetails get(String username, String token) {
+        Key key = new Key(username, fingerprint(token));
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis() > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return entry.principal();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /** Caches a credentials-free copy of the principal (the password hash is never kept in memory here). */
+    public UserDetails put(String username, String token, UserDetails principal) {
+        UserDetails copy = User.withUserDetails(principal).password("").build();
+        Entry entry = new Entry(copy, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(new Key(username, fingerprint(token)), entry);
+        }
+        return copy;
+    }
+
+    /** Drops every cached token for the user. Call after delete, password or role changes. */
+    public void invalidate(String username) {
+        if (username == null) return;
+        int removed;
+        synchronized (entries) {
+            int before = entries.size();
+            entries.keySet().removeIf(k -> k.username().equalsIgnoreCase(username));
+            removed = before - entries.size();
+        }
+        invalidations.incrementAndGet();
+        if (removed > 0) {
+            log.debug("Invalidated {} cached principal(s) for {}", removed, username);
+        }
+    }
+
+    /** Drops all cached principals (e.g. after bulk user deletes or a DB reset). */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", (h + m) == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    /** The JWT signature segment is unique per issued token and cheap to extract. */
+    private static String fingerprint(String token) {
+        if (token == null) return "";
+        int lastDot = token.lastIndexOf('.');
+        return lastDot >= 0 ? token.substring(lastDot + 1) : token;
+    }
+}
@@ -1,43 +1,71 @@
 package com.test.app.TestAppBackEnd.services;
 
+import com.test.app.TestAppBackEnd.constants.JobStatus;
 import com.test.app.TestAppBackEnd.entities.CarWashBooking;
-import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
-import com.test.app.TestAppBackEnd.entities.UserProfile;
+import com.test.app.TestAppBackEnd.entities.JobLineItem;
+import com.test.app.TestAppBackEnd.models.CursorPage;
 import com.test.app.TestAppBackEnd.repositories.CarWashBookingRepository;
-import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.config.FrontendUrlResolver;
 import com.test.app.TestAppBackEnd.util.DescriptionUtils;
+import com.test.app.TestAppBackEnd.util.PageCursor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class CarWashBookingService {
 
     private final CarWashBookingRepository repository;
-    private final EmailService emailService;
+    private final NotificationOutboxService outbox;
     private final UserProfileRepository userProfileRepository;
     private final ClientNotificationService notificationService;
-    private final ProviderServiceOfferingRepository providerServiceOfferingRepository;
+    private final ProviderOfferingIndex offeringIndex;
+    private final JobLineItems jobLineItems;
     private final FrontendUrlResolver frontendUrlResolver;
+    private final FullTextSearch fullTextSearch;
+    private final ProviderCapacity capacity;
+    private final JobEventBus eventBus;
+    private final ResourceVersions versions;
 
     public CarWashBookingService(CarWashBookingRepository repository,
-            EmailService emailService,
+            NotificationOutboxService outbox,
             UserProfileRepository userProfileRepository,
             ClientNotificationService notificationService,
-            ProviderServiceOfferingRepository providerServiceOfferingRepository,
-            FrontendUrlResolver frontendUrlResolver) {
+            ProviderOfferingIndex offeringIndex,
+            JobLineItems jobLineItems,
+            FrontendUrlResolver frontendUrlResolver,
+            FullTextSearch fullTextSearch,
+            ProviderCapacity capacity,
+            JobEventBus eventBus,
+            ResourceVersions versions) {
         this.repository = repository;
-        this.emailService = emailService;
+        this.outbox = outbox;
         this.userProfileRepository = userProfileRepository;
         this.notificationService = notificationService;
-        this.providerServiceOfferingRepository = providerServiceOfferingRepository;
+        this.offeringIndex = offeringIndex;
+        this.jobLineItems = jobLineItems;
         this.frontendUrlResolver = frontendUrlResolver;
+        this.fullTextSearch = fullTextSearch;
+        this.capacity = capacity;
+        this.eventBus = eventBus;
+        this.versions = versions;
+    }
+
+    /** ETag scopes a write to this booking changes: the booking, every list and the client's and car washes' lists. */
+    private void bumpVersions(CarWashBooking booking, String previousCarWashId) {
+        versions.bump(ResourceVersions.CARWASH_BOOKINGS,
+                ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "id", booking.getId()),
+                ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "client", booking.getClientUsername()),
+                ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "carwash", booking.getCarWashId()),
+                ResourceVersions.scope(ResourceVersions.CARWASH_BOOKINGS, "carwash", previousCarWashId));
     }
 
     private String getClientEmail(String username) {
@@ -67,45 +95,75 @@ public class CarWashBookingService {
 
     // ================= CREATE =================
     public CarWashBooking createBooking(CarWashBooking booking) {
-
-        return repository.save(booking);
+        List<JobLineItem> lines = requestedLines(booking);
+        booking.setLineItems(new ArrayList<>(lines));
+        if (booking.getServicePrice() == null) booking.setServicePrice(JobLineItems.total(lines));
+        CarWashBooking saved = repository.save(booking);
+        eventBus.jobChanged(JobEventBus.Channel.CARWASH, saved.getId(), saved, null, null, saved.getStatus(), saved.getCarWashId());
+        bumpVersions(saved, null);
+        return saved;
     }
 
-    /** Default max rows for list endpoints so tables load quickly. */
-    private static final int DEFAULT_PAGE_SIZE = 50;
-
     // ================= READ =================
-    public List<CarWashBooking> getAllBookings() {
-        return repository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
-    }
-
-    public List<CarWashBooking> getAllBookings(String search) {
+    /**
+     * List endpoints are keyset-paginated on (date, id), newest first: pass the previous page's nextCursor
+     * to continue. With a search, one page of the best matches is returned and there is no next cursor.
+     * Loaded read-only, like the mechanic job lists.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CarWashBooking> getAllBookings(String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
         if (search != null && !search.isBlank()) {
-            return repository.findAllWithSearch(search.trim(), PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single((q != null
+                    ? repository.searchAll(q, top)
+                    : repository.findAllWithSearch(search.trim(), JobStatus.matching(search), top)).getContent());
         }
-        return repository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+        PageCursor.Key<LocalDate> after = PageCursor.decodeKey(cursor, LocalDate::parse);
+        return page(repository.findPage(afterDate(after), afterId(after), PageCursor.probe(size)), size);
     }
 
-    public List<CarWashBooking> getBookingsByClient(String clientUsername) {
-        return repository.findByClientUsername(clientUsername);
+    @Transactional(readOnly = true)
+    public CursorPage<CarWashBooking> getBookingsByClient(String clientUsername, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single(q != null
+                    ? repository.searchByClientUsername(clientUsername, q, top)
+                    : repository.findByClientUsernameWithSearch(clientUsername, search.trim(), JobStatus.matching(search), top));
+        }
+        PageCursor.Key<LocalDate> after = PageCursor.decodeKey(cursor, LocalDate::parse);
+        return page(repository.findPageByClientUsername(clientUsername, afterDate(after), afterId(after),
+                PageCursor.probe(size)), size);
     }
 
-    public List<CarWashBooking> getBookingsByClient(String clientUsername, String search) {
+    @Transactional(readOnly = true)
+    public CursorPage<CarWashBooking> getBookingsByCarWashId(String carWashId, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
         if (search != null && !search.isBlank()) {
-            return repository.findByClientUsernameWithSearch(clientUsername, search.trim());
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single(q != null
+                    ? repository.searchByCarWashId(carWashId, q, top)
+                    : repository.findByCarWashIdWithSearch(carWashId, search.trim(), JobStatus.matching(search), top));
         }
-        return repository.findByClientUsername(clientUsername);
+        PageCursor.Key<LocalDate> after = PageCursor.decodeKey(cursor, LocalDate::parse);
+        return page(repository.findPageByCarWashId(carWashId, afterDate(after), afterId(after),
+                PageCursor.probe(size)), size);
     }
 
-    public List<CarWashBooking> getBookingsByCarWashId(String carWashId) {
-        return repository.findByCarWashId(carWashId);
+    private static CursorPage<CarWashBooking> page(List<CarWashBooking> rows, int size) {
+        return CursorPage.of(rows, size, b -> PageCursor.after(b.getDate(), b.getId()));
     }
 
-    public List<CarWashBooking> getBookingsByCarWashId(String carWashId, String search) {
-        if (search != null && !search.isBlank()) {
-            return repository.findByCarWashIdWithSearch(carWashId, search.trim());
-        }
-        return repository.findByCarWashId(carWashId);
+    private static LocalDate afterDate(PageCursor.Key<LocalDate> after) {
+        return after != null ? after.sortKey() : null;
+    }
+
+    private static String afterId(PageCursor.Key<LocalDate> after) {
+        return after != null ? after.id() : null;
     }
 
     public List<CarWashBooking> getBookingsByClientAndDateRange(String clientUsername, String startDate,
@@ -116,15 +174,21 @@ public class CarWashBookingService {
     /** Completed bookings only for a car wash provider within date range */
     public List<CarWashBooking> getCompletedBookingsByCarWashIdAndDateRange(String carWashId, String startDate,
             String endDate) {
-        return repository.findByCarWashIdAndStatusCompletedAndDateBetween(carWashId, startDate, endDate);
+        return repository.findByCarWashIdAndStatusAndDateBetween(carWashId, JobStatus.COMPLETED, startDate, endDate);
     }
 
     public Optional<CarWashBooking> getBookingById(String id) {
         return repository.findById(id);
     }
 
+    /** Lines the client sent, or one per serviceTypes name for clients that send names only. */
+    private List<JobLineItem> requestedLines(CarWashBooking booking) {
+        List<JobLineItem> lines = jobLineItems.resolve(JobLineItems.CARWASH, booking.getLineItems());
+        return lines.isEmpty() ? JobLineItems.named(booking.getServiceTypes()) : lines;
+    }
+
     /**
-     * Ensures the provider offers all requested services for the given car type.
+     * Ensures the provider offers all requested services for the given car type, from the offering index.
      * 
      * @throws IllegalStateException if any requested service is not offered by the
      *                               provider for that car type
@@ -133,115 +197,128 @@ public class CarWashBookingService {
             List<String> requestedServiceTypes) {
         if (requestedServiceTypes == null || requestedServiceTypes.isEmpty())
             return;
-        List<ProviderServiceOffering> offerings = providerServiceOfferingRepository.findByProviderId(providerId);
-        List<ProviderServiceOffering> forCarType = offerings.stream()
-                .filter(o -> offeringMatchesCarType(o.getSupportedCarTypes(), carType))
-                .toList();
-        Set<String> offeredNames = forCarType.stream()
-                .map(ProviderServiceOffering::getServiceName)
-                .filter(n -> n != null && !n.isBlank())
-                .collect(Collectors.toSet());
-        for (String requested : requestedServiceTypes) {
-            if (requested == null || requested.isBlank())
-                continue;
-            if (!offeredNames.contains(requested.trim())) {
-                throw new IllegalStateException(
-                        "Cannot accept this booking: you do not offer the service \"" + requested
-                                + "\" for this car type. Only accept bookings for services you offer.");
-            }
+        String missing = offeringIndex.firstUnofferedForCarType(providerId, carType, requestedServiceTypes);
+        if (missing != null) {
+            throw new IllegalStateException(
+                    "Cannot accept this booking: you do not offer the service \"" + missing
+                            + "\" for this car type. Only accept bookings for services you offer.");
         }
     }
 
-    private boolean offeringMatchesCarType(String supportedCarTypes, String carType) {
-        if (carType == null || carType.isBlank())
-            return true;
-        if (supportedCarTypes == null || supportedCarTypes.isBlank())
-            return true;
-        String[] parts = supportedCarTypes.split(",");
-        for (String p : parts) {
-            if (p != null && p.trim().equalsIgnoreCase(carType.trim()))
-                return true;
-        }
-        return false;
-    }
-
-    /**
-     * Max concurrent paid/in-progress jobs = provider's numberOfEmployees (default
-     * 1 if not set).
-     */
-    private int getMaxPaidJobsForProvider(String providerProfileId) {
-        return userProfileRepository.findById(providerProfileId)
-                .map(UserProfile::getNumberOfEmployees)
-                .filter(n -> n != null && n >= 1)
-                .map(Long::intValue)
-                .orElse(1);
-    }
-
     // ================= UPDATE =================
+    @Transactional
     public CarWashBooking updateBooking(String id, CarWashBooking updatedBooking, String loggedInUsername) {
-        return repository.findById(id).map(booking -> {
-            // Block acceptance if provider already has paid/in-progress jobs >=
-            // numberOfEmployees (only when newly accepting)
-            String newCarWashId = updatedBooking.getCarWashId();
-            boolean isNewAcceptance = "accepted".equalsIgnoreCase(updatedBooking.getStatus())
-                    && newCarWashId != null && !newCarWashId.isBlank()
-                    && (booking.getCarWashId() == null || !booking.getCarWashId().equals(newCarWashId));
-            if (isNewAcceptance) {
-                int maxAllowed = getMaxPaidJobsForProvider(newCarWashId);
-                long paidIncompleteCount = repository.countPaidIncompleteByCarWashId(newCarWashId);
-                if (paidIncompleteCount >= maxAllowed) {
-                    throw new IllegalStateException(
-                            "Cannot accept more bookings, Complete some before accepting new ones.");
-                }
-                // Only allow acceptance if this provider offers all requested services for the
-                // booking's car type
-                validateBookingServicesOfferedByProvider(newCarWashId, updatedBooking.getCarType(),
-                        updatedBooking.getServiceTypes());
+        CarWashBooking booking = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Booking not found with id: " + id));
+        // No status in the body keeps the current one
+        JobStatus newStatus = updatedBooking.getStatus() != null ? updatedBooking.getStatus() : booking.getStatus();
+        JobStatus.checkTransition(booking.getStatus(), newStatus);
+        // What the feed reports as "before"; the claim below already moves the row
+        String holderBefore = booking.getCarWashId();
+        JobStatus statusBefore = booking.getStatus();
+        Long fromVersion = booking.getVersion();
+        List<JobLineItem> requestedLines = requestedLines(updatedBooking);
+        // Block acceptance if provider already has paid/in-progress jobs >=
+        // numberOfEmployees (only when newly accepting)
+        String newCarWashId = updatedBooking.getCarWashId();
+        boolean isNewAcceptance = newStatus == JobStatus.ACCEPTED
+                && newCarWashId != null && !newCarWashId.isBlank()
+                && (booking.getStatus() == JobStatus.PENDING || !newCarWashId.equals(booking.getCarWashId()));
+        if (!isNewAcceptance && newCarWashId != null && !newCarWashId.isBlank()
+                && booking.getCarWashId() != null && !newCarWashId.equals(booking.getCarWashId())) {
+            throw new IllegalStateException("Booking was already accepted by another provider");
+        }
+        if (isNewAcceptance) {
+            if (!capacity.hasRoom(ProviderCapacity.Kind.CARWASH, newCarWashId)) {
+                throw new IllegalStateException(
+                        "Cannot accept more bookings, Complete some before accepting new ones.");
             }
-            // Update all booking fields (date saved as yyyy-MM-dd for range search)
-            booking.setDate(updatedBooking.getDate());
-            booking.setCarPlate(updatedBooking.getCarPlate());
-            booking.setCarType(updatedBooking.getCarType());
-            booking.setCarDescription(updatedBooking.getCarDescription());
-            booking.setServiceTypes(updatedBooking.getServiceTypes());
-            booking.setServicePrice(updatedBooking.getServicePrice());
-            booking.setLocation(updatedBooking.getLocation());
-            booking.setStatus(updatedBooking.getStatus());
-            booking.setCarWashId(updatedBooking.getCarWashId());
-
-            CarWashBooking savedBooking = repository.save(booking);
-
-            // Send actionable notifications when status changes
-
-            String newStatus = booking.getStatus();
-            if ("accepted".equalsIgnoreCase(newStatus)) {
-                if (booking.isCallOutService())
-                    notificationService.notifyServiceProvider(loggedInUsername, booking.getLocation());
-
-                notificationService.notifyRequestAccepted(
-                        booking.getClientUsername(),
-                        frontendUrlResolver.getFrontendBaseUrl() + "/my-washes",
-                        "Car Wash Booking", toJobDescription(booking));
-            } else if ("completed".equalsIgnoreCase(newStatus)) {
-                notificationService.notifyServiceCompleted(
-                        booking.getClientUsername(), loggedInUsername, "car wash service", toJobDescription(booking));
-            } else {
-                String jobDesc = toJobDescription(booking);
-                String to = getClientEmail(booking.getClientUsername());
-                if (to != null) {
-                    String subject = "Booking Status Updated";
-                    String body = "Hi " + booking.getClientUsername() + ",\n\n" +
-                            "Your " + jobDesc + " booking status has been changed to: " +
-                            newStatus + ".\n\nThank you!";
-                    emailService.sendEmailNotification(to, subject, body);
-                }
+            // Only allow acceptance if this provider offers all requested services for the
+            // booking's car type
+            validateBookingServicesOfferedByProvider(newCarWashId, updatedBooking.getCarType(),
+                    JobLineItems.names(requestedLines.isEmpty() ? booking.getLineItems() : requestedLines));
+            // Two providers accepting at once: only the compare-and-set that still sees a pending booking and the
+            // old holder wins; a booking that is no longer pending cannot be taken over. It also re-checks capacity
+            // against the database
+            if (repository.claim(id, newCarWashId, booking.getCarWashId()) != 1) {
+                String expectedCarWashId = booking.getCarWashId();
+                boolean stillOpen = repository.findById(id)
+                        .map(b -> b.getStatus() == JobStatus.PENDING && Objects.equals(b.getCarWashId(), expectedCarWashId))
+                        .orElse(false);
+                throw new IllegalStateException(stillOpen
+                        ? "Cannot accept more bookings, Complete some before accepting new ones."
+                        : "Booking was already accepted by another provider");
             }
-            return savedBooking;
-        }).orElseThrow(() -> new RuntimeException("Booking not found with id: " + id));
+            booking = repository.findById(id).orElseThrow();
+        }
+        String previousCarWashId = booking.getCarWashId();
+        JobStatus previousStatus = booking.getStatus();
+        // Update all booking fields (date saved as yyyy-MM-dd for range search)
+        booking.setDate(updatedBooking.getDate());
+        booking.setCarPlate(updatedBooking.getCarPlate());
+        booking.setCarType(updatedBooking.getCarType());
+        booking.setCarDescription(updatedBooking.getCarDescription());
+        JobLineItems.replace(booking.getLineItems(), requestedLines);
+        booking.setServicePrice(updatedBooking.getServicePrice());
+        booking.setLocation(updatedBooking.getLocation());
+        booking.setStatus(newStatus);
+        booking.setCarWashId(updatedBooking.getCarWashId());
+        if (isNewAcceptance) {
+            ProviderOfferingIndex.Offered offered = offeringIndex.get(newCarWashId);
+            String carType = booking.getCarType();
+            JobLineItems.bind(booking.getLineItems(), service -> offered.offerForCarType(carType, service));
+        }
+
+        CarWashBooking savedBooking = repository.save(booking);
+        capacity.transition(ProviderCapacity.Kind.CARWASH, previousCarWashId, previousStatus,
+                savedBooking.getCarWashId(), savedBooking.getStatus());
+        eventBus.jobChanged(JobEventBus.Channel.CARWASH, savedBooking.getId(), savedBooking, statusBefore, holderBefore,
+                savedBooking.getStatus(), savedBooking.getCarWashId());
+        bumpVersions(savedBooking, holderBefore);
+
+        // Send actionable notifications when status changes (or the booking moves to another car wash)
+        boolean changed = statusBefore != newStatus || !Objects.equals(holderBefore, savedBooking.getCarWashId());
+        if (!changed) return savedBooking;
+        if (newStatus == JobStatus.ACCEPTED) {
+            if (booking.isCallOutService())
+                notificationService.notifyServiceProvider(eventKey(booking, fromVersion, "callout:" + loggedInUsername),
+                        loggedInUsername, booking.getLocation());
+
+            notificationService.notifyRequestAccepted(eventKey(booking, fromVersion, "accepted:" + booking.getCarWashId()),
+                    booking.getClientUsername(),
+                    frontendUrlResolver.getFrontendBaseUrl() + "/my-washes",
+                    "Car Wash Booking", toJobDescription(booking));
+        } else if (newStatus == JobStatus.COMPLETED) {
+            notificationService.notifyServiceCompleted(eventKey(booking, fromVersion, "completed"),
+                    booking.getClientUsername(), loggedInUsername, "car wash service", toJobDescription(booking));
+        } else {
+            String jobDesc = toJobDescription(booking);
+            String to = getClientEmail(booking.getClientUsername());
+            if (to != null) {
+                String subject = "Booking Status Updated";
+                String body = "Hi " + booking.getClientUsername() + ",\n\n" +
+                        "Your " + jobDesc + " booking status has been changed to: " +
+                        newStatus + ".\n\nThank you!";
+                outbox.enqueueEmail(eventKey(booking, fromVersion, "status:" + newStatus), to, subject, body);
+            }
+        }
+        return savedBooking;
+    }
+
+    /** Outbox dedup key of a booking event; fromVersion (the version before the change) makes each change unique. */
+    private static String eventKey(CarWashBooking booking, Long fromVersion, String event) {
+        return "carwash-booking:" + booking.getId() + ":v" + fromVersion + ":" + event;
     }
 
     // ================= DELETE =================
     public void deleteBooking(String id) {
+        Optional<CarWashBooking> existing = repository.findById(id);
+        existing.ifPresent(booking -> capacity.transition(ProviderCapacity.Kind.CARWASH,
+                booking.getCarWashId(), booking.getStatus(), null, null));
         repository.deleteById(id);
+        existing.ifPresent(booking -> {
+            eventBus.jobRemoved(JobEventBus.Channel.CARWASH, id, booking.getStatus(), booking.getCarWashId());
+            bumpVersions(booking, null);
+        });
     }
 }
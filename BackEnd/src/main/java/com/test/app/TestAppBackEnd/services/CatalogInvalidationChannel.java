@@ -0,0 +1,17 @@
+package com.test.app.TestAppBackEnd.services;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries catalog invalidations between nodes for {@link OfferingCatalogCache}. Selected with
+ * app.catalog-cache.invalidation: "local" (single node, default; other nodes rely on the TTL) or "jdbc"
+ * (rows in catalog_invalidations polled by every node).
+ */
+public interface CatalogInvalidationChannel {
+
+    /** Tells the other nodes that this provider type's offerings changed; null means every type. */
+    void publish(String providerType);
+
+    /** Called with the provider type (or null) of each invalidation published by another node. */
+    void subscribe(Consumer<String> listener);
+}
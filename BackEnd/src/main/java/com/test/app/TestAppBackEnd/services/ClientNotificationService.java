@@ -1,27 +1,29 @@
 package com.test.app.TestAppBackEnd.services;
 
-import ch.qos.logback.classic.Logger;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
-import org.springframework.scheduling.annotation.Async;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
-
+/**
+ * Renders client/provider notifications and queues them in the notification outbox, inside the caller's
+ * transaction. {@code eventKey} identifies the triggering event so a retried request does not notify twice.
+ */
 @Service
 public class ClientNotificationService {
 
-    private final EmailService emailService;
-    private final SmsService smsService;
+    private static final Logger log = LoggerFactory.getLogger(ClientNotificationService.class);
+
+    private final NotificationOutboxService outbox;
     private final UserProfileRepository userProfileRepository;
 
-    public ClientNotificationService(EmailService emailService,
-                                     SmsService smsService,
+    public ClientNotificationService(NotificationOutboxService outbox,
                                      UserProfileRepository userProfileRepository) {
-        this.emailService = emailService;
-        this.smsService = smsService;
+        this.outbox = outbox;
         this.userProfileRepository = userProfileRepository;
     }
 
@@ -40,8 +42,7 @@ public class ClientNotificationService {
 
     private static final String BUSINESS_ADDRESS = "123 Main Street, Cape Town, South Africa";
 
-    @Async
-    public void notifyRequestAccepted(String username, String paymentLink, String serviceType, String jobDescription) {
+    public void notifyRequestAccepted(String eventKey, String username, String paymentLink, String serviceType, String jobDescription) {
         UserProfile profile = getClientProfile(username);
         String toEmail = profile != null && profile.getEmail() != null && !profile.getEmail().isBlank()
                 ? profile.getEmail() : (username != null && username.contains("@") ? username : null);
@@ -57,17 +58,16 @@ public class ClientNotificationService {
                 "Thank you for choosing our service!";
 
         if (toEmail != null) {
-            emailService.sendEmailNotification(toEmail, subject, body);
+            outbox.enqueueEmail(eventKey, toEmail, subject, body);
         }
 
         if (profile != null && profile.getPhoneNumber() != null && !profile.getPhoneNumber().isBlank()) {
             String smsBody = "MechConnect: Your " + jobContext + " request has been accepted. Pay now: " + paymentLink;
-            smsService.sendSms(profile.getPhoneNumber(), profile.getCountryCode(), smsBody);
+            outbox.enqueueSms(eventKey, profile.getPhoneNumber(), profile.getCountryCode(), smsBody);
         }
     }
 
-    @Async
-    public void notifyServiceCompleted(String clientUsername, String loggedInUsername, String serviceType, String jobDescription) {
+    public void notifyServiceCompleted(String eventKey, String clientUsername, String loggedInUsername, String serviceType, String jobDescription) {
         UserProfile profile = getClientProfile(clientUsername);
         String toEmail = profile != null && profile.getEmail() != null && !profile.getEmail().isBlank()
                 ? profile.getEmail() : (clientUsername != null && clientUsername.contains("@") ? clientUsername : null);
@@ -99,20 +99,18 @@ public class ClientNotificationService {
                 "Thank you for choosing our service!";
 
         if (toEmail != null) {
-            emailService.sendEmailNotification(toEmail, subject, body);
+            outbox.enqueueEmail(eventKey, toEmail, subject, body);
         }
 
         if (profile != null && profile.getPhoneNumber() != null && !profile.getPhoneNumber().isBlank()) {
             String smsBody = "MechConnect: Your " + jobContext + " is done. Collect at: " + collectionAddress + " | Waze: " + wazeLink;
-            smsService.sendSms(profile.getPhoneNumber(), profile.getCountryCode(), smsBody);
+            outbox.enqueueSms(eventKey, profile.getPhoneNumber(), profile.getCountryCode(), smsBody);
         }
     }
-    @Async
-    public void notifyServiceProvider(String providerUsername, String requestLocation) {
+    public void notifyServiceProvider(String eventKey, String providerUsername, String requestLocation) {
         UserProfile profile = getClientProfile(providerUsername);
 
         if (profile == null) {
-            Logger log = null;
             log.warn("No profile found for provider: {}", providerUsername);
             return;
         }
@@ -130,12 +128,12 @@ public class ClientNotificationService {
         );
 
         if (profile.getEmail() != null && !profile.getEmail().isBlank()) {
-            emailService.sendEmailNotification(profile.getEmail(), subject, body);
+            outbox.enqueueEmail(eventKey, profile.getEmail(), subject, body);
         }
 
         if (profile.getPhoneNumber() != null && !profile.getPhoneNumber().isBlank()) {
             String smsBody = String.format("MechConnect: New client at %s | Waze: %s", requestLocation, wazeLink);
-            smsService.sendSms(profile.getPhoneNumber(), profile.getCountryCode(), smsBody);
+            outbox.enqueueSms(eventKey, profile.getPhoneNumber(), profile.getCountryCode(), smsBody);
         }
     }
 
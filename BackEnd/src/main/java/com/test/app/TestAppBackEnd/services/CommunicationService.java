@@ -1,5 +1,6 @@
 package com.test.app.TestAppBackEnd.services;
 
+import com.test.app.TestAppBackEnd.config.AsyncConfig;
 import com.test.app.TestAppBackEnd.models.CommunicationRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -19,7 +20,7 @@ public class CommunicationService {
         this.whatsappService = whatsappService;
     }
 
-    @Async
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
     public void send(CommunicationRequest request) {
         switch (request.getType()) {
             case EMAIL:
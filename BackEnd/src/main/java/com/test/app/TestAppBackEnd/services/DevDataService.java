@@ -21,19 +21,25 @@ public class DevDataService {
     private final RequestHistoryRepository requestHistoryRepository;
     private final UserProfileRepository userProfileRepository;
     private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final ResourceVersions versions;
 
     public DevDataService(PaymentRepository paymentRepository,
                          MechanicRequestRepository mechanicRequestRepository,
                          CarWashBookingRepository carWashBookingRepository,
                          RequestHistoryRepository requestHistoryRepository,
                          UserProfileRepository userProfileRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         TokenRevocationService tokenRevocationService,
+                         ResourceVersions versions) {
         this.paymentRepository = paymentRepository;
         this.mechanicRequestRepository = mechanicRequestRepository;
         this.carWashBookingRepository = carWashBookingRepository;
         this.requestHistoryRepository = requestHistoryRepository;
         this.userProfileRepository = userProfileRepository;
         this.userRepository = userRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.versions = versions;
     }
 
     @Transactional
@@ -47,6 +53,7 @@ public class DevDataService {
         mechanicRequestRepository.deleteAll();
         carWashBookingRepository.deleteAll();
         requestHistoryRepository.deleteAll();
+        versions.bumpAll();
 
         // 2. Delete all UserProfiles except current user (case-insensitive match)
         List<UserProfile> profiles = userProfileRepository.findAll();
@@ -61,6 +68,7 @@ public class DevDataService {
         for (User user : users) {
             if (user.getUsername() == null || !currentUsername.equalsIgnoreCase(user.getUsername())) {
                 userRepository.delete(user);
+                tokenRevocationService.revoke(user.getUsername(), "db-reset");
             }
         }
     }
@@ -1,10 +1,10 @@
 package com.test.app.TestAppBackEnd.services;
 
-
+import com.test.app.TestAppBackEnd.config.AsyncConfig;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -12,12 +12,16 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.util.List;
+
 @Service
 public class EmailService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
     private final JavaMailSender mailSender;
+    private final SmtpConnectionPool smtpPool;
 
     /**
      * From address - must match authenticated SMTP account (e.g. Gmail) or be a verified alias.
@@ -26,8 +30,9 @@ public class EmailService {
     @Value("${app.mail.from:${spring.mail.username}}")
     private String fromAddress;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, SmtpConnectionPool smtpPool) {
         this.mailSender = mailSender;
+        this.smtpPool = smtpPool;
     }
 
     public void sendEmail(String to, String from, String subject, String body) throws MessagingException {
@@ -35,6 +40,25 @@ public class EmailService {
     }
 
     public void sendEmail(String to, String from, String subject, String body, boolean html) throws MessagingException {
+        smtpPool.send(buildEmail(to, from, subject, body, html));
+    }
+
+    /** Sends synchronously from the configured from address; failures propagate (used by the outbox dispatcher). */
+    public void sendEmailNow(String to, String subject, String body) throws MessagingException {
+        sendEmail(to, fromAddress, subject, body, false);
+    }
+
+    /** Plain-text message from the configured from address, for {@link #sendAllNow}. */
+    public MimeMessage buildEmail(String to, String subject, String body) throws MessagingException {
+        return buildEmail(to, fromAddress, subject, body, false);
+    }
+
+    /** Sends the messages over one pooled SMTP session; results are in input order. */
+    public List<SmtpConnectionPool.SendResult> sendAllNow(List<MimeMessage> messages) {
+        return smtpPool.sendAll(messages);
+    }
+
+    private MimeMessage buildEmail(String to, String from, String subject, String body, boolean html) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, false);
 
@@ -42,15 +66,14 @@ public class EmailService {
         helper.setFrom(from);
         helper.setSubject(subject);
         helper.setText(body, html);
-
-        mailSender.send(message);
+        return message;
     }
 
     /**
-     * Send email with a CSV attachment (e.g. for history reports).
+     * Send email with a CSV attachment (e.g. for history reports). The file is streamed from disk when the message is written.
      */
     public void sendEmailWithAttachment(String to, String subject, String bodyText,
-                                        byte[] attachmentBytes, String attachmentFileName) throws MessagingException {
+                                        Path attachment, String attachmentFileName) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -58,17 +81,17 @@ public class EmailService {
         helper.setFrom(fromAddress);
         helper.setSubject(subject);
         helper.setText(bodyText, false);
-        helper.addAttachment(attachmentFileName, new ByteArrayResource(attachmentBytes), "text/csv");
+        helper.addAttachment(attachmentFileName, new FileSystemResource(attachment), "text/csv");
 
-        mailSender.send(message);
+        smtpPool.send(message);
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendEmailNotification(String toEmail, String subject, String body) {
         sendEmailNotification(toEmail, subject, body, false);
     }
 
-    @Async
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
     public void sendEmailNotification(String toEmail, String subject, String body, boolean html) {
         try {
             sendEmail(toEmail, fromAddress, subject, body, html);
@@ -78,15 +101,4 @@ public class EmailService {
         }
     }
 
-    @Async
-    public void sendReportEmail(String toEmail, String subject, String bodyText,
-                                byte[] csvBytes, String attachmentFileName) {
-        try {
-            sendEmailWithAttachment(toEmail, subject, bodyText, csvBytes, attachmentFileName);
-            log.info("Report email sent successfully to {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send report email to {}: {}", toEmail, e.getMessage(), e);
-        }
-    }
-
 }
@@ -0,0 +1,48 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Records delivered messages in memory instead of sending them (app.outbox.sink=fake), so the whole
+ * state change -> outbox -> dispatcher path can be exercised without SMTP or Twilio.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "fake")
+public class FakeNotificationSink implements NotificationSink {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeNotificationSink.class);
+    private static final int MAX_RETAINED = 1000;
+
+    private final Deque<NotificationOutbox> delivered = new ArrayDeque<>();
+
+    @Override
+    public void deliver(NotificationOutbox message) {
+        log.info("[fake {}] to={} subject={} body={}", message.getChannel(), message.getRecipient(),
+                message.getSubject(), message.getBody());
+        synchronized (delivered) {
+            delivered.addLast(message);
+            if (delivered.size() > MAX_RETAINED) delivered.removeFirst();
+        }
+    }
+
+    /** Messages delivered so far, oldest first. */
+    public List<NotificationOutbox> getDelivered() {
+        synchronized (delivered) {
+            return List.copyOf(delivered);
+        }
+    }
+
+    public void clear() {
+        synchronized (delivered) {
+            delivered.clear();
+        }
+    }
+}
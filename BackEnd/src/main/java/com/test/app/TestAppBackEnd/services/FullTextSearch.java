@@ -0,0 +1,51 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.config.SchemaMigrationConfig.SchemaMigrations;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MySQL FULLTEXT search for the list endpoints' {@code search} parameter. Turns user input into a
+ * boolean-mode query where every word must match as a prefix, e.g. {@code "brake pad"} -> {@code "+brake* +pad*"},
+ * for the {@code search*} repository queries; their indexes come from migration V6.
+ * Returns null when disabled or no word is long enough to be indexed; callers then use the old LIKE queries.
+ */
+@Component
+public class FullTextSearch {
+
+    /** Matches InnoDB's default innodb_ft_min_token_size; shorter words are not in the index. */
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MAX_TOKENS = 8;
+
+    private final boolean ready;
+
+    /** Depends on {@link SchemaMigrations} so the FULLTEXT indexes exist before the first search. */
+    public FullTextSearch(SchemaMigrations migrations,
+                          @Value("${app.search.fulltext.enabled:true}") boolean enabled) {
+        this.ready = enabled;
+    }
+
+    /** Boolean-mode query for {@code MATCH ... AGAINST (:q IN BOOLEAN MODE)}, or null to fall back to LIKE. */
+    public String toBooleanQuery(String search) {
+        if (!ready || search == null) return null;
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : search.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}_]+")) {
+            if (word.length() >= MIN_TOKEN_LENGTH) tokens.add(word);
+            if (tokens.size() == MAX_TOKENS) break;
+        }
+        if (tokens.isEmpty()) return null;
+        List<String> terms = new ArrayList<>(tokens.size());
+        tokens.forEach(t -> terms.add("+" + t + "*"));
+        return String.join(" ", terms);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
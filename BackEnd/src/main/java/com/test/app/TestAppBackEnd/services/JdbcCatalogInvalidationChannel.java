@@ -0,0 +1,75 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.CatalogInvalidation;
+import com.test.app.TestAppBackEnd.repositories.CatalogInvalidationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Multi-node catalog invalidation through the shared database (app.catalog-cache.invalidation=jdbc): a write
+ * inserts a row, every node polls for rows from other nodes every sync-ms. Needs no broker; the price is up to
+ * sync-ms of staleness on the other nodes. If the insert fails they fall back to the cache TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog-cache.invalidation", havingValue = "jdbc")
+public class JdbcCatalogInvalidationChannel implements CatalogInvalidationChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcCatalogInvalidationChannel.class);
+    /** Re-read a little before the last poll so rows committed late on other nodes are not missed. */
+    private static final long SYNC_OVERLAP_MILLIS = 5_000;
+
+    private final CatalogInvalidationRepository repository;
+    private final long retentionMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Instant lastSync = Instant.now();
+
+    public JdbcCatalogInvalidationChannel(CatalogInvalidationRepository repository,
+                                          @Value("${app.catalog-cache.invalidation-retention-seconds:3600}") long retentionSeconds) {
+        this.repository = repository;
+        this.retentionMillis = Math.max(60, retentionSeconds) * 1000L;
+    }
+
+    @Override
+    public void publish(String providerType) {
+        try {
+            repository.save(new CatalogInvalidation(providerType, nodeId, Instant.now()));
+        } catch (Exception e) {
+            log.warn("Could not publish catalog invalidation for {}: {}", providerType, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog-cache.invalidation-sync-ms:5000}",
+            initialDelayString = "${app.catalog-cache.invalidation-sync-ms:5000}")
+    public void sync() {
+        try {
+            Instant now = Instant.now();
+            List<CatalogInvalidation> changes = repository.findByCreatedAtAfter(lastSync.minusMillis(SYNC_OVERLAP_MILLIS));
+            lastSync = now;
+            // Overlapping polls may deliver a row twice; invalidating again is harmless
+            changes.stream()
+                    .filter(c -> !nodeId.equals(c.getNodeId()))
+                    .map(CatalogInvalidation::getProviderType)
+                    .distinct()
+                    .forEach(type -> listeners.forEach(l -> l.accept(type)));
+            repository.deleteOlderThan(now.minusMillis(retentionMillis));
+        } catch (Exception e) {
+            log.warn("Catalog invalidation sync failed: {}", e.getMessage());
+        }
+    }
+}
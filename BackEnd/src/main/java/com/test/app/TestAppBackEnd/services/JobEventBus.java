@@ -0,0 +1,139 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus for mechanic job and car wash booking changes, fed by {@link MechanicRequestService} and
+ * {@link CarWashBookingService} after commit and consumed by {@link JobFeedService}. Events are numbered and the
+ * last {@code app.feed.replay-size} are kept for Last-Event-ID replay. Numbering starts at the startup time in
+ * millis, so an id from before a restart is older than the buffer and the client is told to reload instead of
+ * silently missing events. Only changes made on this node are published.
+ */
+@Component
+public class JobEventBus {
+
+    public static final String JOB_CREATED = "job-created";
+    public static final String JOB_ACCEPTED = "job-accepted";
+    public static final String STATUS_CHANGED = "status-changed";
+    public static final String JOB_REMOVED = "job-removed";
+
+    public enum Channel { MECHANIC, CARWASH }
+
+    /**
+     * One change. {@code job} is a JSON snapshot taken inside the writing transaction (null for removals);
+     * status and providerId are null after a removal.
+     */
+    public record JobEvent(long id, String type, Channel channel, String jobId,
+                           JobStatus previousStatus, String previousProviderId,
+                           JobStatus status, String providerId, JsonNode job) {}
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int replaySize;
+
+    private final Deque<JobEvent> recent = new ArrayDeque<>();
+    private final List<Consumer<JobEvent>> listeners = new CopyOnWriteArrayList<>();
+    private long nextId = System.currentTimeMillis();
+    private final AtomicLong published = new AtomicLong();
+
+    public JobEventBus(ObjectMapper objectMapper,
+                       @Value("${app.feed.enabled:true}") boolean enabled,
+                       @Value("${app.feed.replay-size:1000}") int replaySize) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.replaySize = Math.max(0, replaySize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Listeners run in publish order, under the bus lock: hand work off rather than doing I/O. */
+    public void addListener(Consumer<JobEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Publishes a created job (previousStatus null) or a status/provider change; nothing when neither changed.
+     * Taking a job that was open is reported as job-accepted.
+     */
+    public void jobChanged(Channel channel, String jobId, Object job, JobStatus previousStatus, String previousProviderId,
+                           JobStatus status, String providerId) {
+        if (!enabled || jobId == null) return;
+        String type;
+        if (previousStatus == null) {
+            type = JOB_CREATED;
+        } else if (previousStatus == status && Objects.equals(previousProviderId, providerId)) {
+            return;
+        } else if (providerId != null && status != null && status.isClaimed() && !providerId.equals(previousProviderId)) {
+            type = JOB_ACCEPTED;
+        } else {
+            type = STATUS_CHANGED;
+        }
+        publish(type, channel, jobId, previousStatus, previousProviderId, status, providerId, objectMapper.valueToTree(job));
+    }
+
+    public void jobRemoved(Channel channel, String jobId, JobStatus status, String providerId) {
+        if (!enabled || jobId == null) return;
+        publish(JOB_REMOVED, channel, jobId, status, providerId, null, null, null);
+    }
+
+    /** Events after lastEventId, oldest first; null if some of them are no longer buffered (or the id is unknown). */
+    public synchronized List<JobEvent> eventsAfter(long lastEventId) {
+        if (lastEventId >= nextId) return null;
+        if (lastEventId < nextId - 1 && (recent.isEmpty() || recent.peekFirst().id() > lastEventId + 1)) return null;
+        List<JobEvent> events = new ArrayList<>();
+        for (JobEvent event : recent) {
+            if (event.id() > lastEventId) events.add(event);
+        }
+        return events;
+    }
+
+    /** Id of the latest event, where a new connection starts. */
+    public synchronized long lastEventId() {
+        return nextId - 1;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("published", published.get());
+        synchronized (this) {
+            stats.put("buffered", recent.size());
+        }
+        stats.put("replaySize", replaySize);
+        return stats;
+    }
+
+    private void publish(String type, Channel channel, String jobId, JobStatus previousStatus, String previousProviderId,
+                         JobStatus status, String providerId, JsonNode job) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                JobEvent event = new JobEvent(nextId++, type, channel, jobId, previousStatus, previousProviderId,
+                        status, providerId, job);
+                recent.addLast(event);
+                while (recent.size() > replaySize) recent.removeFirst();
+                published.incrementAndGet();
+                for (Consumer<JobEvent> listener : listeners) {
+                    listener.accept(event);
+                }
+            }
+        });
+    }
+}
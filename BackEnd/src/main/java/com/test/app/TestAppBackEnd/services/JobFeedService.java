@@ -0,0 +1,270 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.config.AsyncConfig;
+import com.test.app.TestAppBackEnd.config.WorkloadExecutor;
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.UserProfile;
+import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed that replaces polling /available and the bookings list. A mechanic or car wash gets:
+ * open (pending, unassigned) jobs of their type they can accept; a short "no longer available" notice when an
+ * open job is taken, cancelled or removed; and every change to jobs they hold or held. Admins get every event of
+ * the channel they ask for. Events are written on the single-threaded feed executor, so each connection sees them
+ * in bus order; a reconnect with Last-Event-ID replays what was missed, or gets a {@code reset} event when the
+ * gap is no longer buffered and should reload its lists. Work is never run on the publishing thread: when the
+ * feed queue is full the event is dropped and the next feed task replays every connection from its lastSentId.
+ */
+@Service
+public class JobFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobFeedService.class);
+    public static final String CONNECTED = "connected";
+    public static final String RESET = "reset";
+
+    private enum Delivery { NONE, SUMMARY, FULL }
+
+    private static final class Subscriber {
+        final long id;
+        final SseEmitter emitter;
+        final JobEventBus.Channel channel;
+        /** Null for admins. */
+        final String providerId;
+        /** Only touched on the feed executor. */
+        long lastSentId;
+        /** Set once the connect/replay task has run; only touched on the feed executor. */
+        boolean started;
+
+        Subscriber(long id, SseEmitter emitter, JobEventBus.Channel channel, String providerId) {
+            this.id = id;
+            this.emitter = emitter;
+            this.channel = channel;
+            this.providerId = providerId;
+        }
+    }
+
+    private final JobEventBus bus;
+    private final MechanicDispatchEngine dispatchEngine;
+    private final UserProfileRepository userProfileRepository;
+    private final WorkloadExecutor executor;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong nextSubscriberId = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    /** Set when a feed task was rejected; the next task to run replays every connection before its own work. */
+    private final AtomicBoolean catchUpPending = new AtomicBoolean();
+
+    public JobFeedService(JobEventBus bus,
+                          MechanicDispatchEngine dispatchEngine,
+                          UserProfileRepository userProfileRepository,
+                          @Qualifier(AsyncConfig.FEED_EXECUTOR) WorkloadExecutor executor,
+                          @Value("${app.feed.timeout-ms:1800000}") long timeoutMillis,
+                          @Value("${app.feed.max-subscribers:2000}") int maxSubscribers) {
+        this.bus = bus;
+        this.dispatchEngine = dispatchEngine;
+        this.userProfileRepository = userProfileRepository;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        // Listeners run on the publishing thread under the bus lock: only ever queue from here
+        bus.addListener(event -> submit(() -> dispatch(event)));
+    }
+
+    /** Profile id of the provider with this username. */
+    public Optional<String> findProviderId(String username) {
+        if (username == null || username.isBlank()) return Optional.empty();
+        return userProfileRepository.findByUsername(username).map(UserProfile::getId);
+    }
+
+    /**
+     * Opens a feed connection; providerId null means every event of the channel (admins).
+     * @param lastEventId the client's Last-Event-ID, or null for a fresh connection
+     * @throws TaskRejectedException when the connection limit is reached (clients fall back to polling)
+     */
+    public SseEmitter subscribe(JobEventBus.Channel channel, String providerId, Long lastEventId) {
+        if (!bus.isEnabled()) {
+            throw new IllegalStateException("The job feed is disabled");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new TaskRejectedException("Too many job feed connections");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(nextSubscriberId.incrementAndGet(), emitter, channel, providerId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber.id));
+        emitter.onTimeout(() -> subscribers.remove(subscriber.id));
+        emitter.onError(e -> subscribers.remove(subscriber.id));
+        // Registered before the replay is read; events landing in both are skipped by lastSentId
+        subscribers.put(subscriber.id, subscriber);
+        try {
+            executor.execute(() -> start(subscriber, lastEventId));
+        } catch (RejectedExecutionException e) {
+            subscribers.remove(subscriber.id);
+            throw new TaskRejectedException("Job feed is busy", e);
+        }
+        return emitter;
+    }
+
+    /** Comment lines keep idle connections open through proxies and find dead ones. */
+    @Scheduled(fixedDelayString = "${app.feed.heartbeat-ms:25000}", initialDelayString = "${app.feed.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) return;
+        submit(() -> subscribers.values().forEach(s -> send(s, SseEmitter.event().comment("ping"))));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(bus.stats());
+        stats.put("subscribers", subscribers.size());
+        stats.put("mechanicSubscribers", subscribers.values().stream().filter(s -> s.channel == JobEventBus.Channel.MECHANIC).count());
+        stats.put("carWashSubscribers", subscribers.values().stream().filter(s -> s.channel == JobEventBus.Channel.CARWASH).count());
+        stats.put("delivered", delivered.get());
+        stats.put("replayed", replayed.get());
+        stats.put("resets", resets.get());
+        stats.put("sendFailures", sendFailures.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    /** Queues feed work; if the queue is full the work is dropped and the next task that runs catches up. */
+    private void submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                catchUp();
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            catchUpPending.set(true);
+        }
+    }
+
+    /** After dropped work: replays each connection from its lastSentId, or resets it when the gap is no longer buffered. */
+    private void catchUp() {
+        if (!catchUpPending.compareAndSet(true, false)) return;
+        for (Subscriber subscriber : subscribers.values()) {
+            // Not connected yet: its own connect/replay task is still queued
+            if (!subscriber.started) continue;
+            List<JobEventBus.JobEvent> missed = bus.eventsAfter(subscriber.lastSentId);
+            if (missed == null) {
+                reset(subscriber);
+                continue;
+            }
+            for (JobEventBus.JobEvent event : missed) {
+                if (deliver(subscriber, event)) replayed.incrementAndGet();
+            }
+        }
+    }
+
+    private void reset(Subscriber subscriber) {
+        resets.incrementAndGet();
+        subscriber.lastSentId = bus.lastEventId();
+        send(subscriber, SseEmitter.event().id(String.valueOf(subscriber.lastSentId)).name(RESET).data(""));
+    }
+
+    private void start(Subscriber subscriber, Long lastEventId) {
+        subscriber.started = true;
+        if (lastEventId == null) {
+            subscriber.lastSentId = bus.lastEventId();
+            send(subscriber, SseEmitter.event().id(String.valueOf(subscriber.lastSentId)).name(CONNECTED).data(""));
+            return;
+        }
+        List<JobEventBus.JobEvent> missed = bus.eventsAfter(lastEventId);
+        if (missed == null) {
+            reset(subscriber);
+            return;
+        }
+        subscriber.lastSentId = lastEventId;
+        for (JobEventBus.JobEvent event : missed) {
+            if (deliver(subscriber, event)) replayed.incrementAndGet();
+        }
+    }
+
+    private void dispatch(JobEventBus.JobEvent event) {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (deliver(subscriber, event)) delivered.incrementAndGet();
+        }
+    }
+
+    private boolean deliver(Subscriber subscriber, JobEventBus.JobEvent event) {
+        if (event.id() <= subscriber.lastSentId) return false;
+        subscriber.lastSentId = event.id();
+        Delivery delivery = delivery(subscriber, event);
+        if (delivery == Delivery.NONE) return false;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("jobId", event.jobId());
+        data.put("status", event.status());
+        data.put("previousStatus", event.previousStatus());
+        data.put("providerId", event.providerId());
+        if (delivery == Delivery.FULL) data.put("job", event.job());
+        return send(subscriber, SseEmitter.event().id(String.valueOf(event.id())).name(event.type())
+                .data(data, MediaType.APPLICATION_JSON));
+    }
+
+    private Delivery delivery(Subscriber subscriber, JobEventBus.JobEvent event) {
+        if (subscriber.channel != event.channel()) return Delivery.NONE;
+        String providerId = subscriber.providerId;
+        if (providerId == null || providerId.equals(event.providerId()) || providerId.equals(event.previousProviderId())) {
+            return Delivery.FULL;
+        }
+        if (isOpen(event.status(), event.providerId())) {
+            return isEligible(subscriber, event) ? Delivery.FULL : Delivery.NONE;
+        }
+        // Everyone who may list it learns it is gone; the job itself is only for the provider holding it
+        return isOpen(event.previousStatus(), event.previousProviderId()) ? Delivery.SUMMARY : Delivery.NONE;
+    }
+
+    /** Mechanics only see jobs they offer every service for (as /available); car washes see every open booking. */
+    private boolean isEligible(Subscriber subscriber, JobEventBus.JobEvent event) {
+        if (subscriber.channel != JobEventBus.Channel.MECHANIC || event.job() == null) return true;
+        try {
+            List<String> services = new ArrayList<>();
+            event.job().path("lineItems").forEach(line -> services.add(line.path("serviceName").asText(null)));
+            return dispatchEngine.canAccept(subscriber.providerId, event.job().path("carType").asText(null), services);
+        } catch (Exception e) {
+            log.debug("Eligibility check failed for mechanic {}: {}", subscriber.providerId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isOpen(JobStatus status, String providerId) {
+        return status == JobStatus.PENDING && providerId == null;
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container's completion callback may not have run yet
+            sendFailures.incrementAndGet();
+            subscribers.remove(subscriber.id);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
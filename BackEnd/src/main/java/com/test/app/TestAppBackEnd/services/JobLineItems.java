@@ -0,0 +1,136 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.JobLineItem;
+import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
+import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds and prices the line items of mechanic jobs and car wash bookings. Clients may send lines that reference
+ * catalog offerings (priced from them in one query) or, as older clients do, only service names: the mechanic job
+ * description or the booking's serviceTypes, split once here rather than on every accept.
+ */
+@Component
+public class JobLineItems {
+
+    /** Offering provider types a line may reference. */
+    public static final String MECHANIC = "mechanic";
+    public static final String CARWASH = "carwash";
+
+    private final ProviderServiceOfferingRepository offeringRepository;
+
+    public JobLineItems(ProviderServiceOfferingRepository offeringRepository) {
+        this.offeringRepository = offeringRepository;
+    }
+
+    /**
+     * The lines a client sent, each one with an offering id priced from that offering (one query for all of them);
+     * empty when none were sent. Duplicate services are dropped.
+     * @throws IllegalArgumentException if a line references an unknown offering or one of another provider type
+     */
+    public List<JobLineItem> resolve(String providerType, List<JobLineItem> requested) {
+        if (requested == null || requested.isEmpty()) return List.of();
+        Set<String> ids = requested.stream()
+                .filter(Objects::nonNull)
+                .map(JobLineItem::getOfferingId)
+                .filter(id -> id != null && !id.isBlank())
+                .collect(Collectors.toSet());
+        Map<String, ProviderServiceOffering> offerings = ids.isEmpty() ? Map.of()
+                : offeringRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(ProviderServiceOffering::getId, Function.identity()));
+        List<JobLineItem> lines = new ArrayList<>();
+        for (JobLineItem line : requested) {
+            if (line == null) continue;
+            if (line.getOfferingId() == null || line.getOfferingId().isBlank()) {
+                lines.add(JobLineItem.named(line.getServiceName()));
+                continue;
+            }
+            ProviderServiceOffering offering = offerings.get(line.getOfferingId());
+            if (offering == null || !providerType.equalsIgnoreCase(offering.getProviderType())) {
+                throw new IllegalArgumentException("Unknown " + providerType + " service offering: " + line.getOfferingId());
+            }
+            lines.add(new JobLineItem(offering.getServiceName(), offering.getId(), offering.getPrice()));
+        }
+        return distinct(lines);
+    }
+
+    /** One unpriced line per service name, for clients that send names only. */
+    public static List<JobLineItem> named(Collection<String> serviceNames) {
+        if (serviceNames == null) return List.of();
+        return distinct(serviceNames.stream().filter(Objects::nonNull).map(JobLineItem::named).toList());
+    }
+
+    /** Service names of the lines, in order. */
+    public static List<String> names(List<JobLineItem> lines) {
+        if (lines == null || lines.isEmpty()) return List.of();
+        return lines.stream().map(JobLineItem::getServiceName).toList();
+    }
+
+    /** Services of a mechanic job description: its comma-separated parts, matched exactly against offering names. */
+    public static List<String> parse(String description) {
+        if (description == null || description.isBlank()) return List.of();
+        return Arrays.stream(description.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isBlank())
+                .distinct()
+                .toList();
+    }
+
+    /** Sum of the line prices, or null unless every line is priced. */
+    public static Double total(List<JobLineItem> lines) {
+        if (lines == null || lines.isEmpty()) return null;
+        double total = 0;
+        for (JobLineItem line : lines) {
+            if (line.getPrice() == null) return null;
+            total += line.getPrice();
+        }
+        return total;
+    }
+
+    /**
+     * Replaces the job's lines in place (it may be a managed collection) when the services differ; lines of an
+     * unchanged service list keep their offering snapshots. Nothing is replaced by an empty list.
+     */
+    public static boolean replace(List<JobLineItem> current, List<JobLineItem> lines) {
+        if (lines == null || lines.isEmpty() || names(current).equals(names(lines))) return false;
+        current.clear();
+        current.addAll(lines);
+        return true;
+    }
+
+    /**
+     * Points each line at the accepting provider's offering for its service and snapshots that price. Lines with no
+     * matching offering are left as they are; accept has already checked that every service is offered.
+     */
+    public static void bind(List<JobLineItem> lines, Function<String, ProviderOfferingIndex.Offer> offerFor) {
+        for (int i = 0; i < lines.size(); i++) {
+            JobLineItem line = lines.get(i);
+            ProviderOfferingIndex.Offer offer = offerFor.apply(line.getServiceName());
+            if (offer == null) continue;
+            if (offer.offeringId().equals(line.getOfferingId()) && Objects.equals(offer.price(), line.getPrice())) continue;
+            lines.set(i, new JobLineItem(line.getServiceName(), offer.offeringId(), offer.price()));
+        }
+    }
+
+    private static List<JobLineItem> distinct(List<JobLineItem> lines) {
+        Set<String> seen = new HashSet<>();
+        List<JobLineItem> result = new ArrayList<>();
+        for (JobLineItem line : lines) {
+            String name = line.getServiceName() != null ? line.getServiceName().trim() : "";
+            if (name.isEmpty() || !seen.add(name)) continue;
+            result.add(new JobLineItem(name, line.getOfferingId(), line.getPrice()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "live", matchIfMissing = true)
+public class LiveNotificationSink implements NotificationSink {
+
+    private final EmailService emailService;
+    private final SmsService smsService;
+
+    public LiveNotificationSink(EmailService emailService, SmsService smsService) {
+        this.emailService = emailService;
+        this.smsService = smsService;
+    }
+
+    @Override
+    public void deliver(NotificationOutbox message) throws Exception {
+        switch (message.getChannel()) {
+            case NotificationOutbox.CHANNEL_EMAIL ->
+                    emailService.sendEmailNow(message.getRecipient(), message.getSubject(), message.getBody());
+            case NotificationOutbox.CHANNEL_SMS -> smsService.sendNow(message.getRecipient(), message.getBody());
+            default -> throw new IllegalArgumentException("Unsupported channel: " + message.getChannel());
+        }
+    }
+
+    /** Emails in the batch share one pooled SMTP session instead of a handshake each. */
+    @Override
+    public Map<String, Exception> deliverAll(List<NotificationOutbox> messages) {
+        if (messages.isEmpty() || !NotificationOutbox.CHANNEL_EMAIL.equals(messages.get(0).getChannel())) {
+            return NotificationSink.super.deliverAll(messages);
+        }
+        Map<String, Exception> failures = new HashMap<>();
+        List<NotificationOutbox> built = new ArrayList<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>();
+        for (NotificationOutbox message : messages) {
+            try {
+                mimeMessages.add(emailService.buildEmail(message.getRecipient(), message.getSubject(), message.getBody()));
+                built.add(message);
+            } catch (Exception e) {
+                failures.put(message.getId(), e);
+            }
+        }
+        List<SmtpConnectionPool.SendResult> results = emailService.sendAllNow(mimeMessages);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).error() != null) failures.put(built.get(i).getId(), results.get(i).error());
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,20 @@
+package com.test.app.TestAppBackEnd.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/** Single-node deployments (app.catalog-cache.invalidation=local): the writing node's cache is the only one. */
+@Component
+@ConditionalOnProperty(name = "app.catalog-cache.invalidation", havingValue = "local", matchIfMissing = true)
+public class LocalCatalogInvalidationChannel implements CatalogInvalidationChannel {
+
+    @Override
+    public void publish(String providerType) {
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.MechanicRequest;
+import com.test.app.TestAppBackEnd.repositories.MechanicRequestRepository;
+import com.test.app.TestAppBackEnd.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches pending, unassigned mechanic jobs to the mechanics who can accept them. Pending jobs are indexed in
+ * memory by requested service name and car brand; a mechanic's offerings come from {@link ProviderOfferingIndex}.
+ * {@link MechanicRequestService} feeds it on create/accept/complete/update/delete (applied after
+ * commit) and a periodic reload picks up changes from other nodes. The database stays authoritative: listed jobs
+ * are re-read and accept re-checks status, so a stale entry costs at most one filtered row.
+ */
+@Component
+public class MechanicDispatchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(MechanicDispatchEngine.class);
+    /** Brand key for offerings without a car brand and jobs without a car type: matches any. */
+    private static final String ANY_BRAND = ProviderOfferingIndex.ANY;
+    private static final Comparator<PendingJob> NEWEST_FIRST = Comparator
+            .comparing(PendingJob::date, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PendingJob::id, Comparator.reverseOrder());
+
+    /** What the engine keeps of a pending job. */
+    public record PendingJob(String id, LocalDate date, List<String> services, String carBrand) {}
+
+    /** Job index; replaced wholesale on reload, mutated in place (under the engine lock) otherwise. */
+    private static final class State {
+        final Map<String, PendingJob> jobs = new ConcurrentHashMap<>();
+        /** service name -> car brand -> job ids */
+        final Map<String, Map<String, Set<String>>> byServiceAndBrand = new ConcurrentHashMap<>();
+        /** Jobs that name no service; every mechanic can take them. */
+        final Set<String> unrestricted = ConcurrentHashMap.newKeySet();
+    }
+
+    private final MechanicRequestRepository requestRepository;
+    private final ProviderOfferingIndex offeringIndex;
+    private final boolean enabled;
+
+    private volatile State state = new State();
+    private volatile boolean ready = false;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong candidatesChecked = new AtomicLong();
+
+    public MechanicDispatchEngine(MechanicRequestRepository requestRepository,
+                                  ProviderOfferingIndex offeringIndex,
+                                  @Value("${app.dispatch.enabled:true}") boolean enabled) {
+        this.requestRepository = requestRepository;
+        this.offeringIndex = offeringIndex;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Rebuilds from the database. Holds the engine lock across the read, as {@link OfferingGeoIndex#reload()}
+     * does: track/untrack deltas committed meanwhile wait and then apply to the fresh state instead of being lost.
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.reload-ms:60000}", initialDelayString = "${app.dispatch.reload-ms:60000}")
+    public void reload() {
+        if (!enabled) return;
+        try {
+            synchronized (this) {
+                State fresh = new State();
+                for (MechanicRequest request : requestRepository.findByStatusAndMechanicIdIsNull(JobStatus.PENDING)) {
+                    index(fresh, toPendingJob(request));
+                }
+                state = fresh;
+                if (!ready) log.info("Dispatch engine loaded {} pending job(s)", fresh.jobs.size());
+                ready = true;
+            }
+        } catch (Exception e) {
+            log.warn("Dispatch engine reload failed, keeping previous state: {}", e.getMessage());
+        }
+    }
+
+    /** Indexes the job if it is pending and unassigned, otherwise drops it. Applied after the current transaction commits. */
+    public void track(MechanicRequest request) {
+        if (!enabled || request == null || request.getId() == null) return;
+        boolean open = request.getStatus() == JobStatus.PENDING && request.getMechanicId() == null;
+        PendingJob job = open ? toPendingJob(request) : null;
+        String id = request.getId();
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                unindex(state, id);
+                if (job != null) index(state, job);
+            }
+        });
+    }
+
+    public void untrack(String requestId) {
+        if (!enabled || requestId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                unindex(state, requestId);
+            }
+        });
+    }
+
+    /**
+     * Pending jobs this mechanic can accept, newest first, strictly after the (date, id) cursor when given;
+     * at most {@code max} entries.
+     */
+    public List<PendingJob> eligibleJobs(String mechanicId, LocalDate afterDate, String afterId, int max) {
+        lookups.incrementAndGet();
+        State current = state;
+        ProviderOfferingIndex.Offered offered = offeringIndex.get(mechanicId);
+        Set<String> candidates = new HashSet<>(current.unrestricted);
+        for (Map.Entry<String, Map<String, ProviderOfferingIndex.Offer>> forBrand : offered.byBrand().entrySet()) {
+            String brand = forBrand.getKey();
+            for (String service : forBrand.getValue().keySet()) {
+                Map<String, Set<String>> byBrand = current.byServiceAndBrand.get(service);
+                if (byBrand == null) continue;
+                if (brand.equals(ANY_BRAND)) {
+                    byBrand.values().forEach(candidates::addAll);
+                } else {
+                    candidates.addAll(byBrand.getOrDefault(brand, Set.of()));
+                    candidates.addAll(byBrand.getOrDefault(ANY_BRAND, Set.of()));
+                }
+            }
+        }
+        candidatesChecked.addAndGet(candidates.size());
+        return candidates.stream()
+                .map(current.jobs::get)
+                .filter(job -> job != null && isAfter(job, afterDate, afterId))
+                .filter(job -> offered.firstUnofferedForBrand(job.carBrand(), job.services()) == null)
+                .sorted(NEWEST_FIRST)
+                .limit(max)
+                .toList();
+    }
+
+    /** Whether the mechanic offers every service for the car brand, from memory only (accept re-checks). */
+    public boolean canAccept(String mechanicId, String carType, List<String> services) {
+        return offeringIndex.get(mechanicId).firstUnofferedForBrand(carType, services) == null;
+    }
+
+    public Map<String, Object> stats() {
+        State current = state;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("pendingJobs", current.jobs.size());
+        stats.put("indexedServices", current.byServiceAndBrand.size());
+        stats.put("lookups", lookups.get());
+        stats.put("candidatesChecked", candidatesChecked.get());
+        return stats;
+    }
+
+    private static PendingJob toPendingJob(MechanicRequest request) {
+        return new PendingJob(request.getId(), request.getDate(), JobLineItems.names(request.getLineItems()),
+                ProviderOfferingIndex.key(request.getCarType()));
+    }
+
+    private static boolean isAfter(PendingJob job, LocalDate afterDate, String afterId) {
+        if (afterDate == null || afterId == null) return true;
+        if (job.date() == null) return false;
+        int cmp = job.date().compareTo(afterDate);
+        return cmp < 0 || (cmp == 0 && job.id().compareTo(afterId) < 0);
+    }
+
+    private static void index(State target, PendingJob job) {
+        target.jobs.put(job.id(), job);
+        if (job.services().isEmpty()) {
+            target.unrestricted.add(job.id());
+            return;
+        }
+        for (String service : job.services()) {
+            target.byServiceAndBrand
+                    .computeIfAbsent(service, s -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(job.carBrand(), b -> ConcurrentHashMap.newKeySet())
+                    .add(job.id());
+        }
+    }
+
+    private static void unindex(State target, String id) {
+        PendingJob job = target.jobs.remove(id);
+        if (job == null) return;
+        target.unrestricted.remove(id);
+        for (String service : job.services()) {
+            Map<String, Set<String>> byBrand = target.byServiceAndBrand.get(service);
+            if (byBrand == null) continue;
+            Set<String> ids = byBrand.get(job.carBrand());
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) byBrand.remove(job.carBrand());
+            }
+            if (byBrand.isEmpty()) target.byServiceAndBrand.remove(service);
+        }
+    }
+}
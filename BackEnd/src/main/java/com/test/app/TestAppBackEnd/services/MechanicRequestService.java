@@ -1,22 +1,28 @@
 package com.test.app.TestAppBackEnd.services;
 
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.JobLineItem;
 import com.test.app.TestAppBackEnd.entities.MechanicRequest;
-import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
+import com.test.app.TestAppBackEnd.models.CursorPage;
 import com.test.app.TestAppBackEnd.repositories.MechanicRequestRepository;
-import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.config.FrontendUrlResolver;
 import com.test.app.TestAppBackEnd.util.DescriptionUtils;
+import com.test.app.TestAppBackEnd.util.PageCursor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,23 +30,51 @@ public class MechanicRequestService {
 
     private final MechanicRequestRepository repository;
     private final UserProfileRepository userProfileRepository;
-    private final EmailService emailService;
+    private final NotificationOutboxService outbox;
     private final ClientNotificationService notificationService;
-    private final ProviderServiceOfferingRepository providerServiceOfferingRepository;
+    private final MechanicDispatchEngine dispatchEngine;
+    private final ProviderOfferingIndex offeringIndex;
+    private final JobLineItems jobLineItems;
+    private final ProviderCapacity capacity;
     private final FrontendUrlResolver frontendUrlResolver;
+    private final FullTextSearch fullTextSearch;
+    private final JobEventBus eventBus;
+    private final ResourceVersions versions;
 
     public MechanicRequestService(MechanicRequestRepository repository,
                                  UserProfileRepository userProfileRepository,
-                                 EmailService emailService,
+                                 NotificationOutboxService outbox,
                                  ClientNotificationService notificationService,
-                                 ProviderServiceOfferingRepository providerServiceOfferingRepository,
-                                 FrontendUrlResolver frontendUrlResolver) {
+                                 MechanicDispatchEngine dispatchEngine,
+                                 ProviderOfferingIndex offeringIndex,
+                                 JobLineItems jobLineItems,
+                                 ProviderCapacity capacity,
+                                 FrontendUrlResolver frontendUrlResolver,
+                                 FullTextSearch fullTextSearch,
+                                 JobEventBus eventBus,
+                                 ResourceVersions versions) {
         this.repository = repository;
         this.userProfileRepository = userProfileRepository;
-        this.emailService = emailService;
+        this.outbox = outbox;
         this.notificationService = notificationService;
-        this.providerServiceOfferingRepository = providerServiceOfferingRepository;
+        this.dispatchEngine = dispatchEngine;
+        this.offeringIndex = offeringIndex;
+        this.jobLineItems = jobLineItems;
+        this.capacity = capacity;
         this.frontendUrlResolver = frontendUrlResolver;
+        this.fullTextSearch = fullTextSearch;
+        this.eventBus = eventBus;
+        this.versions = versions;
+    }
+
+    /** ETag scopes a write to this job changes: the job, every list and the client's and mechanics' lists. */
+    private void bumpVersions(MechanicRequest request, String previousUsername, String previousMechanicId) {
+        versions.bump(ResourceVersions.MECHANIC_JOBS,
+                ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "id", request.getId()),
+                ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "client", request.getUsername()),
+                ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "client", previousUsername),
+                ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "mechanic", request.getMechanicId()),
+                ResourceVersions.scope(ResourceVersions.MECHANIC_JOBS, "mechanic", previousMechanicId));
     }
 
     private void enrichWithPhoneNumber(MechanicRequest request) {
@@ -60,10 +94,10 @@ public class MechanicRequestService {
                 .filter(u -> u != null && !u.isBlank())
                 .collect(Collectors.toSet());
         if (usernames.isEmpty()) return requests;
-        List<UserProfile> profiles = userProfileRepository.findByUsernameIn(usernames);
-        Map<String, String> usernameToPhone = profiles.stream()
+        Map<String, String> usernameToPhone = userProfileRepository.findPhoneNumbersByUsernameIn(usernames).stream()
                 .filter(p -> p.getPhoneNumber() != null && !p.getPhoneNumber().isBlank())
-                .collect(Collectors.toMap(UserProfile::getUsername, UserProfile::getPhoneNumber, (a, b) -> a));
+                .collect(Collectors.toMap(UserProfileRepository.PhoneNumberRow::getUsername,
+                        UserProfileRepository.PhoneNumberRow::getPhoneNumber, (a, b) -> a));
         for (MechanicRequest r : requests) {
             if (r.getUsername() != null) {
                 String phone = usernameToPhone.get(r.getUsername());
@@ -84,24 +118,39 @@ public class MechanicRequestService {
 
     // ================= CREATE =================
     public MechanicRequest create(MechanicRequest request) {
-        request.setDescription(DescriptionUtils.ensureDescription(request.getDescription(), "mechanic service"));
-        return repository.save(request);
+        List<JobLineItem> lines = jobLineItems.resolve(JobLineItems.MECHANIC, request.getLineItems());
+        String listed = String.join(", ", JobLineItems.names(lines));
+        request.setDescription(DescriptionUtils.ensureDescription(request.getDescription(), listed.isEmpty() ? "mechanic service" : listed));
+        // Older clients list the services in the description only
+        if (lines.isEmpty()) lines = JobLineItems.named(JobLineItems.parse(request.getDescription()));
+        request.setLineItems(new ArrayList<>(lines));
+        if (request.getServicePrice() == null) request.setServicePrice(JobLineItems.total(lines));
+        MechanicRequest saved = repository.save(request);
+        dispatchEngine.track(saved);
+        eventBus.jobChanged(JobEventBus.Channel.MECHANIC, saved.getId(), saved, null, null, saved.getStatus(), saved.getMechanicId());
+        bumpVersions(saved, null, null);
+        return saved;
     }
 
-    /** Default max rows for list endpoints so tables load quickly. */
-    private static final int DEFAULT_PAGE_SIZE = 50;
-
     // ================= READ =================
-    public List<MechanicRequest> getAll() {
-        List<MechanicRequest> all = repository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
-        return enrichWithPhoneNumbers(all);
-    }
-
-    public List<MechanicRequest> getAll(String search) {
-        List<MechanicRequest> list = (search != null && !search.isBlank())
-                ? repository.findAllWithSearch(search.trim(), PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent()
-                : repository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
-        return enrichWithPhoneNumbers(list);
+    /**
+     * List endpoints are keyset-paginated on (date, id), newest first: pass the previous page's nextCursor
+     * to continue. With a search, one page of the best matches is returned and there is no next cursor.
+     * Job tables show every column and the services, so lists stay entities, loaded read-only: no snapshots
+     * kept for dirty checking and nothing flushed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MechanicRequest> getAll(String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return searchPage((q != null
+                    ? repository.searchAll(q, top)
+                    : repository.findAllWithSearch(search.trim(), JobStatus.matching(search), top)).getContent());
+        }
+        PageCursor.Key<LocalDate> after = afterCursor(cursor);
+        return page(repository.findPage(afterDate(after), afterId(after), PageCursor.probe(size)), size);
     }
 
     public Optional<MechanicRequest> getById(String id) {
@@ -111,26 +160,54 @@ public class MechanicRequestService {
         });
     }
 
-    public List<MechanicRequest> getByUsername(String username) {
-        return enrichWithPhoneNumbers(repository.findByUsername(username));
+    @Transactional(readOnly = true)
+    public CursorPage<MechanicRequest> getByUsername(String username, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return searchPage(q != null
+                    ? repository.searchByUsername(username, q, top)
+                    : repository.findByUsernameWithSearch(username, search.trim(), JobStatus.matching(search), top));
+        }
+        PageCursor.Key<LocalDate> after = afterCursor(cursor);
+        return page(repository.findPageByUsername(username, afterDate(after), afterId(after), PageCursor.probe(size)), size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<MechanicRequest> getByMechanicId(String mechanicId, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return searchPage(q != null
+                    ? repository.searchByMechanicId(mechanicId, q, top)
+                    : repository.findByMechanicIdWithSearch(mechanicId, search.trim(), JobStatus.matching(search), top));
+        }
+        PageCursor.Key<LocalDate> after = afterCursor(cursor);
+        return page(repository.findPageByMechanicId(mechanicId, afterDate(after), afterId(after), PageCursor.probe(size)), size);
+    }
+
+    private CursorPage<MechanicRequest> page(List<MechanicRequest> rows, int size) {
+        CursorPage<MechanicRequest> page = CursorPage.of(rows, size, r -> PageCursor.after(r.getDate(), r.getId()));
+        enrichWithPhoneNumbers(page.getItems());
+        return page;
+    }
+
+    private CursorPage<MechanicRequest> searchPage(List<MechanicRequest> rows) {
+        return CursorPage.single(enrichWithPhoneNumbers(rows));
     }
 
-    public List<MechanicRequest> getByUsername(String username, String search) {
-        List<MechanicRequest> list = (search != null && !search.isBlank())
-                ? repository.findByUsernameWithSearch(username, search.trim())
-                : repository.findByUsername(username);
-        return enrichWithPhoneNumbers(list);
+    private static PageCursor.Key<LocalDate> afterCursor(String cursor) {
+        return PageCursor.decodeKey(cursor, LocalDate::parse);
     }
 
-    public List<MechanicRequest> getByMechanicId(String mechanicId) {
-        return enrichWithPhoneNumbers(repository.findByMechanicId(mechanicId));
+    private static LocalDate afterDate(PageCursor.Key<LocalDate> after) {
+        return after != null ? after.sortKey() : null;
     }
 
-    public List<MechanicRequest> getByMechanicId(String mechanicId, String search) {
-        List<MechanicRequest> list = (search != null && !search.isBlank())
-                ? repository.findByMechanicIdWithSearch(mechanicId, search.trim())
-                : repository.findByMechanicId(mechanicId);
-        return enrichWithPhoneNumbers(list);
+    private static String afterId(PageCursor.Key<LocalDate> after) {
+        return after != null ? after.id() : null;
     }
 
     public List<MechanicRequest> getByUsernameAndDateRange(String username, LocalDate startDate, LocalDate endDate) {
@@ -143,56 +220,75 @@ public class MechanicRequestService {
 
     /** Completed jobs only for a mechanic within date range */
     public List<MechanicRequest> getCompletedJobsByMechanicIdAndDateRange(String mechanicId, LocalDate startDate, LocalDate endDate) {
-        return enrichWithPhoneNumbers(repository.findByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(mechanicId, "completed", startDate, endDate));
+        return enrichWithPhoneNumbers(repository.findByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(mechanicId, JobStatus.COMPLETED, startDate, endDate));
     }
 
     // ================= SPECIAL QUERIES =================
-    public List<MechanicRequest> getAvailableJobsForMechanics() {
-        return enrichWithPhoneNumbers(repository.findByStatusAndMechanicIdIsNull("pending"));
-    }
-
     /**
-     * Ensures the mechanic offers all requested services (parsed from description) for the given car brand.
-     * @throws IllegalStateException if any requested service is not offered by the mechanic for that car
+     * Pending, unassigned jobs. With a mechanicId only the jobs that mechanic can accept (they offer every
+     * requested service for the car), served from the dispatch engine's index once it has loaded.
      */
-    private void validateRequestServicesOfferedByMechanic(String mechanicId, String carType, String description) {
-        if (description == null || description.isBlank()) return;
-        List<String> requestedServices = Arrays.stream(description.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isBlank())
-                .toList();
-        if (requestedServices.isEmpty()) return;
-        List<ProviderServiceOffering> offerings = providerServiceOfferingRepository.findByProviderId(mechanicId);
-        List<ProviderServiceOffering> forCar = offerings.stream()
-                .filter(o -> offeringMatchesCarBrand(o.getCarBrand(), carType))
-                .toList();
-        Set<String> offeredNames = forCar.stream()
-                .map(ProviderServiceOffering::getServiceName)
-                .filter(n -> n != null && !n.isBlank())
-                .collect(Collectors.toSet());
-        for (String requested : requestedServices) {
-            if (!offeredNames.contains(requested)) {
-                throw new IllegalStateException(
-                        "Cannot accept this job: you do not offer the service \"" + requested + "\" for this car brand. Only accept jobs for services you offer.");
+    @Transactional(readOnly = true)
+    public CursorPage<MechanicRequest> getAvailableJobsForMechanics(String mechanicId, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        PageCursor.Key<LocalDate> after = afterCursor(cursor);
+        if (mechanicId == null || !dispatchEngine.isReady()) {
+            return page(repository.findPageByStatusAndMechanicIdIsNull(JobStatus.PENDING, afterDate(after), afterId(after),
+                    PageCursor.probe(size)), size);
+        }
+        // The index may briefly lag other nodes: drop jobs that are no longer open and keep scanning past them
+        // until size + 1 open jobs are found (or the index runs out), so a short page is always the last one
+        List<MechanicRequest> rows = new ArrayList<>();
+        LocalDate scanDate = afterDate(after);
+        String scanId = afterId(after);
+        while (rows.size() <= size) {
+            int wanted = size + 1 - rows.size();
+            List<MechanicDispatchEngine.PendingJob> jobs = dispatchEngine.eligibleJobs(mechanicId, scanDate, scanId, wanted);
+            if (jobs.isEmpty()) break;
+            Map<String, MechanicRequest> byId = repository.findAllById(jobs.stream().map(MechanicDispatchEngine.PendingJob::id).toList())
+                    .stream().collect(Collectors.toMap(MechanicRequest::getId, Function.identity()));
+            for (MechanicDispatchEngine.PendingJob job : jobs) {
+                MechanicRequest request = byId.get(job.id());
+                if (request != null && request.getStatus() == JobStatus.PENDING && request.getMechanicId() == null) {
+                    rows.add(request);
+                } else {
+                    dispatchEngine.untrack(job.id());
+                }
             }
+            MechanicDispatchEngine.PendingJob last = jobs.get(jobs.size() - 1);
+            scanDate = last.date();
+            scanId = last.id();
+            if (jobs.size() < wanted) break;
         }
+        return page(rows, size);
     }
 
-    private boolean offeringMatchesCarBrand(String offeringCarBrand, String requestCarType) {
-        if (requestCarType == null || requestCarType.isBlank()) return true;
-        if (offeringCarBrand == null || offeringCarBrand.isBlank()) return true;
-        return offeringCarBrand.trim().equalsIgnoreCase(requestCarType.trim());
+    /** Profile id of the mechanic with this username, used to personalise the available jobs list. */
+    public Optional<String> findMechanicProfileId(String username) {
+        if (username == null || username.isBlank()) return Optional.empty();
+        return userProfileRepository.findByUsername(username).map(UserProfile::getId);
     }
 
-    /** Max concurrent paid/in-progress jobs = provider's numberOfEmployees (default 1 if not set). */
-    private int getMaxPaidJobsForMechanic(String mechanicProfileId) {
-        return userProfileRepository.findById(mechanicProfileId)
-                .map(UserProfile::getNumberOfEmployees)
-                .filter(n -> n != null && n >= 1)
-                .map(Long::intValue)
-                .orElse(1);
+    /**
+     * Ensures the mechanic offers all requested services (the job's line items) for the given car brand, from the
+     * offering index; a miss is confirmed against the DB.
+     * @throws IllegalStateException if any requested service is not offered by the mechanic for that car
+     */
+    private void validateRequestServicesOfferedByMechanic(String mechanicId, String carType, List<String> services) {
+        String missing = offeringIndex.firstUnofferedForBrand(mechanicId, carType, services);
+        if (missing != null) {
+            throw new IllegalStateException(
+                    "Cannot accept this job: you do not offer the service \"" + missing + "\" for this car brand. Only accept jobs for services you offer.");
+        }
+    }
+
+    /** Points the job's lines at the assigned mechanic's offerings and snapshots their prices. */
+    private void priceLines(MechanicRequest request) {
+        ProviderOfferingIndex.Offered offered = offeringIndex.get(request.getMechanicId());
+        JobLineItems.bind(request.getLineItems(), service -> offered.offerForBrand(request.getCarType(), service));
     }
 
+    @Transactional
     public Optional<MechanicRequest> acceptJob(String requestId, String mechanicId) {
         Optional<MechanicRequest> opt = repository.findById(requestId);
         if (opt.isEmpty()) return Optional.empty();
@@ -200,22 +296,30 @@ public class MechanicRequestService {
         if (req.getMechanicId() != null) {
             throw new IllegalStateException("Job is already assigned to another mechanic");
         }
-        if (!"pending".equals(req.getStatus())) {
+        if (req.getStatus() != JobStatus.PENDING) {
             throw new IllegalStateException("Only pending jobs can be accepted");
         }
-        int maxAllowed = getMaxPaidJobsForMechanic(mechanicId);
-        long paidIncompleteCount = repository.countPaidIncompleteByMechanicId(mechanicId);
-        if (paidIncompleteCount >= maxAllowed) {
+        // Max concurrent paid/in-progress jobs = provider's numberOfEmployees (default 1 if not set)
+        if (!capacity.hasRoom(ProviderCapacity.Kind.MECHANIC, mechanicId)) {
             throw new IllegalStateException("You cannot accept more jobs, Complete some before accepting new ones.");
         }
-        validateRequestServicesOfferedByMechanic(mechanicId, req.getCarType(), req.getDescription());
-        req.setMechanicId(mechanicId);
-        req.setStatus("assigned");
-        MechanicRequest saved = repository.save(req);
-        notifyClientRequestAccepted(saved);
+        validateRequestServicesOfferedByMechanic(mechanicId, req.getCarType(), JobLineItems.names(req.getLineItems()));
+        Long fromVersion = req.getVersion();
+        // The checks above are a fast path; the conditional UPDATE decides who wins a concurrent accept and
+        // re-checks capacity against the database
+        if (repository.claim(requestId, mechanicId) != 1) {
+            throw claimRejected(requestId);
+        }
+        MechanicRequest saved = repository.findById(requestId).orElseThrow();
+        priceLines(saved);
+        dispatchEngine.untrack(saved.getId());
+        eventBus.jobChanged(JobEventBus.Channel.MECHANIC, saved.getId(), saved, JobStatus.PENDING, null, saved.getStatus(), mechanicId);
+        bumpVersions(saved, null, null);
+        notifyClientRequestAccepted(saved, fromVersion);
         return Optional.of(saved);
     }
 
+    @Transactional
     public Optional<MechanicRequest> completeJob(String requestId, String mechanicId, String loggedInUsername) {
         Optional<MechanicRequest> opt = repository.findById(requestId);
         if (opt.isEmpty()) return Optional.empty();
@@ -223,27 +327,52 @@ public class MechanicRequestService {
         if (!mechanicId.equals(req.getMechanicId())) {
             throw new IllegalStateException("Only the assigned mechanic can complete this job");
         }
-        req.setStatus("completed");
+        if (!req.getStatus().canMoveTo(JobStatus.COMPLETED)) {
+            throw new IllegalStateException("Only paid jobs can be completed");
+        }
+        JobStatus previousStatus = req.getStatus();
+        Long fromVersion = req.getVersion();
+        req.setStatus(JobStatus.COMPLETED);
         MechanicRequest saved = repository.save(req);
-        notifyClientServiceCompleted(saved, loggedInUsername);
+        capacity.transition(ProviderCapacity.Kind.MECHANIC, mechanicId, previousStatus, mechanicId, JobStatus.COMPLETED);
+        dispatchEngine.untrack(saved.getId());
+        eventBus.jobChanged(JobEventBus.Channel.MECHANIC, saved.getId(), saved, previousStatus, mechanicId, JobStatus.COMPLETED, mechanicId);
+        bumpVersions(saved, null, null);
+        notifyClientServiceCompleted(saved, fromVersion, loggedInUsername);
         return Optional.of(saved);
     }
 
+    /** Why a claim updated no row: the job was taken (or left pending) meanwhile, or the mechanic is at capacity. */
+    private IllegalStateException claimRejected(String requestId) {
+        boolean stillOpen = repository.findById(requestId)
+                .map(r -> r.getStatus() == JobStatus.PENDING && r.getMechanicId() == null)
+                .orElse(false);
+        return new IllegalStateException(stillOpen
+                ? "You cannot accept more jobs, Complete some before accepting new ones."
+                : "Job is already assigned to another mechanic");
+    }
+
     private String toJobDescription(MechanicRequest request) {
         return DescriptionUtils.ensureDescription(request.getDescription(), "mechanic service");
     }
 
-    private void notifyClientRequestAccepted(MechanicRequest request) {
-        notificationService.notifyRequestAccepted(
+    /** Outbox dedup key of a job event; fromVersion (the job's version before the change) makes each change unique. */
+    private static String eventKey(MechanicRequest request, Long fromVersion, String event) {
+        return "mechanic-request:" + request.getId() + ":v" + fromVersion + ":" + event;
+    }
+
+    private void notifyClientRequestAccepted(MechanicRequest request, Long fromVersion) {
+        notificationService.notifyRequestAccepted(eventKey(request, fromVersion, "accepted:" + request.getMechanicId()),
                 request.getUsername(), frontendUrlResolver.getFrontendBaseUrl() + "/history", "Mechanic Request", toJobDescription(request));
     }
 
-    private void notifyClientServiceCompleted(MechanicRequest request, String loggedInUsername) {
-        notificationService.notifyServiceCompleted(
+    private void notifyClientServiceCompleted(MechanicRequest request, Long fromVersion, String loggedInUsername) {
+        notificationService.notifyServiceCompleted(eventKey(request, fromVersion, "completed"),
                 request.getUsername(), loggedInUsername, "mechanic service", toJobDescription(request));
     }
 
     // ================= UPDATE =================
+    @Transactional
     public Optional<MechanicRequest> update(MechanicRequest updated, String loggedInUsername) {
         if (updated == null || updated.getId() == null) {
             throw new IllegalArgumentException("Job id is required for update");
@@ -252,41 +381,69 @@ public class MechanicRequestService {
         if (requests.isEmpty()) return Optional.empty();
 
         MechanicRequest existing = requests.get();
-
+        // No status in the body keeps the current one
+        JobStatus newStatus = updated.getStatus() != null ? updated.getStatus() : existing.getStatus();
+        JobStatus.checkTransition(existing.getStatus(), newStatus);
+
+        String newMechanicId = updated.getMechanicId() != null && !updated.getMechanicId().isBlank()
+                ? updated.getMechanicId() : null;
+        boolean assigning = newMechanicId != null && !newMechanicId.equals(existing.getMechanicId());
+        if (assigning && existing.getMechanicId() != null) {
+            throw new IllegalStateException("Job is already assigned to another mechanic");
+        }
         // Enforce max paid/in-progress jobs (by numberOfEmployees) when mechanic is being assigned (via update)
-        String newMechanicId = updated.getMechanicId();
-        if (newMechanicId != null && !newMechanicId.isBlank()
-                && ("assigned".equalsIgnoreCase(updated.getStatus()) || "accepted".equalsIgnoreCase(updated.getStatus()))
-                && (existing.getMechanicId() == null || existing.getMechanicId().isBlank())) {
-            int maxAllowed = getMaxPaidJobsForMechanic(newMechanicId);
-            long paidIncompleteCount = repository.countPaidIncompleteByMechanicId(newMechanicId);
-            if (paidIncompleteCount >= maxAllowed) {
-                throw new IllegalStateException("Cannot assign, Complete some before accepting new ones.");
+        if (assigning && !capacity.hasRoom(ProviderCapacity.Kind.MECHANIC, newMechanicId)) {
+            throw new IllegalStateException("Cannot assign, Complete some before accepting new ones.");
+        }
+
+        String previousMechanicId = existing.getMechanicId();
+        String previousUsername = existing.getUsername();
+        JobStatus previousStatus = existing.getStatus();
+        Long fromVersion = existing.getVersion();
+
+        // Taking the job goes through the same conditional UPDATE as acceptJob, so two mechanics accepting through
+        // this endpoint at once cannot both win
+        if (assigning) {
+            if (repository.claim(existing.getId(), newMechanicId, JobStatus.PENDING, newStatus) != 1) {
+                throw claimRejected(existing.getId());
             }
+            existing = repository.findById(existing.getId()).orElseThrow();
         }
 
         // Update all fields (coords not persisted; location string is used). Description never empty or "-".
         existing.setDescription(DescriptionUtils.ensureDescription(updated.getDescription(), existing.getDescription() != null ? existing.getDescription() : "mechanic service"));
         existing.setLocation(updated.getLocation());
         existing.setDate(updated.getDate());
-        existing.setStatus(updated.getStatus());
+        existing.setStatus(newStatus);
         existing.setUsername(updated.getUsername());
-        existing.setMechanicId(updated.getMechanicId());
-         if (updated.getServicePrice() != null) existing.setServicePrice(updated.getServicePrice());
+        existing.setMechanicId(newMechanicId);
+        if (updated.getServicePrice() != null) existing.setServicePrice(updated.getServicePrice());
+        List<JobLineItem> lines = jobLineItems.resolve(JobLineItems.MECHANIC, updated.getLineItems());
+        JobLineItems.replace(existing.getLineItems(),
+                lines.isEmpty() ? JobLineItems.named(JobLineItems.parse(existing.getDescription())) : lines);
+        if (existing.getMechanicId() != null && !existing.getMechanicId().equals(previousMechanicId)) {
+            priceLines(existing);
+        }
 
         MechanicRequest saved = repository.save(existing);
-
-        // Send actionable notifications when status changes
-
-            String newStatus = existing.getStatus();
-            if ("accepted".equalsIgnoreCase(newStatus) || "assigned".equalsIgnoreCase(newStatus)) {
+        dispatchEngine.track(saved);
+        capacity.transition(ProviderCapacity.Kind.MECHANIC, previousMechanicId, previousStatus,
+                saved.getMechanicId(), saved.getStatus());
+        eventBus.jobChanged(JobEventBus.Channel.MECHANIC, saved.getId(), saved, previousStatus, previousMechanicId,
+                saved.getStatus(), saved.getMechanicId());
+        bumpVersions(saved, previousUsername, previousMechanicId);
+
+        // Send actionable notifications when status changes (or the job moves to another mechanic)
+        boolean changed = previousStatus != newStatus || !Objects.equals(previousMechanicId, saved.getMechanicId());
+        if (changed) {
+            if (newStatus.isClaimed()) {
                 if(requests.get().isCallOutService())
-                  notificationService.notifyServiceProvider(loggedInUsername,requests.get().getLocation());
+                  notificationService.notifyServiceProvider(eventKey(existing, fromVersion, "callout:" + loggedInUsername), loggedInUsername, requests.get().getLocation());
 
-                notifyClientRequestAccepted(existing);
-            } else if ("completed".equalsIgnoreCase(newStatus)) {
+                notifyClientRequestAccepted(existing, fromVersion);
+            } else if (newStatus == JobStatus.COMPLETED) {
 
-                notifyClientServiceCompleted(existing, loggedInUsername);
+                notifyClientServiceCompleted(existing, fromVersion, loggedInUsername);
             } else {
                 String jobDesc = toJobDescription(existing);
                 String subject = "Mechanic Request Status Updated";
@@ -295,18 +452,23 @@ public class MechanicRequestService {
                         newStatus + ".\n\nThank you!";
                 String to = getClientEmail(existing.getUsername());
                 if (to != null) {
-                    emailService.sendEmailNotification(to, subject, body);
+                    outbox.enqueueEmail(eventKey(existing, fromVersion, "status:" + newStatus), to, subject, body);
                 }
             }
-
+        }
 
         return Optional.of(saved);
     }
 
     // ================= DELETE =================
     public boolean deleteById(String id) {
-        if (!repository.existsById(id)) return false;
+        Optional<MechanicRequest> existing = repository.findById(id);
+        if (existing.isEmpty()) return false;
         repository.deleteById(id);
+        dispatchEngine.untrack(id);
+        capacity.transition(ProviderCapacity.Kind.MECHANIC, existing.get().getMechanicId(), existing.get().getStatus(), null, null);
+        eventBus.jobRemoved(JobEventBus.Channel.MECHANIC, id, existing.get().getStatus(), existing.get().getMechanicId());
+        bumpVersions(existing.get(), null, null);
         return true;
     }
 
@@ -315,6 +477,12 @@ public class MechanicRequestService {
         if (requests.isEmpty()) return false;
 
         repository.deleteByUsername(username);
+        requests.forEach(r -> {
+            dispatchEngine.untrack(r.getId());
+            capacity.transition(ProviderCapacity.Kind.MECHANIC, r.getMechanicId(), r.getStatus(), null, null);
+            eventBus.jobRemoved(JobEventBus.Channel.MECHANIC, r.getId(), r.getStatus(), r.getMechanicId());
+            bumpVersions(r, null, null);
+        });
         return true;
     }
 
@@ -0,0 +1,177 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.config.AsyncConfig;
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+import com.test.app.TestAppBackEnd.repositories.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the notification outbox: claims due rows in batches and delivers them on the per-channel executors
+ * (email / SMS pools), so each channel's concurrency is bounded independently. Emails are handed to the sink in
+ * groups of email-batch-size so each group goes out over one pooled SMTP session. Failed attempts are retried with
+ * exponential backoff up to max-attempts, then marked failed; a batch the executor rejects is released without
+ * using an attempt. Delivery is at-least-once.
+ */
+@Component
+public class NotificationOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationOutboxRepository repository;
+    private final NotificationSink sink;
+    private final Executor emailExecutor;
+    private final Executor smsExecutor;
+    private final int batchSize;
+    private final int emailBatchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository repository,
+                                        NotificationSink sink,
+                                        @Qualifier(AsyncConfig.EMAIL_EXECUTOR) Executor emailExecutor,
+                                        @Qualifier(AsyncConfig.SMS_EXECUTOR) Executor smsExecutor,
+                                        @Value("${app.outbox.batch-size:100}") int batchSize,
+                                        @Value("${app.outbox.email-batch-size:20}") int emailBatchSize,
+                                        @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+                                        @Value("${app.outbox.lease-seconds:120}") long leaseSeconds,
+                                        @Value("${app.outbox.base-backoff-seconds:10}") long baseBackoffSeconds,
+                                        @Value("${app.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                                        @Value("${app.outbox.retention-days:7}") long retentionDays) {
+        this.repository = repository;
+        this.sink = sink;
+        this.emailExecutor = emailExecutor;
+        this.smsExecutor = smsExecutor;
+        this.batchSize = Math.max(1, batchSize);
+        this.emailBatchSize = Math.max(1, emailBatchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:2000}", initialDelayString = "${app.outbox.poll-ms:2000}")
+    public void poll() {
+        try {
+            Instant now = Instant.now();
+            List<NotificationOutbox> due = repository.findDue(now, PageRequest.of(0, batchSize));
+            List<NotificationOutbox> emails = new ArrayList<>();
+            for (NotificationOutbox message : due) {
+                if (repository.claim(message.getId(), message.getAttempts(), now.plus(lease)) != 1) continue;
+                message.setAttempts(message.getAttempts() + 1);
+                if (NotificationOutbox.CHANNEL_EMAIL.equals(message.getChannel())) {
+                    emails.add(message);
+                    if (emails.size() == emailBatchSize) {
+                        submit(emailExecutor, emails);
+                        emails = new ArrayList<>();
+                    }
+                } else {
+                    submit(smsExecutor, List.of(message));
+                }
+            }
+            if (!emails.isEmpty()) submit(emailExecutor, emails);
+        } catch (Exception e) {
+            log.error("Outbox poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 15 * * * *}")
+    public void purgeSent() {
+        int removed = repository.deleteSentBefore(Instant.now().minus(retention));
+        if (removed > 0) log.info("Outbox: purged {} sent notification(s)", removed);
+    }
+
+    private void submit(Executor executor, List<NotificationOutbox> messages) {
+        try {
+            executor.execute(() -> deliver(messages));
+        } catch (RejectedExecutionException e) {
+            // Nothing was sent: give the attempts back and make the rows due again for the next poll, instead of
+            // burning an attempt and waiting out the lease
+            Instant now = Instant.now();
+            for (NotificationOutbox message : messages) {
+                if (repository.release(message.getId(), message.getAttempts(), now) == 1) {
+                    message.setAttempts(message.getAttempts() - 1);
+                }
+            }
+            deferred.addAndGet(messages.size());
+            log.warn("Outbox executor saturated; {} message(s) deferred", messages.size());
+        }
+    }
+
+    private void deliver(List<NotificationOutbox> messages) {
+        Map<String, Exception> failures;
+        try {
+            failures = sink.deliverAll(messages);
+        } catch (Exception e) {
+            failures = new HashMap<>();
+            for (NotificationOutbox message : messages) failures.put(message.getId(), e);
+        }
+        for (NotificationOutbox message : messages) {
+            Exception error = failures.get(message.getId());
+            if (error == null) {
+                repository.markSent(message.getId(), Instant.now());
+                sent.incrementAndGet();
+            } else {
+                recordFailure(message, error);
+            }
+        }
+    }
+
+    private void recordFailure(NotificationOutbox message, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (error.length() > MAX_ERROR_LENGTH) error = error.substring(0, MAX_ERROR_LENGTH);
+        if (message.getAttempts() >= maxAttempts) {
+            repository.markAttemptFailed(message.getId(), "failed", Instant.now(), error);
+            failed.incrementAndGet();
+            log.error("Outbox {} to {} failed after {} attempts: {}",
+                    message.getChannel(), message.getRecipient(), message.getAttempts(), error);
+        } else {
+            Instant next = Instant.now().plus(backoff(message.getAttempts()));
+            repository.markAttemptFailed(message.getId(), "pending", next, error);
+            retried.incrementAndGet();
+            log.warn("Outbox {} to {} attempt {} failed, retrying at {}: {}",
+                    message.getChannel(), message.getRecipient(), message.getAttempts(), next, error);
+        }
+    }
+
+    /** base * 2^(attempt-1), capped. */
+    private Duration backoff(int attempt) {
+        Duration d = baseBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return d.compareTo(maxBackoff) > 0 ? maxBackoff : d;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("deferred", deferred.get());
+        return stats;
+    }
+}
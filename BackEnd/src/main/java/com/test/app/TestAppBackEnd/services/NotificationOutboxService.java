@@ -0,0 +1,63 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+import com.test.app.TestAppBackEnd.repositories.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queues notifications in the caller's transaction, so a message exists if and only if the state change
+ * that caused it committed. Delivery happens later in NotificationOutboxDispatcher.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private final NotificationOutboxRepository repository;
+    private final SmsService smsService;
+
+    public NotificationOutboxService(NotificationOutboxRepository repository, SmsService smsService) {
+        this.repository = repository;
+        this.smsService = smsService;
+    }
+
+    /**
+     * @param dedupKey identifies the event (e.g. "mechanic-request:{id}:v{version}:completed"); a repeat is ignored.
+     *                 Job events include the version the change started from, so a status reached again later is
+     *                 a new event.
+     */
+    @Transactional
+    public void enqueueEmail(String dedupKey, String to, String subject, String body) {
+        if (to == null || to.isBlank()) return;
+        enqueue(new NotificationOutbox(NotificationOutbox.CHANNEL_EMAIL, to, subject, body, dedupKey + ":email"));
+    }
+
+    /** SMS is skipped (as before) when Twilio is not configured or the number cannot be normalised. */
+    @Transactional
+    public void enqueueSms(String dedupKey, String phoneNumber, String countryCode, String body) {
+        if (!smsService.isEnabled()) return;
+        String to = SmsService.toE164(phoneNumber, countryCode);
+        if (to == null) return;
+        enqueue(new NotificationOutbox(NotificationOutbox.CHANNEL_SMS, to, null, body, dedupKey + ":sms"));
+    }
+
+    private void enqueue(NotificationOutbox message) {
+        message.prePersist();
+        if (repository.insertIfAbsent(message) == 0) {
+            log.debug("Notification {} already queued, skipping", message.getDedupKey());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", repository.countByStatus("pending"));
+        stats.put("failed", repository.countByStatus("failed"));
+        return stats;
+    }
+}
@@ -0,0 +1,30 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the outbox dispatcher delivers messages. Selected with app.outbox.sink: "live" (SMTP/Twilio, default)
+ * or "fake" (in-memory, for local runs and tests).
+ */
+public interface NotificationSink {
+
+    /** Delivers one message; throwing marks the attempt as failed so it is retried with backoff. */
+    void deliver(NotificationOutbox message) throws Exception;
+
+    /** Delivers a batch of one channel's messages; returns the failures keyed by outbox id. */
+    default Map<String, Exception> deliverAll(List<NotificationOutbox> messages) {
+        Map<String, Exception> failures = new HashMap<>();
+        for (NotificationOutbox message : messages) {
+            try {
+                deliver(message);
+            } catch (Exception e) {
+                failures.put(message.getId(), e);
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,181 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
+import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
+import com.test.app.TestAppBackEnd.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider service catalog held in memory per provider type: the list ordered by service name (as the catalog
+ * query returns it) and the same rows grouped by provider, so both the client catalog and a provider's own
+ * offerings are answered without SQL or sorting. Views are evicted least recently used once they hold more than
+ * max-offerings rows, and expire after the TTL. {@link ProviderServiceOfferingService} invalidates a type after
+ * commit on every write and tells the other nodes through the {@link CatalogInvalidationChannel}.
+ */
+@Component
+public class OfferingCatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OfferingCatalogCache.class);
+
+    /** Immutable snapshot of one provider type's offerings. */
+    private record CatalogView(List<ProviderServiceOffering> all,
+                               Map<String, List<ProviderServiceOffering>> byProvider,
+                               long loadedAtMillis) {}
+
+    private final ProviderServiceOfferingRepository repository;
+    private final CatalogInvalidationChannel channel;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final int maxOfferings;
+
+    /** Access-ordered so the least recently read type is dropped first; guarded by itself. */
+    private final LinkedHashMap<String, CatalogView> views = new LinkedHashMap<>(8, 0.75f, true);
+    private int heldOfferings = 0;
+    /** Bumped by every invalidation; a load that raced one is returned but not cached. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong remoteInvalidations = new AtomicLong();
+
+    public OfferingCatalogCache(ProviderServiceOfferingRepository repository,
+                                CatalogInvalidationChannel channel,
+                                @Value("${app.catalog-cache.enabled:true}") boolean enabled,
+                                @Value("${app.catalog-cache.ttl-seconds:300}") long ttlSeconds,
+                                @Value("${app.catalog-cache.max-offerings:50000}") int maxOfferings) {
+        this.repository = repository;
+        this.channel = channel;
+        this.enabled = enabled;
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        this.maxOfferings = Math.max(1, maxOfferings);
+        channel.subscribe(type -> {
+            remoteInvalidations.incrementAndGet();
+            evict(type);
+        });
+    }
+
+    /** All offerings of the type, ordered by service name. */
+    public List<ProviderServiceOffering> catalog(String providerType) {
+        if (!enabled || providerType == null || providerType.isBlank()) {
+            return repository.findByProviderTypeOrderByServiceNameAsc(providerType);
+        }
+        return view(providerType).all();
+    }
+
+    /** One provider's offerings of the type, ordered by service name. */
+    public List<ProviderServiceOffering> offeringsOf(String providerUsername, String providerType) {
+        if (!enabled || providerType == null || providerType.isBlank() || providerUsername == null) {
+            return repository.findByProviderUsernameAndProviderTypeOrderByServiceNameAsc(providerUsername, providerType);
+        }
+        return view(providerType).byProvider().getOrDefault(key(providerUsername), List.of());
+    }
+
+    /** Drops the type's view here once the current transaction commits, and on the other nodes; null drops all. */
+    public void invalidate(String providerType) {
+        if (!enabled) return;
+        AfterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            evict(providerType);
+            channel.publish(providerType);
+        });
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (views) {
+            stats.put("types", views.size());
+            stats.put("offerings", heldOfferings);
+        }
+        stats.put("maxOfferings", maxOfferings);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", (h + m) == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("remoteInvalidations", remoteInvalidations.get());
+        return stats;
+    }
+
+    private CatalogView view(String providerType) {
+        String key = key(providerType);
+        synchronized (views) {
+            CatalogView cached = views.get(key);
+            if (cached != null && System.currentTimeMillis() - cached.loadedAtMillis() < ttlMillis) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long loadedGeneration = generation.get();
+        CatalogView loaded = load(providerType);
+        synchronized (views) {
+            if (generation.get() == loadedGeneration && loaded.all().size() <= maxOfferings) {
+                put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private CatalogView load(String providerType) {
+        List<ProviderServiceOffering> all = List.copyOf(repository.findByProviderTypeOrderByServiceNameAsc(providerType));
+        Map<String, List<ProviderServiceOffering>> grouped = new HashMap<>();
+        for (ProviderServiceOffering offering : all) {
+            if (offering.getProviderUsername() == null) continue;
+            grouped.computeIfAbsent(key(offering.getProviderUsername()), u -> new ArrayList<>()).add(offering);
+        }
+        Map<String, List<ProviderServiceOffering>> byProvider = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((username, offerings) -> byProvider.put(username, List.copyOf(offerings)));
+        return new CatalogView(all, Map.copyOf(byProvider), System.currentTimeMillis());
+    }
+
+    /** Caller holds the views lock. */
+    private void put(String key, CatalogView view) {
+        CatalogView previous = views.put(key, view);
+        if (previous != null) heldOfferings -= previous.all().size();
+        heldOfferings += view.all().size();
+        var eldest = views.entrySet().iterator();
+        while (heldOfferings > maxOfferings && eldest.hasNext()) {
+            Map.Entry<String, CatalogView> entry = eldest.next();
+            if (entry.getKey().equals(key)) continue;
+            heldOfferings -= entry.getValue().all().size();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void evict(String providerType) {
+        synchronized (views) {
+            generation.incrementAndGet();
+            if (providerType == null) {
+                views.clear();
+                heldOfferings = 0;
+                return;
+            }
+            CatalogView removed = views.remove(key(providerType));
+            if (removed != null) heldOfferings -= removed.all().size();
+        }
+        log.debug("Catalog cache invalidated for {}", providerType != null ? providerType : "all types");
+    }
+
+    /** The catalog columns compare case-insensitively in MySQL. */
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,157 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
+import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
+import com.test.app.TestAppBackEnd.util.GeoHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory geohash index of offerings for nearby searches. Entries are keyed by {@code geohash:id} in a
+ * sorted map per provider type, so every geohash prefix is a contiguous range: a lookup picks the finest
+ * precision whose covering cells stay under {@link #MAX_CELLS}, scans those ranges and checks the exact
+ * distance. {@link ProviderServiceOfferingService} keeps it current on create/update/delete; a periodic
+ * reload picks up changes made on other nodes. Until the first load finishes callers use the SQL query.
+ */
+@Component
+public class OfferingGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OfferingGeoIndex.class);
+    /** Stored precision, cells of roughly 150m x 150m. */
+    private static final int PRECISION = 7;
+    private static final int MAX_CELLS = 64;
+
+    private record Slot(String providerType, String key) {}
+
+    private final ProviderServiceOfferingRepository repository;
+    private final boolean enabled;
+
+    private volatile Map<String, ConcurrentSkipListMap<String, ProviderServiceOffering>> byType = new ConcurrentHashMap<>();
+    private volatile Map<String, Slot> slotsById = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+    private volatile Instant lastLoad;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cellsScanned = new AtomicLong();
+
+    public OfferingGeoIndex(ProviderServiceOfferingRepository repository,
+                            @Value("${app.geo.index.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /** Rebuilds from the database; writes on this node wait for the swap so none are lost. */
+    @Scheduled(fixedDelayString = "${app.geo.index.reload-ms:300000}",
+            initialDelayString = "${app.geo.index.reload-ms:300000}")
+    public void reload() {
+        if (!enabled) return;
+        try {
+            synchronized (this) {
+                Map<String, ConcurrentSkipListMap<String, ProviderServiceOffering>> types = new ConcurrentHashMap<>();
+                Map<String, Slot> slots = new ConcurrentHashMap<>();
+                for (ProviderServiceOffering offering : repository.findAll()) {
+                    insert(types, slots, offering);
+                }
+                byType = types;
+                slotsById = slots;
+                lastLoad = Instant.now();
+                if (!ready) log.info("Offering geo index loaded: {} offering(s)", slots.size());
+                ready = true;
+            }
+        } catch (Exception e) {
+            log.warn("Offering geo index reload failed, keeping previous state: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void put(ProviderServiceOffering offering) {
+        if (!enabled || offering == null || offering.getId() == null) return;
+        remove(offering.getId());
+        insert(byType, slotsById, offering);
+    }
+
+    public synchronized void remove(String id) {
+        if (!enabled || id == null) return;
+        Slot slot = slotsById.remove(id);
+        if (slot == null) return;
+        Map<String, ProviderServiceOffering> entries = byType.get(slot.providerType());
+        if (entries != null) entries.remove(slot.key());
+    }
+
+    /** Offerings of the type within radiusMeters, sorted by service name like the SQL query. */
+    public List<ProviderServiceOffering> findNearby(String providerType, double lat, double lng, double radiusMeters) {
+        lookups.incrementAndGet();
+        if (providerType == null) return List.of();
+        ConcurrentSkipListMap<String, ProviderServiceOffering> entries = byType.get(typeKey(providerType));
+        if (entries == null || entries.isEmpty()) return List.of();
+
+        GeoHash.BoundingBox box = GeoHash.boundingBox(lat, lng, radiusMeters);
+        int precision = PRECISION;
+        while (precision > 1 && GeoHash.estimateCells(box, precision) > MAX_CELLS) {
+            precision--;
+        }
+        List<ProviderServiceOffering> result = new ArrayList<>();
+        for (String cell : GeoHash.cellsCovering(box, precision)) {
+            cellsScanned.incrementAndGet();
+            // '~' sorts after every base32 character and ':', so this is exactly the keys under the prefix
+            for (ProviderServiceOffering offering : entries.subMap(cell, true, cell + "~", false).values()) {
+                double oLat = offering.getGeoLat();
+                double oLng = offering.getGeoLng();
+                if (box.contains(oLat, oLng) && GeoHash.distanceMeters(lat, lng, oLat, oLng) <= radiusMeters) {
+                    result.add(offering);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(ProviderServiceOffering::getServiceName,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("offerings", slotsById.size());
+        stats.put("lookups", lookups.get());
+        stats.put("cellsScanned", cellsScanned.get());
+        stats.put("lastLoad", lastLoad != null ? lastLoad.toString() : null);
+        return stats;
+    }
+
+    private static void insert(Map<String, ConcurrentSkipListMap<String, ProviderServiceOffering>> types,
+                               Map<String, Slot> slots, ProviderServiceOffering offering) {
+        if (offering.getGeoLat() == null || offering.getGeoLng() == null || offering.getProviderType() == null) return;
+        String key = GeoHash.encode(offering.getGeoLat(), offering.getGeoLng(), PRECISION) + ":" + offering.getId();
+        String type = typeKey(offering.getProviderType());
+        types.computeIfAbsent(type, t -> new ConcurrentSkipListMap<>()).put(key, offering);
+        slots.put(offering.getId(), new Slot(type, key));
+    }
+
+    /** Provider types match ignoring case and surrounding spaces, as the SQL query does under its case-insensitive collation. */
+    private static String typeKey(String providerType) {
+        return providerType.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -6,9 +6,9 @@ import com.test.app.TestAppBackEnd.repositories.PasswordResetTokenRepository;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.repositories.UserRepository;
 import com.test.app.TestAppBackEnd.config.FrontendUrlResolver;
+import com.test.app.TestAppBackEnd.security.PasswordHashingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,21 +28,24 @@ public class PasswordResetService {
     private final UserRepository userRepository;
     private final UserProfileRepository userProfileRepository;
     private final EmailService emailService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final FrontendUrlResolver frontendUrlResolver;
+    private final TokenRevocationService tokenRevocationService;
 
     public PasswordResetService(PasswordResetTokenRepository tokenRepository,
             UserRepository userRepository,
             UserProfileRepository userProfileRepository,
             EmailService emailService,
-            PasswordEncoder passwordEncoder,
-            FrontendUrlResolver frontendUrlResolver) {
+            PasswordHashingService passwordHashingService,
+            FrontendUrlResolver frontendUrlResolver,
+            TokenRevocationService tokenRevocationService) {
         this.tokenRepository = tokenRepository;
         this.userRepository = userRepository;
         this.userProfileRepository = userProfileRepository;
         this.emailService = emailService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.frontendUrlResolver = frontendUrlResolver;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -104,9 +107,10 @@ public class PasswordResetService {
             return false;
 
         User user = userOpt.get();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
         tokenRepository.delete(resetToken);
+        tokenRevocationService.revoke(user.getUsername(), "password-reset");
         return true;
     }
 
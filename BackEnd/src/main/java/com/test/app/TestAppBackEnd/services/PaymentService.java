@@ -2,16 +2,19 @@ package com.test.app.TestAppBackEnd.services;
 
 import com.test.app.TestAppBackEnd.entities.Payment;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
+import com.test.app.TestAppBackEnd.models.CursorPage;
 import com.test.app.TestAppBackEnd.models.PaymentRequest;
+import com.test.app.TestAppBackEnd.models.PaymentTotals;
 import com.test.app.TestAppBackEnd.repositories.CarWashBookingRepository;
 import com.test.app.TestAppBackEnd.repositories.MechanicRequestRepository;
 import com.test.app.TestAppBackEnd.repositories.PaymentRepository;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
 import com.test.app.TestAppBackEnd.util.DescriptionUtils;
+import com.test.app.TestAppBackEnd.util.PageCursor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.scheduling.annotation.Async;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -25,9 +28,10 @@ public class PaymentService {
     private final MechanicRequestRepository mechanicRequestRepository;
     private final UserProfileRepository userProfileRepository;
     private final CarWashBookingRepository carWashBookingRepository;
-    private final EmailService emailService;
-    private final SmsService smsService;
+    private final NotificationOutboxService outbox;
     private final StripeService stripeService;
+    private final FullTextSearch fullTextSearch;
+    private final ResourceVersions versions;
     private final double PLATFORM_FEE_PERCENT = 0.10; // 10% fee
 
     public PaymentService(
@@ -35,17 +39,27 @@ public class PaymentService {
             UserProfileRepository userProfileRepository,
             MechanicRequestRepository mechanicRequestRepository,
             CarWashBookingRepository carWashBookingRepository,
-            EmailService emailService,
-            SmsService smsService,
-            StripeService stripeService
+            NotificationOutboxService outbox,
+            StripeService stripeService,
+            FullTextSearch fullTextSearch,
+            ResourceVersions versions
     ) {
         this.paymentRepository = paymentRepository;
         this.mechanicRequestRepository = mechanicRequestRepository;
         this.userProfileRepository = userProfileRepository;
         this.carWashBookingRepository = carWashBookingRepository;
-        this.emailService = emailService;
-        this.smsService = smsService;
+        this.outbox = outbox;
         this.stripeService = stripeService;
+        this.fullTextSearch = fullTextSearch;
+        this.versions = versions;
+    }
+
+    /** ETag scopes a write to this payment changes: the admin list and the client's, mechanic's or car wash's list. */
+    private void bumpVersions(Payment payment) {
+        versions.bump(ResourceVersions.PAYMENTS,
+                ResourceVersions.scope(ResourceVersions.PAYMENTS, "client", payment.getClientUsername()),
+                ResourceVersions.scope(ResourceVersions.PAYMENTS, "mechanic", payment.getMechanicId()),
+                ResourceVersions.scope(ResourceVersions.PAYMENTS, "carwash", payment.getCarWashId()));
     }
 
     // ================= PROCESS PAYMENT =================
@@ -82,58 +96,111 @@ public class PaymentService {
         payment.setJobDescription(DescriptionUtils.ensureDescription(null, jobDescLabel));
 
         Payment savedPayment = paymentRepository.save(payment);
+        bumpVersions(savedPayment);
 
-        // Notify the service provider
-        notifyServiceProvider(savedPayment);
+        // Notify the service provider: queued in this transaction, so the notice commits (or rolls back) with the
+        // payment, and delivered by the outbox dispatcher
+        queueProviderNotification(savedPayment);
 
         return savedPayment;
     }
 
-    private static final int DEFAULT_PAGE_SIZE = 50;
-
     // ================= GETTERS =================
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+    /**
+     * List endpoints are keyset-paginated on (paidAt, id), newest first: pass the previous page's nextCursor
+     * to continue. With a search, one page of the best matches is returned and there is no next cursor.
+     * Loaded read-only; earnings and payment tables use every field.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> getAllPayments(String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single((q != null
+                    ? paymentRepository.searchAll(q, top)
+                    : paymentRepository.findAllWithSearch(search.trim(), top)).getContent());
+        }
+        PageCursor.Key<LocalDateTime> after = PageCursor.decodeKey(cursor, LocalDateTime::parse);
+        return page(paymentRepository.findPage(afterPaidAt(after), afterId(after), PageCursor.probe(size)), size);
     }
 
-    public List<Payment> getAllPayments(String search) {
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> getPaymentsByClient(String clientUsername, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
         if (search != null && !search.isBlank()) {
-            return paymentRepository.findAllWithSearch(search.trim(), PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single(q != null
+                    ? paymentRepository.searchByClientUsername(clientUsername, q, top)
+                    : paymentRepository.findByClientUsernameWithSearch(clientUsername, search.trim(), top));
         }
-        return paymentRepository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+        PageCursor.Key<LocalDateTime> after = PageCursor.decodeKey(cursor, LocalDateTime::parse);
+        return page(paymentRepository.findPageByClientUsername(clientUsername, afterPaidAt(after), afterId(after),
+                PageCursor.probe(size)), size);
     }
 
-    public List<Payment> getPaymentsByClient(String clientUsername) {
-        return paymentRepository.findByClientUsername(clientUsername);
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> getPaymentsByMechanic(String mechanicId, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single(q != null
+                    ? paymentRepository.searchByMechanicId(mechanicId, q, top)
+                    : paymentRepository.findByMechanicIdWithSearch(mechanicId, search.trim(), top));
+        }
+        PageCursor.Key<LocalDateTime> after = PageCursor.decodeKey(cursor, LocalDateTime::parse);
+        return page(paymentRepository.findPageByMechanicId(mechanicId, afterPaidAt(after), afterId(after),
+                PageCursor.probe(size)), size);
     }
 
-    public List<Payment> getPaymentsByClient(String clientUsername, String search) {
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> getPaymentsByCarWash(String carWashId, String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
         if (search != null && !search.isBlank()) {
-            return paymentRepository.findByClientUsernameWithSearch(clientUsername, search.trim());
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single(q != null
+                    ? paymentRepository.searchByCarWashId(carWashId, q, top)
+                    : paymentRepository.findByCarWashIdWithSearch(carWashId, search.trim(), top));
         }
-        return paymentRepository.findByClientUsername(clientUsername);
+        PageCursor.Key<LocalDateTime> after = PageCursor.decodeKey(cursor, LocalDateTime::parse);
+        return page(paymentRepository.findPageByCarWashId(carWashId, afterPaidAt(after), afterId(after),
+                PageCursor.probe(size)), size);
     }
 
-    public List<Payment> getPaymentsByMechanic(String mechanicId) {
-        return paymentRepository.findByMechanicId(mechanicId);
+    /** Aggregated in the database, so totals stay exact however many pages the lists span. */
+    @Transactional(readOnly = true)
+    public PaymentTotals getTotals() {
+        return PaymentTotals.of(paymentRepository.totals());
     }
 
-    public List<Payment> getPaymentsByMechanic(String mechanicId, String search) {
-        if (search != null && !search.isBlank()) {
-            return paymentRepository.findByMechanicIdWithSearch(mechanicId, search.trim());
-        }
-        return paymentRepository.findByMechanicId(mechanicId);
+    @Transactional(readOnly = true)
+    public PaymentTotals getTotalsByClient(String clientUsername) {
+        return PaymentTotals.of(paymentRepository.totalsByClientUsername(clientUsername));
     }
 
-    public List<Payment> getPaymentsByCarWash(String carWashId) {
-        return paymentRepository.findByCarWashId(carWashId);
+    @Transactional(readOnly = true)
+    public PaymentTotals getTotalsByMechanic(String mechanicId) {
+        return PaymentTotals.of(paymentRepository.totalsByMechanicId(mechanicId));
     }
 
-    public List<Payment> getPaymentsByCarWash(String carWashId, String search) {
-        if (search != null && !search.isBlank()) {
-            return paymentRepository.findByCarWashIdWithSearch(carWashId, search.trim());
-        }
-        return paymentRepository.findByCarWashId(carWashId);
+    @Transactional(readOnly = true)
+    public PaymentTotals getTotalsByCarWash(String carWashId) {
+        return PaymentTotals.of(paymentRepository.totalsByCarWashId(carWashId));
+    }
+
+    private static CursorPage<Payment> page(List<Payment> rows, int size) {
+        return CursorPage.of(rows, size, p -> PageCursor.after(p.getPaidAt(), p.getId()));
+    }
+
+    private static LocalDateTime afterPaidAt(PageCursor.Key<LocalDateTime> after) {
+        return after != null ? after.sortKey() : null;
+    }
+
+    private static String afterId(PageCursor.Key<LocalDateTime> after) {
+        return after != null ? after.id() : null;
     }
 
     public Payment getPaymentById(String id) {
@@ -163,11 +230,13 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
         paymentRepository.delete(payment);
+        bumpVersions(payment);
         return payment;
     }
 
     public void deleteAllPayments() {
         paymentRepository.deleteAll();
+        versions.bumpAll();
     }
 
     // ================= UPDATE STATUS =================
@@ -175,50 +244,46 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
         payment.setStatus(newStatus);
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        bumpVersions(saved);
+        return saved;
     }
 
     // ================= EMAIL NOTIFICATION =================
-    @Async
-    public void notifyServiceProvider(Payment payment) {
-        try {
-            UserProfile profile = null;
-            String serviceType = null;
-
-            if (payment.getMechanicId() != null) {
-                profile = userProfileRepository.findById(payment.getMechanicId()).orElse(null);
-                serviceType = mechanicRequestRepository.findById(payment.getJobId())
-                        .map(r -> "Mechanic Service: " + r.getDescription())
-                        .orElse("Mechanic Service");
-            } else if (payment.getCarWashId() != null) {
-                profile = userProfileRepository.findById(payment.getCarWashId()).orElse(null);
-                serviceType = carWashBookingRepository.findById(payment.getJobId())
-                        .map(booking -> {
-                            StringBuilder sb = new StringBuilder("Car Wash: ");
-                            if (booking.getServiceTypes() != null && !booking.getServiceTypes().isEmpty()) {
-                                sb.append(String.join(", ", booking.getServiceTypes()));
-                            }
-                            if (booking.getCarDescription() != null && !booking.getCarDescription().isBlank()) {
-                                sb.append(" - ").append(booking.getCarDescription());
-                            }
-                            return sb.length() > "Car Wash: ".length() ? sb.toString() : "Car Wash Service";
-                        })
-                        .orElse("Car Wash Service");
-            }
+    private void queueProviderNotification(Payment payment) {
+        UserProfile profile = null;
+        String serviceType = null;
+
+        if (payment.getMechanicId() != null) {
+            profile = userProfileRepository.findById(payment.getMechanicId()).orElse(null);
+            serviceType = mechanicRequestRepository.findById(payment.getJobId())
+                    .map(r -> "Mechanic Service: " + r.getDescription())
+                    .orElse("Mechanic Service");
+        } else if (payment.getCarWashId() != null) {
+            profile = userProfileRepository.findById(payment.getCarWashId()).orElse(null);
+            serviceType = carWashBookingRepository.findById(payment.getJobId())
+                    .map(booking -> {
+                        StringBuilder sb = new StringBuilder("Car Wash: ");
+                        if (booking.getServiceTypes() != null && !booking.getServiceTypes().isEmpty()) {
+                            sb.append(String.join(", ", booking.getServiceTypes()));
+                        }
+                        if (booking.getCarDescription() != null && !booking.getCarDescription().isBlank()) {
+                            sb.append(" - ").append(booking.getCarDescription());
+                        }
+                        return sb.length() > "Car Wash: ".length() ? sb.toString() : "Car Wash Service";
+                    })
+                    .orElse("Car Wash Service");
+        }
 
-            if (profile == null) return;
+        if (profile == null) return;
 
-            String msg = "You have received a new payment for " + serviceType + ". Amount: R" + payment.getAmount() + ", Client: " + payment.getClientUsername();
+        String msg = "You have received a new payment for " + serviceType + ". Amount: R" + payment.getAmount() + ", Client: " + payment.getClientUsername();
 
-            if (profile.getEmail() != null && !profile.getEmail().isBlank()) {
-                emailService.sendEmail(profile.getEmail(), "no-reply@testapp.com", "New Payment Received", "Hi,\n\n" + msg + "\n\nThank you!");
-            }
-            if (profile.getPhoneNumber() != null && !profile.getPhoneNumber().isBlank()) {
-                smsService.sendSms(profile.getPhoneNumber(), profile.getCountryCode(), "MechConnect: " + msg);
-            }
-
-        } catch (Exception e) {
-            System.out.println("Failed to send payment notification: " + e.getMessage());
+        if (profile.getEmail() != null && !profile.getEmail().isBlank()) {
+            outbox.enqueueEmail("payment:" + payment.getId(), profile.getEmail(), "New Payment Received", "Hi,\n\n" + msg + "\n\nThank you!");
+        }
+        if (profile.getPhoneNumber() != null && !profile.getPhoneNumber().isBlank()) {
+            outbox.enqueueSms("payment:" + payment.getId(), profile.getPhoneNumber(), profile.getCountryCode(), "MechConnect: " + msg);
         }
     }
 
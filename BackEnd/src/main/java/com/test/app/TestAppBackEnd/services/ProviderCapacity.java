@@ -0,0 +1,157 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.UserProfile;
+import com.test.app.TestAppBackEnd.repositories.CarWashBookingRepository;
+import com.test.app.TestAppBackEnd.repositories.MechanicRequestRepository;
+import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
+import com.test.app.TestAppBackEnd.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-provider capacity: how many paid/in-progress jobs each provider has and how many they may have
+ * (numberOfEmployees, at least 1). Accept checks read both from memory as a fast path; the claim statements in
+ * the job repositories apply the same rule against the database, so a stale count cannot let a claim through.
+ * The services report every status or provider change through {@link #transition}, applied after commit; counts
+ * are rebuilt from the database at startup and periodically, which also picks up changes made on other nodes.
+ */
+@Component
+public class ProviderCapacity {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderCapacity.class);
+
+    /** Jobs and bookings are counted separately, matching the old per-table COUNT queries. */
+    public enum Kind { MECHANIC, CARWASH }
+
+    private final MechanicRequestRepository mechanicRequestRepository;
+    private final CarWashBookingRepository carWashBookingRepository;
+    private final UserProfileRepository userProfileRepository;
+
+    private volatile Map<Kind, Map<String, AtomicInteger>> inFlight = emptyCounts();
+    private final Map<String, Integer> limits = new ConcurrentHashMap<>();
+    private volatile Instant lastRebuild;
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    public ProviderCapacity(MechanicRequestRepository mechanicRequestRepository,
+                            CarWashBookingRepository carWashBookingRepository,
+                            UserProfileRepository userProfileRepository) {
+        this.mechanicRequestRepository = mechanicRequestRepository;
+        this.carWashBookingRepository = carWashBookingRepository;
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+        log.info("Provider capacity loaded: {} mechanic(s), {} car wash(es) with in-flight jobs",
+                inFlight.get(Kind.MECHANIC).size(), inFlight.get(Kind.CARWASH).size());
+    }
+
+    /** Recounts in-flight jobs and forgets cached limits. Transitions committed during the recount may be off until the next one. */
+    @Scheduled(fixedDelayString = "${app.capacity.rebuild-ms:300000}", initialDelayString = "${app.capacity.rebuild-ms:300000}")
+    public void rebuild() {
+        try {
+            Map<Kind, Map<String, AtomicInteger>> counts = emptyCounts();
+            load(counts.get(Kind.MECHANIC), mechanicRequestRepository.countInFlightByMechanic());
+            load(counts.get(Kind.CARWASH), carWashBookingRepository.countInFlightByCarWash());
+            inFlight = counts;
+            limits.clear();
+            lastRebuild = Instant.now();
+        } catch (Exception e) {
+            log.warn("Provider capacity rebuild failed, keeping previous counts: {}", e.getMessage());
+        }
+    }
+
+    /** True if the provider may take on another job: in-flight jobs below numberOfEmployees. */
+    public boolean hasRoom(Kind kind, String providerId) {
+        checks.incrementAndGet();
+        AtomicInteger count = inFlight.get(kind).get(providerId);
+        boolean room = (count != null ? count.get() : 0) < limit(providerId);
+        if (!room) rejections.incrementAndGet();
+        return room;
+    }
+
+    /** Records a job moving from (oldProvider, oldStatus) to (newProvider, newStatus); no-op when neither side is in flight. */
+    public void transition(Kind kind, String oldProviderId, JobStatus oldStatus, String newProviderId, JobStatus newStatus) {
+        boolean wasInFlight = oldProviderId != null && isInFlight(oldStatus);
+        boolean nowInFlight = newProviderId != null && isInFlight(newStatus);
+        if (wasInFlight && nowInFlight && Objects.equals(oldProviderId, newProviderId)) return;
+        if (!wasInFlight && !nowInFlight) return;
+        AfterCommit.run(() -> {
+            Map<String, AtomicInteger> counts = inFlight.get(kind);
+            // compute/computeIfPresent are atomic per key, so a decrement to zero cannot drop a concurrent increment
+            if (wasInFlight) {
+                counts.computeIfPresent(oldProviderId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+            }
+            if (nowInFlight) {
+                counts.compute(newProviderId, (id, count) -> {
+                    AtomicInteger next = count != null ? count : new AtomicInteger();
+                    next.incrementAndGet();
+                    return next;
+                });
+            }
+        });
+    }
+
+    /** Called when a provider's numberOfEmployees changes. */
+    public void updateLimit(String providerId, Long numberOfEmployees) {
+        if (providerId == null) return;
+        AfterCommit.run(() -> limits.put(providerId, toLimit(numberOfEmployees)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<Kind, Map<String, AtomicInteger>> counts = inFlight;
+        stats.put("mechanicsWithInFlightJobs", counts.get(Kind.MECHANIC).size());
+        stats.put("carWashesWithInFlightJobs", counts.get(Kind.CARWASH).size());
+        stats.put("cachedLimits", limits.size());
+        stats.put("checks", checks.get());
+        stats.put("rejections", rejections.get());
+        stats.put("lastRebuild", lastRebuild != null ? lastRebuild.toString() : null);
+        return stats;
+    }
+
+    private int limit(String providerId) {
+        return limits.computeIfAbsent(providerId, id -> toLimit(userProfileRepository.findById(id)
+                .map(UserProfile::getNumberOfEmployees)
+                .orElse(null)));
+    }
+
+    private static int toLimit(Long numberOfEmployees) {
+        return numberOfEmployees != null && numberOfEmployees >= 1 ? numberOfEmployees.intValue() : 1;
+    }
+
+    private static boolean isInFlight(JobStatus status) {
+        return status != null && status.isInFlight();
+    }
+
+    private static void load(Map<String, AtomicInteger> target, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            target.put((String) row[0], new AtomicInteger(((Number) row[1]).intValue()));
+        }
+    }
+
+    private static Map<Kind, Map<String, AtomicInteger>> emptyCounts() {
+        Map<Kind, Map<String, AtomicInteger>> counts = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            counts.put(kind, new ConcurrentHashMap<>());
+        }
+        return counts;
+    }
+}
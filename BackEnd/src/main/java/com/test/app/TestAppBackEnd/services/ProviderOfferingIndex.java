@@ -0,0 +1,227 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
+import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
+import com.test.app.TestAppBackEnd.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What each provider offers, precomputed from their offerings: service names by car brand (mechanics) and by car
+ * type (car washes, supportedCarTypes split once here), each resolving to the offering id and price, so accept
+ * checks and line item pricing are a few hash lookups. Names and keys are interned; most providers offer the same
+ * handful of services. Loaded at startup, refreshed per provider after commit on every offering write, and
+ * reloaded periodically for other nodes' writes. A check that fails re-reads the provider from the DB before
+ * rejecting, so a stale entry never blocks a valid accept.
+ */
+@Component
+public class ProviderOfferingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderOfferingIndex.class);
+    /** Brand / car type key of offerings that name none (and of jobs without one): matches any. */
+    public static final String ANY = "";
+
+    /** The offering a service name resolves to, for pricing job line items. */
+    public record Offer(String offeringId, Double price) {}
+
+    /**
+     * One provider's offerings by service name (as stored): all of them, and per brand / car type {@link #key}.
+     * A name offered more than once under the same key resolves to the first offering read.
+     */
+    public record Offered(Map<String, Offer> byName,
+                          Map<String, Map<String, Offer>> byBrand,
+                          Map<String, Map<String, Offer>> byCarType) {
+
+        static final Offered NONE = new Offered(Map.of(), Map.of(), Map.of());
+
+        public boolean isEmpty() {
+            return byName.isEmpty();
+        }
+
+        /** The first requested service not offered for the car brand (any brand when blank), or null. */
+        public String firstUnofferedForBrand(String carBrand, Collection<String> requested) {
+            return firstUnoffered(byBrand, key(carBrand), requested);
+        }
+
+        /** The first requested service not offered for the car type (any type when blank), or null. */
+        public String firstUnofferedForCarType(String carType, Collection<String> requested) {
+            return firstUnoffered(byCarType, key(carType), requested);
+        }
+
+        /** The offering that covers the service for the car brand, or null. */
+        public Offer offerForBrand(String carBrand, String serviceName) {
+            return offer(byBrand, key(carBrand), serviceName);
+        }
+
+        /** The offering that covers the service for the car type, or null. */
+        public Offer offerForCarType(String carType, String serviceName) {
+            return offer(byCarType, key(carType), serviceName);
+        }
+
+        private String firstUnoffered(Map<String, Map<String, Offer>> byKey, String key, Collection<String> requested) {
+            if (requested == null) return null;
+            for (String service : requested) {
+                if (service == null || service.isBlank()) continue;
+                String name = service.trim();
+                if (offer(byKey, key, name) == null) return name;
+            }
+            return null;
+        }
+
+        /** An offering for the exact key wins over one for any key; a job without a key takes any offering. */
+        private Offer offer(Map<String, Map<String, Offer>> byKey, String key, String serviceName) {
+            if (serviceName == null) return null;
+            String name = serviceName.trim();
+            Offer offer = key.equals(ANY) ? null : byKey.getOrDefault(key, Map.of()).get(name);
+            if (offer == null) offer = byKey.getOrDefault(ANY, Map.of()).get(name);
+            if (offer == null && key.equals(ANY)) offer = byName.get(name);
+            return offer;
+        }
+    }
+
+    private final ProviderServiceOfferingRepository repository;
+    private final boolean enabled;
+
+    private volatile Map<String, Offered> byProvider = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong confirmations = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    public ProviderOfferingIndex(ProviderServiceOfferingRepository repository,
+                                 @Value("${app.offering-index.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.offering-index.reload-ms:300000}", initialDelayString = "${app.offering-index.reload-ms:300000}")
+    public void reload() {
+        if (!enabled) return;
+        try {
+            Map<String, List<ProviderServiceOffering>> grouped = new HashMap<>();
+            for (ProviderServiceOffering offering : repository.findAll()) {
+                if (offering.getProviderId() == null) continue;
+                grouped.computeIfAbsent(offering.getProviderId(), id -> new ArrayList<>()).add(offering);
+            }
+            Map<String, Offered> fresh = new ConcurrentHashMap<>();
+            grouped.forEach((providerId, offerings) -> fresh.put(providerId, build(offerings)));
+            byProvider = fresh;
+            if (!ready) log.info("Offering index loaded {} provider(s)", fresh.size());
+            ready = true;
+        } catch (Exception e) {
+            log.warn("Offering index reload failed, keeping previous state: {}", e.getMessage());
+        }
+    }
+
+    /** The provider's offerings from memory; read from the DB (and kept) until the first load has succeeded. */
+    public Offered get(String providerId) {
+        if (providerId == null) return Offered.NONE;
+        lookups.incrementAndGet();
+        if (!enabled) return build(repository.findByProviderId(providerId));
+        Offered offered = byProvider.get(providerId);
+        if (offered != null) return offered;
+        return ready ? Offered.NONE : refresh(providerId);
+    }
+
+    /** Re-reads the provider's offerings now. */
+    public Offered refresh(String providerId) {
+        Offered offered = build(repository.findByProviderId(providerId));
+        refreshes.incrementAndGet();
+        if (!enabled) return offered;
+        if (offered.isEmpty()) {
+            byProvider.remove(providerId);
+        } else {
+            byProvider.put(providerId, offered);
+        }
+        return offered;
+    }
+
+    /** Called on every offering write; the provider is re-read once the current transaction commits. */
+    public void offeringsChanged(String providerId) {
+        if (!enabled || providerId == null) return;
+        AfterCommit.run(() -> refresh(providerId));
+    }
+
+    /** Like {@link Offered#firstUnofferedForBrand}, confirming a miss against the DB; guards accepts. */
+    public String firstUnofferedForBrand(String providerId, String carBrand, Collection<String> requested) {
+        String missing = get(providerId).firstUnofferedForBrand(carBrand, requested);
+        if (missing == null || !enabled) return missing;
+        confirmations.incrementAndGet();
+        return refresh(providerId).firstUnofferedForBrand(carBrand, requested);
+    }
+
+    /** Like {@link Offered#firstUnofferedForCarType}, confirming a miss against the DB; guards accepts. */
+    public String firstUnofferedForCarType(String providerId, String carType, Collection<String> requested) {
+        String missing = get(providerId).firstUnofferedForCarType(carType, requested);
+        if (missing == null || !enabled) return missing;
+        confirmations.incrementAndGet();
+        return refresh(providerId).firstUnofferedForCarType(carType, requested);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("providers", byProvider.size());
+        stats.put("lookups", lookups.get());
+        stats.put("confirmations", confirmations.get());
+        stats.put("refreshes", refreshes.get());
+        return stats;
+    }
+
+    /** Lower-cased, trimmed and interned; {@link #ANY} when blank. */
+    public static String key(String value) {
+        return value == null || value.isBlank() ? ANY : value.trim().toLowerCase(Locale.ROOT).intern();
+    }
+
+    private static Offered build(List<ProviderServiceOffering> offerings) {
+        Map<String, Offer> byName = new HashMap<>();
+        Map<String, Map<String, Offer>> byBrand = new HashMap<>();
+        Map<String, Map<String, Offer>> byCarType = new HashMap<>();
+        for (ProviderServiceOffering offering : offerings) {
+            String name = offering.getServiceName();
+            if (name == null || name.isBlank()) continue;
+            name = name.intern();
+            Offer offer = new Offer(offering.getId(), offering.getPrice());
+            byName.putIfAbsent(name, offer);
+            byBrand.computeIfAbsent(key(offering.getCarBrand()), b -> new HashMap<>()).putIfAbsent(name, offer);
+            String carTypes = offering.getSupportedCarTypes();
+            if (carTypes == null || carTypes.isBlank()) {
+                byCarType.computeIfAbsent(ANY, t -> new HashMap<>()).putIfAbsent(name, offer);
+                continue;
+            }
+            for (String carType : carTypes.split(",")) {
+                if (carType.isBlank()) continue;
+                byCarType.computeIfAbsent(key(carType), t -> new HashMap<>()).putIfAbsent(name, offer);
+            }
+        }
+        if (byName.isEmpty()) return Offered.NONE;
+        return new Offered(Map.copyOf(byName), freeze(byBrand), freeze(byCarType));
+    }
+
+    private static Map<String, Map<String, Offer>> freeze(Map<String, Map<String, Offer>> byKey) {
+        Map<String, Map<String, Offer>> frozen = new HashMap<>(byKey.size() * 2);
+        byKey.forEach((k, v) -> frozen.put(k, Map.copyOf(v)));
+        return Map.copyOf(frozen);
+    }
+}
@@ -3,6 +3,7 @@ package com.test.app.TestAppBackEnd.services;
 import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
 import com.test.app.TestAppBackEnd.repositories.ProviderServiceOfferingRepository;
+import com.test.app.TestAppBackEnd.util.GeoHash;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,33 +13,70 @@ import java.util.Optional;
 public class ProviderServiceOfferingService {
 
     private final ProviderServiceOfferingRepository repository;
+    private final OfferingGeoIndex geoIndex;
+    private final ProviderOfferingIndex offeringIndex;
+    private final ResourceVersions versions;
+    private final OfferingCatalogCache catalogCache;
 
-    public ProviderServiceOfferingService(ProviderServiceOfferingRepository repository) {
+    public ProviderServiceOfferingService(ProviderServiceOfferingRepository repository,
+                                          OfferingGeoIndex geoIndex,
+                                          ProviderOfferingIndex offeringIndex,
+                                          ResourceVersions versions,
+                                          OfferingCatalogCache catalogCache) {
         this.repository = repository;
+        this.geoIndex = geoIndex;
+        this.offeringIndex = offeringIndex;
+        this.versions = versions;
+        this.catalogCache = catalogCache;
     }
 
+    /**
+     * After a write: the provider's offering index entry, the type's cached catalog and the ETag scopes of its
+     * catalog and the provider's own list.
+     */
+    private void offeringChanged(ProviderServiceOffering offering) {
+        offeringIndex.offeringsChanged(offering.getProviderId());
+        catalogCache.invalidate(offering.getProviderType());
+        versions.bump(ResourceVersions.scope(ResourceVersions.OFFERINGS, "type", offering.getProviderType()),
+                ResourceVersions.scope(ResourceVersions.OFFERINGS, "provider", offering.getProviderUsername()));
+    }
+
+    /** Served from the catalog cache. */
     public List<ProviderServiceOffering> getMyOfferings(String username, String providerType) {
-        return repository.findByProviderUsernameAndProviderTypeOrderByServiceNameAsc(username, providerType);
+        return catalogCache.offeringsOf(username, providerType);
     }
 
-    /** Catalog for clients: all offerings for a provider type (mechanic or carwash) */
+    /** Catalog for clients: all offerings for a provider type (mechanic or carwash), served from the catalog cache */
     public List<ProviderServiceOffering> getCatalog(String providerType) {
-        return repository.findByProviderTypeOrderByServiceNameAsc(providerType);
+        return catalogCache.catalog(providerType);
     }
+    /** Served from the in-memory geohash index; the bounding-box SQL query is used until it has loaded. */
     public List<ProviderServiceOffering> getNearbyByOfferingType(
             String offeringType,
             double latitude,
             double longitude,
             double radiusKm
     ) {
-
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("radiusKm must be positive");
+        }
         double radiusMeters = radiusKm * 1000;
-
+        if (geoIndex.isReady()) {
+            return geoIndex.findNearby(offeringType, latitude, longitude, radiusMeters);
+        }
+        GeoHash.BoundingBox box = GeoHash.boundingBox(latitude, longitude, radiusMeters);
         return repository.findNearbyByOfferingType(
                 offeringType,
                 latitude,
                 longitude,
-                radiusMeters
+                radiusMeters,
+                box.minLat(),
+                box.maxLat(),
+                box.minLng(),
+                box.maxLng()
         );
     }
 
@@ -55,7 +93,10 @@ public class ProviderServiceOfferingService {
         offering.setLongitude(lng);
         offering.setProviderId(providerProfile.getId());
         offering.setProviderType(providerType);
-        return repository.save(offering);
+        ProviderServiceOffering saved = repository.save(offering);
+        geoIndex.put(saved);
+        offeringChanged(saved);
+        return saved;
     }
 
     public Optional<ProviderServiceOffering> update(String id, String username, ProviderServiceOffering updated) {
@@ -66,7 +107,10 @@ public class ProviderServiceOfferingService {
                     existing.setCarBrand(updated.getCarBrand());
                     existing.setSupportedCarTypes(updated.getSupportedCarTypes());
                     existing.setPrice(updated.getPrice());
-                    return repository.save(existing);
+                    ProviderServiceOffering saved = repository.save(existing);
+                    geoIndex.put(saved);
+                    offeringChanged(saved);
+                    return saved;
                 });
     }
 
@@ -75,6 +119,8 @@ public class ProviderServiceOfferingService {
                 .filter(o -> username.equals(o.getProviderUsername()))
                 .map(o -> {
                     repository.delete(o);
+                    geoIndex.remove(o.getId());
+                    offeringChanged(o);
                     return true;
                 })
                 .orElse(false);
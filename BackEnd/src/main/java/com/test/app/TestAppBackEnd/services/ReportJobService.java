@@ -0,0 +1,257 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.config.AsyncConfig;
+import com.test.app.TestAppBackEnd.constants.ReportType;
+import com.test.app.TestAppBackEnd.models.ReportJobResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Report generation as background jobs: a submit returns a job id at once, the CSV is built to a temp file on the
+ * bounded report executor, and clients poll the status or download the file (optionally it is also emailed).
+ * An identical request (type, client/provider, date range) within result-ttl reuses the queued, running or
+ * finished job instead of running the query again. Jobs and files live on this node only and expire after result-ttl.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    /** Parameters of one report; callers null out fields the report type does not use, so equal specs mean equal output. */
+    public record ReportSpec(ReportType type, String username, String mechanicId, String carWashId,
+                             String startDate, String endDate) {
+        String key() {
+            return type + "|" + username + "|" + mechanicId + "|" + carWashId + "|" + startDate + "|" + endDate;
+        }
+    }
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final ReportSpec spec;
+        final Instant createdAt = Instant.now();
+        final List<String> emailTo = new ArrayList<>();
+        volatile String status = QUEUED;
+        volatile Instant completedAt;
+        volatile Path file;
+        volatile String error;
+
+        Job(ReportSpec spec) {
+            this.spec = spec;
+        }
+    }
+
+    private final ReportService reportService;
+    private final EmailService emailService;
+    private final Executor reportExecutor;
+    private final Duration resultTtl;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public ReportJobService(ReportService reportService,
+                            EmailService emailService,
+                            @Qualifier(AsyncConfig.REPORT_EXECUTOR) Executor reportExecutor,
+                            @Value("${app.reports.result-ttl-seconds:900}") long resultTtlSeconds) {
+        this.reportService = reportService;
+        this.emailService = emailService;
+        this.reportExecutor = reportExecutor;
+        this.resultTtl = Duration.ofSeconds(resultTtlSeconds);
+    }
+
+    /**
+     * Queues the report, or returns the matching recent job. When {@code emailTo} is set the file is also
+     * emailed once ready (immediately if the reused job has already finished).
+     *
+     * @throws IllegalArgumentException if the date range is invalid
+     * @throws TaskRejectedException if the report queue is full
+     */
+    public ReportJobResponse submit(ReportSpec spec, String emailTo) {
+        reportService.validateDateRange(spec.startDate(), spec.endDate());
+        submitted.incrementAndGet();
+        Job[] created = new Job[1];
+        Job job = jobsByKey.compute(spec.key(), (key, existing) -> {
+            if (existing != null && isReusable(existing)) return existing;
+            created[0] = new Job(spec);
+            return created[0];
+        });
+        boolean cached = created[0] == null;
+        if (cached) {
+            reused.incrementAndGet();
+        } else {
+            jobs.put(job.id, job);
+        }
+        if (emailTo != null && !emailTo.isBlank()) addEmailRecipient(job, emailTo);
+        if (!cached) {
+            try {
+                reportExecutor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                jobsByKey.remove(spec.key(), job);
+                throw new TaskRejectedException("Report queue is full", e);
+            }
+        }
+        ReportJobResponse response = toResponse(job);
+        response.setCached(cached);
+        return response;
+    }
+
+    public Optional<ReportJobResponse> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toResponse);
+    }
+
+    /** Parameters the job was submitted with, for access checks. */
+    public Optional<ReportSpec> getSpec(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(job -> job.spec);
+    }
+
+    /** The finished CSV, if the job completed and has not expired. */
+    public Optional<Path> getResultFile(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !COMPLETED.equals(job.status) || job.file == null || !Files.exists(job.file)) {
+            return Optional.empty();
+        }
+        return Optional.of(job.file);
+    }
+
+    private void run(Job job) {
+        job.status = RUNNING;
+        ReportSpec spec = job.spec;
+        Path file = null;
+        try {
+            file = Files.createTempFile("report-", ".csv");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                reportService.writeReportCsv(spec.type(), spec.username(), spec.mechanicId(), spec.carWashId(),
+                        spec.startDate(), spec.endDate(), out);
+            }
+            job.file = file;
+        } catch (Exception e) {
+            deleteQuietly(file);
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.completedAt = Instant.now();
+            job.status = FAILED;
+            log.error("Report job {} ({}) failed: {}", job.id, spec.type(), job.error, e);
+            return;
+        }
+        List<String> recipients;
+        synchronized (job.emailTo) {
+            job.completedAt = Instant.now();
+            job.status = COMPLETED;
+            recipients = List.copyOf(job.emailTo);
+        }
+        recipients.forEach(to -> sendEmail(job, to));
+    }
+
+    private void addEmailRecipient(Job job, String emailTo) {
+        synchronized (job.emailTo) {
+            if (!COMPLETED.equals(job.status)) {
+                job.emailTo.add(emailTo);
+                return;
+            }
+        }
+        // Already built: send from the cached file on the report executor
+        try {
+            reportExecutor.execute(() -> sendEmail(job, emailTo));
+        } catch (RejectedExecutionException e) {
+            throw new TaskRejectedException("Report queue is full", e);
+        }
+    }
+
+    private void sendEmail(Job job, String to) {
+        ReportSpec spec = job.spec;
+        try {
+            emailService.sendEmailWithAttachment(to, spec.type().emailSubject(spec.startDate(), spec.endDate()),
+                    spec.type().emailBody(), job.file, spec.type().fileName(spec.startDate(), spec.endDate()));
+            log.info("Report email sent successfully to {}", to);
+        } catch (Exception e) {
+            log.error("Failed to send report email to {}: {}", to, e.getMessage(), e);
+        }
+    }
+
+    private boolean isReusable(Job job) {
+        if (QUEUED.equals(job.status) || RUNNING.equals(job.status)) return true;
+        return COMPLETED.equals(job.status) && job.completedAt.plus(resultTtl).isAfter(Instant.now())
+                && job.file != null && Files.exists(job.file);
+    }
+
+    /** Drops finished jobs older than result-ttl and deletes their files. */
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            if (job.completedAt == null || job.completedAt.isAfter(cutoff)) return false;
+            jobsByKey.remove(job.spec.key(), job);
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void deleteFiles() {
+        jobs.values().forEach(job -> deleteQuietly(job.file));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (String status : List.of(QUEUED, RUNNING, COMPLETED, FAILED)) {
+            byStatus.put(status, jobs.values().stream().filter(j -> status.equals(j.status)).count());
+        }
+        stats.put("jobs", byStatus);
+        stats.put("submitted", submitted.get());
+        stats.put("reused", reused.get());
+        return stats;
+    }
+
+    private ReportJobResponse toResponse(Job job) {
+        ReportSpec spec = job.spec;
+        ReportJobResponse response = new ReportJobResponse();
+        response.setId(job.id);
+        response.setType(spec.type());
+        response.setStatus(job.status);
+        response.setCreatedAt(job.createdAt);
+        response.setCompletedAt(job.completedAt);
+        response.setFileName(spec.type().fileName(spec.startDate(), spec.endDate()));
+        if (COMPLETED.equals(job.status)) response.setDownloadUrl("/api/reports/jobs/" + job.id + "/download");
+        response.setError(job.error);
+        return response;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+}
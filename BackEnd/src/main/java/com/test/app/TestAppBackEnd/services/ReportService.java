@@ -1,44 +1,69 @@
 package com.test.app.TestAppBackEnd.services;
 
-import com.test.app.TestAppBackEnd.entities.CarWashBooking;
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.constants.ReportType;
 import com.test.app.TestAppBackEnd.entities.MechanicRequest;
 import com.test.app.TestAppBackEnd.entities.Payment;
+import com.test.app.TestAppBackEnd.repositories.CarWashBookingRepository;
+import com.test.app.TestAppBackEnd.repositories.MechanicRequestRepository;
+import com.test.app.TestAppBackEnd.repositories.PaymentRepository;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * CSV reports. Rows are read through a streaming DB cursor and written straight to the output (HTTP response or a
+ * report job's file, see ReportJobService), detaching each entity once written, so memory use does not depend on the
+ * date range. Car wash rows are projections that carry their services, so an export is a single statement.
+ */
 @Service
 public class ReportService {
 
     private static final Logger log = LoggerFactory.getLogger(ReportService.class);
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ISO_LOCAL_DATE;
     private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
 
-    private final CarWashBookingService carWashBookingService;
-    private final MechanicRequestService mechanicRequestService;
-    private final PaymentService paymentService;
-    private final EmailService emailService;
+    private final CarWashBookingRepository carWashBookingRepository;
+    private final MechanicRequestRepository mechanicRequestRepository;
+    private final PaymentRepository paymentRepository;
     private final UserProfileRepository userProfileRepository;
-
-    public ReportService(CarWashBookingService carWashBookingService,
-                         MechanicRequestService mechanicRequestService,
-                         PaymentService paymentService,
-                         EmailService emailService,
-                         UserProfileRepository userProfileRepository) {
-        this.carWashBookingService = carWashBookingService;
-        this.mechanicRequestService = mechanicRequestService;
-        this.paymentService = paymentService;
-        this.emailService = emailService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+
+    public ReportService(CarWashBookingRepository carWashBookingRepository,
+                         MechanicRequestRepository mechanicRequestRepository,
+                         PaymentRepository paymentRepository,
+                         UserProfileRepository userProfileRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager) {
+        this.carWashBookingRepository = carWashBookingRepository;
+        this.mechanicRequestRepository = mechanicRequestRepository;
+        this.paymentRepository = paymentRepository;
         this.userProfileRepository = userProfileRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
     }
 
     private String getEmailForUsername(String username) {
@@ -49,186 +74,148 @@ public class ReportService {
                 .orElse(null);
     }
 
-    // ---------- Car Wash Report ----------
-
-    public byte[] getCarWashReportCsv(String username, String startDate, String endDate) {
-        List<CarWashBooking> bookings = carWashBookingService.getBookingsByClientAndDateRange(username, startDate, endDate);
-        return buildCarWashCsv(bookings);
+    /** Default recipient for an emailed report: the client's profile email, or the provider's for provider reports. */
+    public String defaultEmail(ReportType type, String username, String mechanicId, String carWashId) {
+        if (!type.isProviderReport()) {
+            return getEmailForUsername(username);
+        }
+        String providerId = mechanicId != null && !mechanicId.isBlank() ? mechanicId : carWashId;
+        return providerId != null ? userProfileRepository.findById(providerId).map(p -> p.getEmail()).filter(e -> e != null && !e.isBlank()).orElse(null) : null;
     }
 
-    private byte[] buildCarWashCsv(List<CarWashBooking> bookings) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter w = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
-        w.println("Car Plate,Services,Date,Price,Status,Location");
-        for (CarWashBooking b : bookings) {
-            String services = b.getServiceTypes() != null ? String.join("; ", b.getServiceTypes()) : "";
-            String price = b.getServicePrice() != null ? b.getServicePrice().toString() : "";
-            String loc = escapeCsv(b.getLocation());
-            w.println(escapeCsv(b.getCarPlate()) + "," + escapeCsv(services) + "," + escapeCsv(String.valueOf(b.getDate())) + "," + price + "," + escapeCsv(b.getStatus()) + "," + loc);
+    public void writeReportCsv(ReportType type, String username, String mechanicId, String carWashId,
+                               String startDate, String endDate, OutputStream out) {
+        switch (type) {
+            case CARWASH -> writeCarWashReportCsv(username, startDate, endDate, out);
+            case MECHANIC_REQUESTS -> writeMechanicRequestsReportCsv(username, mechanicId, startDate, endDate, out);
+            case EARNINGS -> writeEarningsReportCsv(mechanicId, carWashId, startDate, endDate, out);
+            case COMPLETED_JOBS -> writeCompletedJobsReportCsv(mechanicId, carWashId, startDate, endDate, out);
         }
-        w.flush();
-        return baos.toByteArray();
     }
 
-    public void sendCarWashReportToEmail(String username, String startDate, String endDate, String toEmail) {
-        String email = (toEmail != null && !toEmail.isBlank()) ? toEmail : getEmailForUsername(username);
-        if (email == null || email.isBlank()) {
-            log.warn("Cannot send car wash report: no email for user {}", username);
-            return;
+    /** Checks the dates up front, since a streamed response cannot turn into a 400 once it has started. */
+    public void validateDateRange(String startDate, String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate, DATE_FMT);
+            LocalDate end = LocalDate.parse(endDate, DATE_FMT);
+            if (end.isBefore(start)) {
+                throw new IllegalArgumentException("endDate must not be before startDate");
+            }
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("startDate and endDate must be dates in yyyy-MM-dd format");
         }
-        byte[] csv = getCarWashReportCsv(username, startDate, endDate);
-        String fileName = "car-wash-history-" + startDate + "-to-" + endDate + ".csv";
-        String subject = "Car Wash History Report (" + startDate + " to " + endDate + ")";
-        String body = "Please find your car wash history report for the selected date range attached.";
-        emailService.sendReportEmail(email, subject, body, csv, fileName);
     }
 
-    // ---------- Mechanic Requests Report ----------
+    // ---------- Car Wash Report ----------
 
-    public byte[] getMechanicRequestsReportCsvByUser(String username, String startDate, String endDate) {
-        LocalDate start = LocalDate.parse(startDate, DATE_FMT);
-        LocalDate end = LocalDate.parse(endDate, DATE_FMT);
-        List<MechanicRequest> requests = mechanicRequestService.getByUsernameAndDateRange(username, start, end);
-        return buildMechanicRequestsCsv(requests);
+    public void writeCarWashReportCsv(String username, String startDate, String endDate, OutputStream out) {
+        writeCsv(out, "Car Plate,Services,Date,Price,Status,Location",
+                () -> carWashBookingRepository.streamReportByClientUsernameAndDateBetween(username, startDate, endDate),
+                ReportService::carWashColumns, false);
     }
 
-    public byte[] getMechanicRequestsReportCsvByMechanic(String mechanicId, String startDate, String endDate) {
+    // ---------- Mechanic Requests Report ----------
+
+    /** By mechanic when {@code mechanicId} is set, otherwise by requesting user. */
+    public void writeMechanicRequestsReportCsv(String username, String mechanicId, String startDate, String endDate, OutputStream out) {
         LocalDate start = LocalDate.parse(startDate, DATE_FMT);
         LocalDate end = LocalDate.parse(endDate, DATE_FMT);
-        List<MechanicRequest> requests = mechanicRequestService.getByMechanicIdAndDateRange(mechanicId, start, end);
-        return buildMechanicRequestsCsv(requests);
-    }
-
-    private byte[] buildMechanicRequestsCsv(List<MechanicRequest> requests) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter w = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
-        w.println("Description,Date,Location,Status,Price");
-        for (MechanicRequest r : requests) {
-            String date = r.getDate() != null ? r.getDate().format(DATE_FMT) : "";
-            String price = r.getServicePrice() != null ? r.getServicePrice().toString() : "";
-            w.println(escapeCsv(r.getDescription()) + "," + date + "," + escapeCsv(r.getLocation()) + "," + escapeCsv(r.getStatus()) + "," + price);
-        }
-        w.flush();
-        return baos.toByteArray();
-    }
-
-    public void sendMechanicRequestsReportToEmail(String username, String mechanicId, String startDate, String endDate, String toEmail) {
-        String email = (toEmail != null && !toEmail.isBlank()) ? toEmail : (username != null ? getEmailForUsername(username) : null);
-        if (email == null || email.isBlank()) {
-            log.warn("Cannot send mechanic requests report: no email provided");
-            return;
-        }
-        byte[] csv = mechanicId != null && !mechanicId.isBlank()
-                ? getMechanicRequestsReportCsvByMechanic(mechanicId, startDate, endDate)
-                : getMechanicRequestsReportCsvByUser(username, startDate, endDate);
-        String fileName = "mechanic-requests-history-" + startDate + "-to-" + endDate + ".csv";
-        String subject = "Mechanic Requests History Report (" + startDate + " to " + endDate + ")";
-        String body = "Please find your mechanic requests history report for the selected date range attached.";
-        emailService.sendReportEmail(email, subject, body, csv, fileName);
+        boolean byMechanic = mechanicId != null && !mechanicId.isBlank();
+        writeCsv(out, "Description,Date,Location,Status,Price",
+                () -> byMechanic
+                        ? mechanicRequestRepository.streamByMechanicIdAndDateBetweenOrderByDateDesc(mechanicId, start, end)
+                        : mechanicRequestRepository.streamByUsernameAndDateBetweenOrderByDateDesc(username, start, end),
+                ReportService::mechanicRequestColumns);
     }
 
     // ---------- Earnings Report (service provider: mechanic or car wash) ----------
 
-    /** CSV of earnings (payments) for the given provider in date range. */
-    public byte[] getEarningsReportCsv(String mechanicId, String carWashId, String startDate, String endDate) {
-        List<Payment> payments;
+    /** CSV of earnings (payments) for the given provider in date range; empty if neither id is given. */
+    public void writeEarningsReportCsv(String mechanicId, String carWashId, String startDate, String endDate, OutputStream out) {
+        LocalDate start = LocalDate.parse(startDate, DATE_FMT);
+        LocalDate end = LocalDate.parse(endDate, DATE_FMT);
+        Supplier<Stream<Payment>> query;
         if (mechanicId != null && !mechanicId.isBlank()) {
-            payments = paymentService.getPaymentsByMechanicAndDateRange(mechanicId, startDate, endDate);
+            query = () -> paymentRepository.streamByMechanicIdAndPaidAtBetweenOrderByPaidAtDesc(
+                    mechanicId, start.atStartOfDay(), end.atTime(LocalTime.MAX));
         } else if (carWashId != null && !carWashId.isBlank()) {
-            payments = paymentService.getPaymentsByCarWashAndDateRange(carWashId, startDate, endDate);
+            query = () -> paymentRepository.streamByCarWashIdAndPaidAtBetweenOrderByPaidAtDesc(
+                    carWashId, start.atStartOfDay(), end.atTime(LocalTime.MAX));
         } else {
-            return new byte[0];
+            return;
         }
-        return buildEarningsCsv(payments);
-    }
-
-    private byte[] buildEarningsCsv(List<Payment> payments) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter w = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
-        w.println("Job Description,Paid At,Amount,Platform Fee,Status");
-        for (Payment p : payments) {
+        writeCsv(out, "Job Description,Paid At,Amount,Platform Fee,Status", query, p -> {
             String paidAt = p.getPaidAt() != null ? p.getPaidAt().format(DATE_TIME_FMT) : "";
             String amount = p.getAmount() != null ? p.getAmount().toString() : "";
             String fee = p.getPlatformFee() != null ? p.getPlatformFee().toString() : "";
-            w.println(escapeCsv(p.getJobDescription()) + "," + paidAt + "," + amount + "," + fee + "," + escapeCsv(p.getStatus()));
-        }
-        w.flush();
-        return baos.toByteArray();
-    }
-
-    public void sendEarningsReportToEmail(String mechanicId, String carWashId, String startDate, String endDate, String toEmail) {
-        if (toEmail == null || toEmail.isBlank()) {
-            String providerId = mechanicId != null && !mechanicId.isBlank() ? mechanicId : carWashId;
-            toEmail = providerId != null ? userProfileRepository.findById(providerId).map(p -> p.getEmail()).filter(e -> e != null && !e.isBlank()).orElse(null) : null;
-        }
-        if (toEmail == null || toEmail.isBlank()) {
-            log.warn("Cannot send earnings report: no email provided");
-            return;
-        }
-        byte[] csv = getEarningsReportCsv(mechanicId, carWashId, startDate, endDate);
-        String fileName = "earnings-" + startDate + "-to-" + endDate + ".csv";
-        String subject = "Earnings Report (" + startDate + " to " + endDate + ")";
-        String body = "Please find your earnings report for the selected date range attached.";
-        emailService.sendReportEmail(toEmail, subject, body, csv, fileName);
+            return escapeCsv(p.getJobDescription()) + "," + paidAt + "," + amount + "," + fee + "," + escapeCsv(p.getStatus());
+        });
     }
 
     // ---------- Completed Jobs Report (service provider) ----------
 
     /** CSV of completed jobs (mechanic requests or car wash bookings) for the provider in date range. */
-    public byte[] getCompletedJobsReportCsv(String mechanicId, String carWashId, String startDate, String endDate) {
+    public void writeCompletedJobsReportCsv(String mechanicId, String carWashId, String startDate, String endDate, OutputStream out) {
         if (mechanicId != null && !mechanicId.isBlank()) {
             LocalDate start = LocalDate.parse(startDate, DATE_FMT);
             LocalDate end = LocalDate.parse(endDate, DATE_FMT);
-            List<MechanicRequest> jobs = mechanicRequestService.getCompletedJobsByMechanicIdAndDateRange(mechanicId, start, end);
-            return buildCompletedMechanicJobsCsv(jobs);
-        }
-        if (carWashId != null && !carWashId.isBlank()) {
-            List<CarWashBooking> jobs = carWashBookingService.getCompletedBookingsByCarWashIdAndDateRange(carWashId, startDate, endDate);
-            return buildCompletedCarWashJobsCsv(jobs);
-        }
-        return new byte[0];
-    }
-
-    private byte[] buildCompletedMechanicJobsCsv(List<MechanicRequest> jobs) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter w = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
-        w.println("Description,Date,Location,Status,Price,Client Username");
-        for (MechanicRequest r : jobs) {
-            String date = r.getDate() != null ? r.getDate().format(DATE_FMT) : "";
-            String price = r.getServicePrice() != null ? r.getServicePrice().toString() : "";
-            w.println(escapeCsv(r.getDescription()) + "," + date + "," + escapeCsv(r.getLocation()) + "," + escapeCsv(r.getStatus()) + "," + price + "," + escapeCsv(r.getUsername()));
-        }
-        w.flush();
-        return baos.toByteArray();
-    }
-
-    private byte[] buildCompletedCarWashJobsCsv(List<CarWashBooking> jobs) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter w = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
-        w.println("Car Plate,Services,Date,Price,Status,Location,Client Username");
-        for (CarWashBooking b : jobs) {
-            String services = b.getServiceTypes() != null ? String.join("; ", b.getServiceTypes()) : "";
-            String price = b.getServicePrice() != null ? b.getServicePrice().toString() : "";
-            w.println(escapeCsv(b.getCarPlate()) + "," + escapeCsv(services) + "," + escapeCsv(String.valueOf(b.getDate())) + "," + price + "," + escapeCsv(b.getStatus()) + "," + escapeCsv(b.getLocation()) + "," + escapeCsv(b.getClientUsername()));
+            writeCsv(out, "Description,Date,Location,Status,Price,Client Username",
+                    () -> mechanicRequestRepository.streamByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(mechanicId, JobStatus.COMPLETED, start, end),
+                    r -> mechanicRequestColumns(r) + "," + escapeCsv(r.getUsername()));
+        } else if (carWashId != null && !carWashId.isBlank()) {
+            writeCsv(out, "Car Plate,Services,Date,Price,Status,Location,Client Username",
+                    () -> carWashBookingRepository.streamReportByCarWashIdAndStatusAndDateBetween(carWashId,
+                            JobStatus.COMPLETED.getLabel(), startDate, endDate),
+                    b -> carWashColumns(b) + "," + escapeCsv(b.getClientUsername()), false);
         }
-        w.flush();
-        return baos.toByteArray();
     }
 
-    public void sendCompletedJobsReportToEmail(String mechanicId, String carWashId, String startDate, String endDate, String toEmail) {
-        if (toEmail == null || toEmail.isBlank()) {
-            String providerId = mechanicId != null && !mechanicId.isBlank() ? mechanicId : carWashId;
-            toEmail = providerId != null ? userProfileRepository.findById(providerId).map(p -> p.getEmail()).filter(e -> e != null && !e.isBlank()).orElse(null) : null;
-        }
-        if (toEmail == null || toEmail.isBlank()) {
-            log.warn("Cannot send completed jobs report: no email provided");
-            return;
-        }
-        byte[] csv = getCompletedJobsReportCsv(mechanicId, carWashId, startDate, endDate);
-        String fileName = "completed-jobs-" + startDate + "-to-" + endDate + ".csv";
-        String subject = "Completed Jobs Report (" + startDate + " to " + endDate + ")";
-        String body = "Please find your completed jobs report for the selected date range attached.";
-        emailService.sendReportEmail(toEmail, subject, body, csv, fileName);
+    // ---------- CSV plumbing ----------
+
+    private static String carWashColumns(CarWashBookingRepository.ReportRow b) {
+        String services = b.getServices() != null ? b.getServices() : "";
+        String price = b.getServicePrice() != null ? b.getServicePrice().toString() : "";
+        return escapeCsv(b.getCarPlate()) + "," + escapeCsv(services) + "," + escapeCsv(String.valueOf(b.getDate())) + "," + price + "," + escapeCsv(b.getStatus()) + "," + escapeCsv(b.getLocation());
+    }
+
+    private static String mechanicRequestColumns(MechanicRequest r) {
+        String date = r.getDate() != null ? r.getDate().format(DATE_FMT) : "";
+        String price = r.getServicePrice() != null ? r.getServicePrice().toString() : "";
+        return escapeCsv(r.getDescription()) + "," + date + "," + escapeCsv(r.getLocation()) + "," + escapeCsv(label(r.getStatus())) + "," + price;
+    }
+
+    /**
+     * Streams the query inside a read-only transaction (the cursor needs an open connection), writing one line per
+     * row and detaching the entity afterwards so the persistence context does not grow with the result.
+     */
+    private <T> void writeCsv(OutputStream out, String header, Supplier<Stream<T>> query, Function<T, String> row) {
+        writeCsv(out, header, query, row, true);
+    }
+
+    /** {@code entities}: rows are managed entities to detach once written; projection rows have nothing to detach. */
+    private <T> void writeCsv(OutputStream out, String header, Supplier<Stream<T>> query, Function<T, String> row,
+                              boolean entities) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+                w.write(header);
+                w.write(System.lineSeparator());
+                Iterator<T> it = rows.iterator();
+                while (it.hasNext()) {
+                    T entity = it.next();
+                    w.write(row.apply(entity));
+                    w.write(System.lineSeparator());
+                    if (entities) entityManager.detach(entity);
+                }
+                w.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String label(JobStatus status) {
+        return status != null ? status.getLabel() : null;
     }
 
     private static String escapeCsv(String value) {
@@ -0,0 +1,97 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters behind the ETags of list and detail endpoints (see ConditionalGet). A scope is a kind, an owner
+ * and a key, e.g. {@code scope(PAYMENTS, "client", username)}, or just the kind for "all of them"; the services
+ * bump every scope a write can change, after commit. Scopes share a fixed array of counters by hash, so memory
+ * stays bounded and a collision only costs an extra 200. Only writes on this node increment the counters. The
+ * ETag also rolls over every max-age, so writes from other nodes (and direct DB edits) become visible within that window.
+ */
+@Component
+public class ResourceVersions {
+
+    public static final String MECHANIC_JOBS = "mechanic-jobs";
+    public static final String CARWASH_BOOKINGS = "carwash-bookings";
+    public static final String PAYMENTS = "payments";
+    public static final String OFFERINGS = "offerings";
+
+    private final boolean enabled;
+    private final long maxAgeMillis;
+    private final AtomicLongArray versions;
+    /** Changes on restart and on {@link #bumpAll()}; part of every tag. */
+    private final AtomicLong epoch = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong bumps = new AtomicLong();
+
+    public ResourceVersions(@Value("${app.etag.enabled:true}") boolean enabled,
+                            @Value("${app.etag.max-age-ms:60000}") long maxAgeMillis,
+                            @Value("${app.etag.counters:4096}") int counters) {
+        this.enabled = enabled;
+        this.maxAgeMillis = Math.max(0, maxAgeMillis);
+        this.versions = new AtomicLongArray(Math.max(1, counters));
+    }
+
+    /**
+     * Null when the key is missing, so optional owners (no mechanic yet) can be passed straight to bump. Keys are
+     * lower-cased like the database compares them.
+     */
+    public static String scope(String kind, String owner, String key) {
+        return key == null || key.isBlank() ? null : kind + ":" + owner + ":" + key.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Marks the scopes changed once the current transaction commits; null scopes are ignored. */
+    public void bump(String... scopes) {
+        if (!enabled) return;
+        AfterCommit.run(() -> {
+            for (String scope : scopes) {
+                if (scope != null) versions.incrementAndGet(slot(scope));
+            }
+            bumps.incrementAndGet();
+        });
+    }
+
+    /** Invalidates every tag; for writes that touch many scopes at once (bulk deletes, profile data shown in lists). */
+    public void bumpAll() {
+        if (!enabled) return;
+        AfterCommit.run(() -> {
+            epoch.incrementAndGet();
+            bumps.incrementAndGet();
+        });
+    }
+
+    /** Validator for the scopes; read it before loading so a write committed meanwhile changes the next one. */
+    public String tag(String... scopes) {
+        StringBuilder tag = new StringBuilder(Long.toString(epoch.get(), 36));
+        if (maxAgeMillis > 0) tag.append('.').append(Long.toString(System.currentTimeMillis() / maxAgeMillis, 36));
+        for (String scope : scopes) {
+            tag.append('.').append(scope != null ? Long.toString(versions.get(slot(scope)), 36) : "-");
+        }
+        return tag.toString();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("counters", versions.length());
+        stats.put("maxAgeMillis", maxAgeMillis);
+        stats.put("bumps", bumps.get());
+        return stats;
+    }
+
+    private int slot(String scope) {
+        return Math.floorMod(scope.hashCode(), versions.length());
+    }
+}
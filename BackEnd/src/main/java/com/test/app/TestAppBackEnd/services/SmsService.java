@@ -1,5 +1,6 @@
 package com.test.app.TestAppBackEnd.services;
 
+import com.test.app.TestAppBackEnd.config.AsyncConfig;
 import com.twilio.Twilio;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
@@ -9,6 +10,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Sends SMS via Twilio. Configure twilio.account-sid, twilio.auth-token, and either:
  * - twilio.from-number (phone number, e.g. +1234567890), or
@@ -33,6 +36,12 @@ public class SmsService {
     private String messagingServiceSid;
 
     private volatile boolean initialized = false;
+    // A lock rather than synchronized: Twilio.init may block, which would pin a virtual thread to its carrier
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    public boolean isEnabled() {
+        return isConfigured();
+    }
 
     private boolean isConfigured() {
         if (accountSid == null || accountSid.isBlank() || authToken == null || authToken.isBlank()) {
@@ -44,12 +53,15 @@ public class SmsService {
 
     private void initTwilio() {
         if (!initialized && isConfigured()) {
-            synchronized (this) {
+            initLock.lock();
+            try {
                 if (!initialized) {
                     Twilio.init(accountSid, authToken);
                     initialized = true;
                     log.info("Twilio SMS initialized");
                 }
+            } finally {
+                initLock.unlock();
             }
         }
     }
@@ -69,7 +81,7 @@ public class SmsService {
     /**
      * Send SMS. No-op if Twilio not configured or phone invalid. Runs async.
      */
-    @Async
+    @Async(AsyncConfig.SMS_EXECUTOR)
     public void sendSms(String toPhoneNumber, String countryCode, String body) {
         if (!isConfigured()) {
             log.debug("SMS disabled: Twilio not configured");
@@ -92,7 +104,7 @@ public class SmsService {
     /**
      * Send SMS using full E.164 number (e.g. +27812345678).
      */
-    @Async
+    @Async(AsyncConfig.SMS_EXECUTOR)
     public void sendSms(String toE164, String body) {
         if (!isConfigured()) return;
         if (toE164 == null || !toE164.startsWith("+")) {
@@ -108,6 +120,17 @@ public class SmsService {
         }
     }
 
+    /**
+     * Sends synchronously to an E.164 number; failures propagate (used by the outbox dispatcher).
+     */
+    public void sendNow(String toE164, String body) {
+        if (!isConfigured()) {
+            throw new IllegalStateException("SMS disabled: Twilio not configured");
+        }
+        initTwilio();
+        createAndSend(new PhoneNumber(toE164), body);
+    }
+
     private Message createAndSend(PhoneNumber to, String body) {
         if (messagingServiceSid != null && !messagingServiceSid.isBlank()) {
             return Message.creator(to, messagingServiceSid, body).create();
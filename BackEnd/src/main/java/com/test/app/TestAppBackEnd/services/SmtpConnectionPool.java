@@ -0,0 +1,229 @@
+package com.test.app.TestAppBackEnd.services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps authenticated SMTP connections open between sends. JavaMailSender.send() connects, runs STARTTLS and AUTH,
+ * and disconnects for every call, so a burst of status mails pays the handshake for each one. This pool caps
+ * open connections to the mail host, reuses idle ones (checked with NOOP) and closes those idle past idle-timeout.
+ */
+@Component
+public class SmtpConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    /** Per-message outcome of {@link #sendAll}; {@code error} is null on success. */
+    public record SendResult(MimeMessage message, Exception error) {}
+
+    private record PooledTransport(Transport transport, long openedAt, long lastUsedAt, int messagesSent) {}
+
+    private final JavaMailSender mailSender;
+    private final JavaMailSenderImpl senderImpl;
+    private final boolean enabled;
+    private final int maxConnections;
+    private final long idleTimeoutMillis;
+    private final int maxMessagesPerConnection;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ArrayDeque<>();
+
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong connectionsClosed = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong handshakeNanos = new AtomicLong();
+
+    public SmtpConnectionPool(JavaMailSender mailSender,
+                              @Value("${app.mail.pool.enabled:true}") boolean enabled,
+                              @Value("${app.mail.pool.max-connections:3}") int maxConnections,
+                              @Value("${app.mail.pool.idle-timeout-seconds:60}") long idleTimeoutSeconds,
+                              @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                              @Value("${app.mail.pool.acquire-timeout-seconds:30}") long acquireTimeoutSeconds) {
+        this.mailSender = mailSender;
+        this.senderImpl = mailSender instanceof JavaMailSenderImpl impl ? impl : null;
+        this.enabled = enabled && senderImpl != null;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+        this.acquireTimeoutMillis = TimeUnit.SECONDS.toMillis(acquireTimeoutSeconds);
+        this.permits = new Semaphore(this.maxConnections, true);
+    }
+
+    public void send(MimeMessage message) throws MessagingException {
+        Exception error = sendAll(List.of(message)).get(0).error();
+        if (error instanceof MessagingException me) throw me;
+        if (error instanceof RuntimeException re) throw re;
+        if (error != null) throw new MessagingException(error.getMessage(), error);
+    }
+
+    /**
+     * Sends the messages over one pooled connection. A failed message does not stop the rest; if the
+     * connection itself breaks, the remaining messages continue on a fresh one.
+     */
+    public List<SendResult> sendAll(List<MimeMessage> messages) {
+        if (!enabled) {
+            return messages.stream().map(m -> {
+                try {
+                    mailSender.send(m);
+                    return new SendResult(m, null);
+                } catch (Exception e) {
+                    return new SendResult(m, e);
+                }
+            }).toList();
+        }
+        List<SendResult> results = new ArrayList<>(messages.size());
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                MessagingException timeout = new MessagingException("Timed out waiting for an SMTP connection");
+                messages.forEach(m -> results.add(new SendResult(m, timeout)));
+                return results;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            MessagingException interrupted = new MessagingException("Interrupted waiting for an SMTP connection");
+            messages.forEach(m -> results.add(new SendResult(m, interrupted)));
+            return results;
+        }
+        PooledTransport conn = null;
+        try {
+            // Every message gets its own result as it goes, so one failure (a runtime one included) never hides
+            // the messages already delivered and gets them sent again
+            for (MimeMessage message : messages) {
+                try {
+                    if (conn == null) conn = borrow();
+                    conn = sendOn(conn, message);
+                    results.add(new SendResult(message, null));
+                } catch (MessagingException | RuntimeException e) {
+                    // After an unexpected failure the session state is unknown: start the next message on a fresh one
+                    if (conn != null && (e instanceof RuntimeException || !conn.transport().isConnected())) {
+                        close(conn);
+                        conn = null;
+                    }
+                    results.add(new SendResult(message, e));
+                }
+            }
+        } finally {
+            if (conn != null) release(conn);
+            permits.release();
+        }
+        return results;
+    }
+
+    private PooledTransport sendOn(PooledTransport conn, MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) message.setSentDate(new Date());
+        message.saveChanges();
+        conn.transport().sendMessage(message, message.getAllRecipients());
+        messagesSent.incrementAndGet();
+        return new PooledTransport(conn.transport(), conn.openedAt(), System.currentTimeMillis(), conn.messagesSent() + 1);
+    }
+
+    /** Idle connection if one is still alive, otherwise a new one. Caller holds a permit. */
+    private PooledTransport borrow() throws MessagingException {
+        while (true) {
+            PooledTransport candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) break;
+            if (isReusable(candidate) && candidate.transport().isConnected()) return candidate;
+            close(candidate);
+        }
+        return open();
+    }
+
+    private void release(PooledTransport conn) {
+        if (!isReusable(conn)) {
+            close(conn);
+            return;
+        }
+        synchronized (idle) {
+            idle.addFirst(conn);
+        }
+    }
+
+    private boolean isReusable(PooledTransport conn) {
+        return conn.messagesSent() < maxMessagesPerConnection
+                && System.currentTimeMillis() - conn.lastUsedAt() < idleTimeoutMillis;
+    }
+
+    private PooledTransport open() throws MessagingException {
+        long start = System.nanoTime();
+        Transport transport = senderImpl.getSession().getTransport(
+                senderImpl.getProtocol() != null ? senderImpl.getProtocol() : "smtp");
+        transport.connect(senderImpl.getHost(), senderImpl.getPort(), senderImpl.getUsername(), senderImpl.getPassword());
+        handshakeNanos.addAndGet(System.nanoTime() - start);
+        connectionsOpened.incrementAndGet();
+        long now = System.currentTimeMillis();
+        return new PooledTransport(transport, now, now, 0);
+    }
+
+    private void close(PooledTransport conn) {
+        try {
+            conn.transport().close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+        connectionsClosed.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.pool.evict-interval-ms:30000}")
+    public void evictIdle() {
+        List<PooledTransport> expired = new ArrayList<>();
+        synchronized (idle) {
+            idle.removeIf(conn -> {
+                if (isReusable(conn)) return false;
+                expired.add(conn);
+                return true;
+            });
+        }
+        expired.forEach(this::close);
+    }
+
+    public Map<String, Object> stats() {
+        long opened = connectionsOpened.get();
+        long sent = messagesSent.get();
+        double avgHandshakeMillis = opened == 0 ? 0 : handshakeNanos.get() / opened / 1_000_000.0;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxConnections", maxConnections);
+        synchronized (idle) {
+            stats.put("idleConnections", idle.size());
+        }
+        stats.put("connectionsOpened", opened);
+        stats.put("connectionsClosed", connectionsClosed.get());
+        stats.put("messagesSent", sent);
+        stats.put("messagesPerConnection", opened == 0 ? 0 : (double) sent / opened);
+        stats.put("avgHandshakeMillis", avgHandshakeMillis);
+        // Each reused send skipped a connect + STARTTLS + AUTH round
+        stats.put("handshakeMillisSaved", Math.max(0, sent - opened) * avgHandshakeMillis);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (idle) {
+            idle.forEach(this::close);
+            idle.clear();
+        }
+    }
+}
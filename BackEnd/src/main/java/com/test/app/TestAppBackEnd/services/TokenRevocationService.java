@@ -0,0 +1,134 @@
+package com.test.app.TestAppBackEnd.services;
+
+import com.test.app.TestAppBackEnd.entities.TokenRevocation;
+import com.test.app.TestAppBackEnd.repositories.TokenRevocationRepository;
+import com.test.app.TestAppBackEnd.security.PrincipalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single hook for "this user's current tokens/principal are no longer valid" (delete, password or role change).
+ * Always evicts the {@link PrincipalCache}. In stateless auth mode it also records a revocation row so every
+ * node rejects tokens issued before that moment; the list is held in memory and synced from the DB periodically,
+ * so the auth hot path does no SQL.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final String ALL_USERS = "*";
+    /** Re-read a little before the last sync so rows committed late on other nodes are not missed. */
+    private static final long SYNC_OVERLAP_MILLIS = 5_000;
+
+    private final TokenRevocationRepository repository;
+    private final PrincipalCache principalCache;
+    private final boolean statelessAuth;
+    private final long tokenLifetimeMillis;
+
+    /**
+     * Lower-cased username -> tokens issued before this instant are revoked. Held at whole seconds, the precision of
+     * a token's iat, so a token issued in the same second as the revocation (an immediate re-login) stays valid.
+     */
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+    private volatile long allRevokedBefore = 0;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationService(TokenRevocationRepository repository,
+                                  PrincipalCache principalCache,
+                                  @Value("${app.security.stateless-auth.enabled:false}") boolean statelessAuth,
+                                  @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.repository = repository;
+        this.principalCache = principalCache;
+        this.statelessAuth = statelessAuth;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    public boolean isStatelessAuth() {
+        return statelessAuth;
+    }
+
+    /** Invalidates the user's cached principal and, in stateless mode, every token issued to them so far. */
+    public void revoke(String username, String reason) {
+        if (username == null || username.isBlank()) return;
+        principalCache.invalidate(username);
+        if (!statelessAuth) return;
+        TokenRevocation saved = repository.save(new TokenRevocation(username, Instant.now(), reason));
+        apply(saved);
+        log.info("Revoked tokens for {} ({})", username, reason);
+    }
+
+    /** Invalidates every cached principal and, in stateless mode, every token issued so far. */
+    public void revokeAll(String reason) {
+        principalCache.invalidateAll();
+        if (!statelessAuth) return;
+        TokenRevocation saved = repository.save(new TokenRevocation(ALL_USERS, Instant.now(), reason));
+        apply(saved);
+        log.info("Revoked all tokens ({})", reason);
+    }
+
+    /** O(1) in-memory check used by JwtFilter in stateless mode. */
+    public boolean isRevoked(String username, long issuedAtMillis) {
+        if (issuedAtMillis < allRevokedBefore) return true;
+        if (username == null) return false;
+        Long before = revokedBefore.get(username.toLowerCase(Locale.ROOT));
+        return before != null && issuedAtMillis < before;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!statelessAuth) return;
+        sync();
+        log.info("Stateless auth enabled: loaded {} token revocation(s)", revokedBefore.size());
+    }
+
+    /** Pulls revocations recorded by other nodes and drops rows that only cover already-expired tokens. */
+    @Scheduled(fixedDelayString = "${app.security.stateless-auth.revocation-sync-ms:15000}",
+            initialDelayString = "${app.security.stateless-auth.revocation-sync-ms:15000}")
+    public void sync() {
+        if (!statelessAuth) return;
+        try {
+            Instant now = Instant.now();
+            Instant cutoff = now.minusMillis(tokenLifetimeMillis);
+            Instant since = lastSync.equals(Instant.EPOCH) ? cutoff : lastSync.minusMillis(SYNC_OVERLAP_MILLIS);
+            List<TokenRevocation> changes = repository.findByRevokedAtAfter(since);
+            changes.forEach(this::apply);
+            lastSync = now;
+
+            long cutoffMillis = cutoff.toEpochMilli();
+            revokedBefore.values().removeIf(before -> before < cutoffMillis);
+            repository.deleteOlderThan(cutoff);
+        } catch (Exception e) {
+            log.error("Token revocation sync failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statelessAuth", statelessAuth);
+        stats.put("revokedUsers", revokedBefore.size());
+        stats.put("allRevokedBefore", allRevokedBefore > 0 ? Instant.ofEpochMilli(allRevokedBefore).toString() : null);
+        stats.put("lastSync", statelessAuth ? lastSync.toString() : null);
+        return stats;
+    }
+
+    private void apply(TokenRevocation revocation) {
+        long at = revocation.getRevokedAt().getEpochSecond() * 1000;
+        if (ALL_USERS.equals(revocation.getUsername())) {
+            if (at > allRevokedBefore) allRevokedBefore = at;
+            return;
+        }
+        revokedBefore.merge(revocation.getUsername().toLowerCase(Locale.ROOT), at, Math::max);
+    }
+}
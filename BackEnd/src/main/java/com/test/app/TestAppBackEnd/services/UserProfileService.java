@@ -4,13 +4,18 @@ import com.test.app.TestAppBackEnd.constants.Role;
 import com.test.app.TestAppBackEnd.entities.UserProfile;
 import com.test.app.TestAppBackEnd.models.ApiResponse;
 import com.test.app.TestAppBackEnd.models.CommunicationRequest;
+import com.test.app.TestAppBackEnd.models.CursorPage;
+import com.test.app.TestAppBackEnd.models.UserProfileSummary;
 import com.test.app.TestAppBackEnd.repositories.UserProfileRepository;
+import com.test.app.TestAppBackEnd.util.PageCursor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Async;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -18,11 +23,21 @@ public class UserProfileService {
 
     private final UserProfileRepository repository;
     private final CommunicationService communicationService;
-
-    public UserProfileService(UserProfileRepository repository, CommunicationService communicationService) {
+    private final TokenRevocationService tokenRevocationService;
+    private final FullTextSearch fullTextSearch;
+    private final ProviderCapacity providerCapacity;
+    private final ResourceVersions versions;
+
+    public UserProfileService(UserProfileRepository repository, CommunicationService communicationService,
+                              TokenRevocationService tokenRevocationService, FullTextSearch fullTextSearch,
+                              ProviderCapacity providerCapacity, ResourceVersions versions) {
         this.repository = repository;
 
         this.communicationService = communicationService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.fullTextSearch = fullTextSearch;
+        this.providerCapacity = providerCapacity;
+        this.versions = versions;
     }
 
     // ================= HELPER METHODS =================
@@ -77,21 +92,39 @@ public class UserProfileService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
     }
 
-    public List<UserProfile> getProfilesByRole(Role role) {
-        return repository.findByRoles(role);
+    /**
+     * Profile lists are keyset-paginated on username: pass the previous page's nextCursor to continue.
+     * With a search, one page of the best matches is returned and there is no next cursor.
+     * Rows are {@link UserProfileSummary} projections read straight from the columns, not entities.
+     */
+    public CursorPage<UserProfileSummary> getProfilesByRole(Role role, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        return page(repository.findSummaryPageByRole(role.name(), afterUsername(cursor), PageCursor.probe(size)), size);
     }
 
-    private static final int DEFAULT_PAGE_SIZE = 50;
+    public CursorPage<UserProfileSummary> getAllProfiles(String search, String cursor, Integer limit) {
+        int size = PageCursor.limit(limit);
+        if (search != null && !search.isBlank()) {
+            String q = fullTextSearch.toBooleanQuery(search);
+            Pageable top = PageRequest.of(0, size);
+            return CursorPage.single(summaries(q != null
+                    ? repository.searchSummaries(q, top)
+                    : repository.findSummariesWithSearch(search.trim(), top)));
+        }
+        return page(repository.findSummaryPage(afterUsername(cursor), PageCursor.probe(size)), size);
+    }
 
-    public Iterable<UserProfile> getAllProfiles() {
-        return repository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+    private static CursorPage<UserProfileSummary> page(List<UserProfileRepository.SummaryRow> rows, int size) {
+        return CursorPage.of(summaries(rows), size, p -> PageCursor.encode(p.username()));
     }
 
-    public Iterable<UserProfile> getAllProfiles(String search) {
-        if (search != null && !search.isBlank()) {
-            return repository.findAllWithSearch(search.trim(), PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
-        }
-        return repository.findAll(PageRequest.of(0, DEFAULT_PAGE_SIZE)).getContent();
+    private static List<UserProfileSummary> summaries(List<UserProfileRepository.SummaryRow> rows) {
+        return rows.stream().map(UserProfileSummary::of).toList();
+    }
+
+    private static String afterUsername(String cursor) {
+        String[] keys = PageCursor.decode(cursor, 1);
+        return keys != null ? keys[0] : null;
     }
 
     // ================= UPDATE =================
@@ -99,6 +132,7 @@ public class UserProfileService {
         return repository.findByUsername(username)
                 .map(existing -> {
                     boolean rolesChanged = isAdmin && !existing.getRoles().equals(updatedProfile.getRoles());
+                    boolean phoneChanged = !Objects.equals(existing.getPhoneNumber(), updatedProfile.getPhoneNumber());
 
                     existing.setFirstName(updatedProfile.getFirstName());
                     existing.setLastName(updatedProfile.getLastName());
@@ -125,7 +159,16 @@ public class UserProfileService {
                     existing.setUpdatedAt(LocalDateTime.now());
 
                     UserProfile savedProfile = repository.save(existing);
+                    providerCapacity.updateLimit(savedProfile.getId(), savedProfile.getNumberOfEmployees());
+                    // Job lists show the client's phone number
+                    if (phoneChanged) {
+                        versions.bumpAll();
+                    }
 
+                    // Authorities come from the profile roles, so cached principals / role-carrying tokens are stale
+                    if (rolesChanged) {
+                        tokenRevocationService.revoke(username, "roles-changed");
+                    }
 
                     CommunicationRequest request = new CommunicationRequest();
                     request.setTo(savedProfile.getEmail()); // can also be phone number or device token
@@ -143,6 +186,7 @@ public class UserProfileService {
         return repository.findByUsername(username)
                 .map(profile -> {
                     repository.delete(profile);
+                    tokenRevocationService.revoke(username, "profile-deleted");
                     return true;
                 })
                 .orElse(false);
@@ -0,0 +1,134 @@
+package com.test.app.TestAppBackEnd.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding plus the bounding-box and distance helpers used by nearby searches.
+ * Distances use the same sphere as MySQL's ST_Distance_Sphere so in-memory and SQL results agree.
+ */
+public final class GeoHash {
+
+    /** Earth radius used by ST_Distance_Sphere. */
+    public static final double EARTH_RADIUS_METERS = 6_370_986;
+    public static final int MAX_PRECISION = 12;
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() {}
+
+    /** Box around a circle; {@code minLng > maxLng} means it wraps across the antimeridian. */
+    public record BoundingBox(double minLat, double maxLat, double minLng, double maxLng) {
+        public boolean crossesAntimeridian() {
+            return minLng > maxLng;
+        }
+
+        public boolean contains(double lat, double lng) {
+            if (lat < minLat || lat > maxLat) return false;
+            return crossesAntimeridian() ? lng >= minLng || lng <= maxLng : lng >= minLng && lng <= maxLng;
+        }
+    }
+
+    public static String encode(double lat, double lng, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0, ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) { ch = (ch << 1) | 1; minLng = mid; } else { ch <<= 1; maxLng = mid; }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) { ch = (ch << 1) | 1; minLat = mid; } else { ch <<= 1; maxLat = mid; }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static double cellHeightDegrees(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    public static double cellWidthDegrees(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /** Rough number of cells {@link #cellsCovering} returns, without building them. */
+    public static long estimateCells(BoundingBox box, int precision) {
+        double width = box.crossesAntimeridian() ? 360 - box.minLng() + box.maxLng() : box.maxLng() - box.minLng();
+        long rows = (long) Math.ceil((box.maxLat() - box.minLat()) / cellHeightDegrees(precision)) + 1;
+        long cols = (long) Math.ceil(width / cellWidthDegrees(precision)) + 1;
+        return rows * cols;
+    }
+
+    /** Geohash cells of the given precision that together cover the box. */
+    public static Set<String> cellsCovering(BoundingBox box, int precision) {
+        Set<String> cells = new LinkedHashSet<>();
+        if (box.crossesAntimeridian()) {
+            addCells(cells, box.minLat(), box.maxLat(), box.minLng(), 180, precision);
+            addCells(cells, box.minLat(), box.maxLat(), -180, box.maxLng(), precision);
+        } else {
+            addCells(cells, box.minLat(), box.maxLat(), box.minLng(), box.maxLng(), precision);
+        }
+        return cells;
+    }
+
+    private static void addCells(Set<String> cells, double minLat, double maxLat, double minLng, double maxLng, int precision) {
+        double dLat = cellHeightDegrees(precision);
+        double dLng = cellWidthDegrees(precision);
+        // Stepping by exactly one cell visits every row/column; the max edge is added explicitly.
+        for (double lat = minLat; ; lat = Math.min(lat + dLat, maxLat)) {
+            for (double lng = minLng; ; lng = Math.min(lng + dLng, maxLng)) {
+                cells.add(encode(lat, Math.min(lng, 180 - 1e-9), precision));
+                if (lng >= maxLng) break;
+            }
+            if (lat >= maxLat) break;
+        }
+    }
+
+    public static BoundingBox boundingBox(double lat, double lng, double radiusMeters) {
+        double dLat = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double minLat = lat - dLat;
+        double maxLat = lat + dLat;
+        if (minLat <= -90 || maxLat >= 90) {
+            return new BoundingBox(Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180);
+        }
+        double dLng = Math.toDegrees(radiusMeters / (EARTH_RADIUS_METERS * Math.cos(Math.toRadians(lat))));
+        if (dLng >= 180) {
+            return new BoundingBox(minLat, maxLat, -180, 180);
+        }
+        return new BoundingBox(minLat, maxLat, wrap(lng - dLng), wrap(lng + dLng));
+    }
+
+    /** Haversine distance, matching ST_Distance_Sphere. */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /** Parses a stored coordinate string, or null when it is blank or not a number in range. */
+    public static Double parseCoordinate(String value, double limit) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            return Double.isFinite(parsed) && Math.abs(parsed) <= limit ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static double wrap(double lng) {
+        if (lng < -180) return lng + 360;
+        if (lng > 180) return lng - 360;
+        return lng;
+    }
+}
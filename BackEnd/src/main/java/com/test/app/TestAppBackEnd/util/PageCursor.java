@@ -0,0 +1,74 @@
+package com.test.app.TestAppBackEnd.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset (seek) pagination. A cursor holds the sort key of the last row
+ * returned, e.g. (date, id); the next page is "rows after that key", which costs the same at any depth.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    private static final String SEPARATOR = "\n";
+
+    /** Position after a row sorted by (sortKey, id). */
+    public record Key<T>(T sortKey, String id) {}
+
+    private PageCursor() {}
+
+    /** Requested page size clamped to 1..MAX_LIMIT; DEFAULT_LIMIT when absent. */
+    public static int limit(Integer requested) {
+        if (requested == null) return DEFAULT_LIMIT;
+        return Math.max(1, Math.min(MAX_LIMIT, requested));
+    }
+
+    /** Fetches one extra row so the caller can tell whether another page exists, without a COUNT query. */
+    public static Pageable probe(int limit) {
+        return PageRequest.ofSize(limit + 1);
+    }
+
+    public static String encode(String... keys) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, keys).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the sort key parts, or null for no cursor (first page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static String[] decode(String cursor, int parts) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (keys.length != parts) throw new IllegalArgumentException("Invalid cursor");
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /** Cursor pointing just after the row with this (sortKey, id). */
+    public static String after(Object sortKey, String id) {
+        return encode(String.valueOf(sortKey), id);
+    }
+
+    /**
+     * @return the (sortKey, id) position, or null for no cursor (first page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static <T> Key<T> decodeKey(String cursor, Function<String, T> parser) {
+        String[] keys = decode(cursor, 2);
+        if (keys == null) return null;
+        try {
+            return new Key<>(parser.apply(keys[0]), keys[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
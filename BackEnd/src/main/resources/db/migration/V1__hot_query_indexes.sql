@@ -0,0 +1,44 @@
+-- Composite indexes for the hot repository queries. Tables and columns are still created by
+-- Hibernate (ddl-auto=update); migrations run after it and only add what JPA cannot express well.
+-- Column order: equality filters first, then the range/sort columns, then id for keyset pagination.
+-- Checked by RepositoryIndexUsageTest (EXPLAIN on a seeded dataset).
+
+-- request_mechanic ------------------------------------------------------------------------------
+-- findByUsername, findPageByUsername, findByUsernameAndDateBetweenOrderByDateDesc
+CREATE INDEX idx_rm_client_date ON request_mechanic (`Client Username`, `Date`, id);
+-- findByMechanicId, findPageByMechanicId, findByMechanicIdAndDateBetweenOrderByDateDesc
+CREATE INDEX idx_rm_provider_date ON request_mechanic (`Service Provider Id`, `Date`, id);
+-- findByMechanicIdAndStatusAndDateBetweenOrderByDateDesc, countIncompleteByMechanicId, countPaidIncompleteByMechanicId
+CREATE INDEX idx_rm_provider_status_date ON request_mechanic (`Service Provider Id`, status, `Date`);
+-- findPageByStatusAndMechanicIdIsNull (available jobs)
+CREATE INDEX idx_rm_status_provider_date ON request_mechanic (status, `Service Provider Id`, `Date`, id);
+-- findPage (admin list)
+CREATE INDEX idx_rm_date ON request_mechanic (`Date`, id);
+
+-- car_wash_booking ------------------------------------------------------------------------------
+-- findByClientUsername, findPageByClientUsername, findByClientUsernameAndDateBetween
+CREATE INDEX idx_cwb_client_date ON car_wash_booking (client_username, date, id);
+-- findByCarWashId, findPageByCarWashId
+CREATE INDEX idx_cwb_carwash_date ON car_wash_booking (car_wash_id, date, id);
+-- findByCarWashIdAndStatusCompletedAndDateBetween, countIncompleteByCarWashId, countPaidIncompleteByCarWashId
+CREATE INDEX idx_cwb_carwash_status_date ON car_wash_booking (car_wash_id, status, date);
+-- findPage (admin list)
+CREATE INDEX idx_cwb_date ON car_wash_booking (date, id);
+
+-- payments --------------------------------------------------------------------------------------
+-- findByClientUsername, findPageByClientUsername
+CREATE INDEX idx_pay_client_paid ON payments (client_username, paid_at, id);
+-- findByMechanicId, findPageByMechanicId, findByMechanicIdAndPaidAtBetweenOrderByPaidAtDesc
+CREATE INDEX idx_pay_mechanic_paid ON payments (mechanic_id, paid_at, id);
+-- findByCarWashId, findPageByCarWashId, findByCarWashIdAndPaidAtBetweenOrderByPaidAtDesc
+CREATE INDEX idx_pay_carwash_paid ON payments (car_wash_id, paid_at, id);
+-- findPage (admin list)
+CREATE INDEX idx_pay_paid ON payments (paid_at, id);
+
+-- provider_service_offering ---------------------------------------------------------------------
+-- findByProviderId
+CREATE INDEX idx_pso_provider ON provider_service_offering (provider_id);
+-- findByProviderTypeOrderByServiceNameAsc, findNearbyByOfferingType
+CREATE INDEX idx_pso_type_name ON provider_service_offering (provider_type, service_name);
+-- findByProviderUsernameAndProviderTypeOrderByServiceNameAsc
+CREATE INDEX idx_pso_username_type_name ON provider_service_offering (provider_username, provider_type, service_name);
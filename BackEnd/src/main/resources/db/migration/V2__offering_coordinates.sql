@@ -0,0 +1,12 @@
+-- Nearby offering search: numeric coordinates (geo_lat/geo_lng, added by Hibernate and kept in sync by the
+-- entity) replace CAST(TRIM(latitude) AS DECIMAL) so the bounding-box prefilter can range-scan an index.
+
+UPDATE provider_service_offering
+SET geo_lat = CAST(TRIM(latitude) AS DECIMAL(12, 8)),
+    geo_lng = CAST(TRIM(longitude) AS DECIMAL(12, 8))
+WHERE geo_lat IS NULL
+  AND TRIM(latitude) REGEXP '^-?[0-9]{1,2}(\\.[0-9]+)?$'
+  AND TRIM(longitude) REGEXP '^-?[0-9]{1,3}(\\.[0-9]+)?$';
+
+-- findNearbyByOfferingType: equality on type, range on latitude, longitude filtered from the index
+CREATE INDEX idx_pso_type_geo ON provider_service_offering (provider_type, geo_lat, geo_lng);
@@ -0,0 +1,5 @@
+-- Optimistic-lock columns for request_mechanic and car_wash_booking (added by Hibernate as nullable).
+-- Rows written before the column existed get version 0; a NULL version would make Spring Data treat a
+-- loaded entity as new on save.
+UPDATE request_mechanic SET version = 0 WHERE version IS NULL;
+UPDATE car_wash_booking SET version = 0 WHERE version IS NULL;
@@ -0,0 +1,23 @@
+-- Job and booking statuses are now JobStatus values stored as their labels (JobStatusConverter). Older clients
+-- wrote "In progress", "in_progress", "declined"; normalize every row so it converts, then shrink the column
+-- so the status indexes stay small.
+
+UPDATE request_mechanic SET status = LOWER(TRIM(REPLACE(status, '_', ' ')));
+UPDATE request_mechanic SET status = 'cancelled' WHERE status IN ('declined', 'rejected', 'canceled');
+-- anything else unknown: open if nobody took it, otherwise taken
+UPDATE request_mechanic
+SET status = CASE WHEN `Service Provider Id` IS NULL THEN 'pending' ELSE 'assigned' END
+WHERE status IS NULL
+   OR status NOT IN ('pending', 'assigned', 'accepted', 'paid', 'in progress', 'completed', 'cancelled');
+ALTER TABLE request_mechanic MODIFY status VARCHAR(16) NOT NULL;
+
+UPDATE car_wash_booking SET status = LOWER(TRIM(REPLACE(status, '_', ' ')));
+UPDATE car_wash_booking SET status = 'cancelled' WHERE status IN ('declined', 'rejected', 'canceled');
+UPDATE car_wash_booking
+SET status = CASE WHEN car_wash_id IS NULL THEN 'pending' ELSE 'accepted' END
+WHERE status IS NULL
+   OR status NOT IN ('pending', 'assigned', 'accepted', 'paid', 'in progress', 'completed', 'cancelled');
+ALTER TABLE car_wash_booking MODIFY status VARCHAR(16) NOT NULL;
+
+-- countInFlightByCarWash: equality on status first, grouped by provider (request_mechanic has idx_rm_status_provider_date)
+CREATE INDEX idx_cwb_status_carwash ON car_wash_booking (status, car_wash_id);
@@ -0,0 +1,33 @@
+-- Requested services are now line items (JobLineItem) in request_mechanic_line_items and car_wash_booking_line_items,
+-- both created by Hibernate. Backfill unpriced lines for existing rows: mechanic jobs from the comma-separated
+-- description, bookings from the old car_wash_services name list (left in place, no longer mapped).
+
+INSERT INTO request_mechanic_line_items (request_id, line_no, service_name)
+WITH RECURSIVE parts (request_id, n, part, rest) AS (
+    SELECT id, 0, SUBSTRING_INDEX(`Job Description`, ',', 1),
+           IF(LOCATE(',', `Job Description`) > 0, SUBSTRING(`Job Description`, LOCATE(',', `Job Description`) + 1), NULL)
+    FROM request_mechanic r
+    WHERE NOT EXISTS (SELECT 1 FROM request_mechanic_line_items li WHERE li.request_id = r.id)
+    UNION ALL
+    SELECT request_id, n + 1, SUBSTRING_INDEX(rest, ',', 1),
+           IF(LOCATE(',', rest) > 0, SUBSTRING(rest, LOCATE(',', rest) + 1), NULL)
+    FROM parts
+    WHERE rest IS NOT NULL
+)
+SELECT request_id, ROW_NUMBER() OVER (PARTITION BY request_id ORDER BY MIN(n)) - 1, TRIM(part)
+FROM parts
+WHERE TRIM(part) <> ''
+GROUP BY request_id, TRIM(part);
+
+-- Databases created after the switch never had the old table
+CREATE TABLE IF NOT EXISTS car_wash_services (
+    booking_id VARCHAR(36) NOT NULL,
+    service_type VARCHAR(255)
+);
+
+INSERT INTO car_wash_booking_line_items (booking_id, line_no, service_name)
+SELECT booking_id, ROW_NUMBER() OVER (PARTITION BY booking_id ORDER BY MIN(service_type)) - 1, TRIM(service_type)
+FROM car_wash_services s
+WHERE TRIM(service_type) <> ''
+  AND NOT EXISTS (SELECT 1 FROM car_wash_booking_line_items li WHERE li.booking_id = s.booking_id)
+GROUP BY booking_id, TRIM(service_type);
@@ -0,0 +1,40 @@
+-- FULLTEXT indexes for the list endpoints' search parameter (FullTextSearch, search* repository queries).
+-- Column lists must match the MATCH(...) clauses in the repositories. Adding the first FULLTEXT index on a
+-- table rebuilds it once. Databases that ran the old startup DDL already have these, so each one is added
+-- only when missing.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'request_mechanic'
+                 AND index_name = 'ft_request_mechanic_search') = 0,
+    'ALTER TABLE request_mechanic ADD FULLTEXT INDEX ft_request_mechanic_search (`Job Description`, `Job Location`, status, `Client Username`, `Car Plate`, `Car Type`)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'car_wash_booking'
+                 AND index_name = 'ft_car_wash_booking_search') = 0,
+    'ALTER TABLE car_wash_booking ADD FULLTEXT INDEX ft_car_wash_booking_search (car_plate, location, status, car_description, client_username)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'payments'
+                 AND index_name = 'ft_payments_search') = 0,
+    'ALTER TABLE payments ADD FULLTEXT INDEX ft_payments_search (job_description, client_username, status, job_id)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'user_profiles'
+                 AND index_name = 'ft_user_profiles_search') = 0,
+    'ALTER TABLE user_profiles ADD FULLTEXT INDEX ft_user_profiles_search (username, email, first_name, last_name, phone_number)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,246 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.config.SchemaMigrationConfig;
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.CarWashBooking;
+import com.test.app.TestAppBackEnd.entities.MechanicRequest;
+import com.test.app.TestAppBackEnd.entities.UserProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Hundreds of parallel accepts against real MySQL row locking: every job and booking must end up with exactly one
+ * winner, and that winner must be the one stored; a provider at capacity never wins. Needs Docker; skipped otherwise.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobClaimConcurrencyTest {
+
+    private static final int JOBS = 20;
+    private static final int ACCEPTS_PER_JOB = 20;
+    private static final int THREADS = 32;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired private MechanicRequestRepository mechanicRequests;
+    @Autowired private CarWashBookingRepository carWashBookings;
+    @Autowired private UserProfileRepository profiles;
+
+    @Test
+    void parallelMechanicAcceptsAssignEachJobOnce() throws Exception {
+        List<String> jobIds = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            jobIds.add(mechanicRequests.save(pendingJob(i)).getId());
+        }
+
+        Map<String, List<String>> winners = race(jobIds, providers(), (jobId, mechanicId) -> mechanicRequests.claim(jobId, mechanicId));
+
+        for (String jobId : jobIds) {
+            List<String> jobWinners = winners.getOrDefault(jobId, List.of());
+            assertEquals(1, jobWinners.size(), "winners for job " + jobId + ": " + jobWinners);
+            MechanicRequest stored = mechanicRequests.findById(jobId).orElseThrow();
+            assertEquals(jobWinners.get(0), stored.getMechanicId());
+            assertEquals(JobStatus.ASSIGNED, stored.getStatus());
+        }
+    }
+
+    @Test
+    void parallelCarWashAcceptsAssignEachBookingOnce() throws Exception {
+        List<String> bookingIds = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            bookingIds.add(carWashBookings.save(pendingBooking(i)).getId());
+        }
+
+        Map<String, List<String>> winners = race(bookingIds, providers(), (bookingId, carWashId) -> carWashBookings.claim(bookingId, carWashId, null));
+
+        for (String bookingId : bookingIds) {
+            List<String> bookingWinners = winners.getOrDefault(bookingId, List.of());
+            assertEquals(1, bookingWinners.size(), "winners for booking " + bookingId + ": " + bookingWinners);
+            assertEquals(bookingWinners.get(0), carWashBookings.findById(bookingId).orElseThrow().getCarWashId());
+        }
+    }
+
+    @Test
+    void parallelMechanicAcceptsRespectCapacity() throws Exception {
+        // Two employees and two paid jobs: at the limit. Accepted-but-unpaid jobs do not use capacity.
+        String busy = provider("busy-mechanic", 2L);
+        String free = provider("free-mechanic", 2L);
+        for (int i = 0; i < 2; i++) {
+            MechanicRequest paid = pendingJob(900 + i);
+            paid.setMechanicId(busy);
+            paid.setStatus(JobStatus.PAID);
+            mechanicRequests.save(paid);
+        }
+        List<String> jobIds = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            jobIds.add(mechanicRequests.save(pendingJob(920 + i)).getId());
+        }
+
+        Map<String, List<String>> winners = race(jobIds, alternating(busy, free),
+                (jobId, mechanicId) -> mechanicRequests.claim(jobId, mechanicId));
+
+        for (String jobId : jobIds) {
+            assertEquals(List.of(free), winners.getOrDefault(jobId, List.of()), "winners for job " + jobId);
+            assertEquals(free, mechanicRequests.findById(jobId).orElseThrow().getMechanicId());
+        }
+    }
+
+    @Test
+    void parallelCarWashAcceptsRespectCapacity() throws Exception {
+        String busy = provider("busy-carwash", 1L);
+        String free = provider("free-carwash", 1L);
+        CarWashBooking paid = pendingBooking(900);
+        paid.setCarWashId(busy);
+        paid.setStatus(JobStatus.PAID);
+        carWashBookings.save(paid);
+        List<String> bookingIds = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            bookingIds.add(carWashBookings.save(pendingBooking(920 + i)).getId());
+        }
+
+        Map<String, List<String>> winners = race(bookingIds, alternating(busy, free),
+                (bookingId, carWashId) -> carWashBookings.claim(bookingId, carWashId, null));
+
+        for (String bookingId : bookingIds) {
+            assertEquals(List.of(free), winners.getOrDefault(bookingId, List.of()), "winners for booking " + bookingId);
+            assertEquals(free, carWashBookings.findById(bookingId).orElseThrow().getCarWashId());
+        }
+    }
+
+    @Test
+    void bookingThatLeftPendingCannotBeClaimed() {
+        CarWashBooking cancelled = pendingBooking(998);
+        cancelled.setStatus(JobStatus.CANCELLED);
+        String id = carWashBookings.save(cancelled).getId();
+
+        assertEquals(0, carWashBookings.claim(id, "provider-0", null));
+        CarWashBooking stored = carWashBookings.findById(id).orElseThrow();
+        assertNull(stored.getCarWashId());
+        assertEquals(JobStatus.CANCELLED, stored.getStatus());
+    }
+
+    @Test
+    void saveFromStaleReadIsRejected() {
+        String id = mechanicRequests.save(pendingJob(999)).getId();
+        MechanicRequest first = mechanicRequests.findById(id).orElseThrow();
+        MechanicRequest second = mechanicRequests.findById(id).orElseThrow();
+
+        first.setLocation("Updated by first");
+        mechanicRequests.save(first);
+        second.setLocation("Updated by second");
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> mechanicRequests.save(second));
+        assertEquals("Updated by first", mechanicRequests.findById(id).orElseThrow().getLocation());
+    }
+
+    private interface Claim {
+        int claim(String id, String providerId);
+    }
+
+    /** Distinct providers without a profile, so at the default limit of 1 with nothing in flight. */
+    private static List<String> providers() {
+        List<String> providers = new ArrayList<>();
+        for (int p = 0; p < ACCEPTS_PER_JOB; p++) {
+            providers.add("provider-" + p);
+        }
+        return providers;
+    }
+
+    private static List<String> alternating(String first, String second) {
+        List<String> providers = new ArrayList<>();
+        for (int p = 0; p < ACCEPTS_PER_JOB; p++) {
+            providers.add(p % 2 == 0 ? first : second);
+        }
+        return providers;
+    }
+
+    /** Fires one claim per id and provider, all at once; returns the providers that got 1 back. */
+    private Map<String, List<String>> race(List<String> ids, List<String> providers, Claim claim) throws Exception {
+        Map<String, List<String>> winners = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (String id : ids) {
+                for (String providerId : providers) {
+                    attempts.add(pool.submit(() -> {
+                        start.await();
+                        if (claim.claim(id, providerId) == 1) {
+                            winners.computeIfAbsent(id, k -> Collections.synchronizedList(new ArrayList<>())).add(providerId);
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return winners;
+    }
+
+    private String provider(String username, Long employees) {
+        UserProfile profile = new UserProfile();
+        profile.setUsername(username);
+        profile.setEmail(username + "@example.com");
+        profile.setNumberOfEmployees(employees);
+        return profiles.save(profile).getId();
+    }
+
+    private static MechanicRequest pendingJob(int n) {
+        MechanicRequest request = new MechanicRequest();
+        request.setUsername("client-" + n);
+        request.setDescription("Oil change");
+        request.setLocation("Street " + n);
+        request.setDate(LocalDate.now());
+        request.setServicePrice(300.0);
+        request.setCarType("Sedan");
+        request.setCarPlate("CA" + n);
+        return request;
+    }
+
+    private static CarWashBooking pendingBooking(int n) {
+        CarWashBooking booking = new CarWashBooking();
+        booking.setClientUsername("client-" + n);
+        booking.setCarPlate("CW" + n);
+        booking.setCarType("Hatchback");
+        booking.setServicePrice(120.0);
+        booking.setDate(LocalDate.now());
+        booking.setLocation("Street " + n);
+        return booking;
+    }
+}
@@ -0,0 +1,165 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.CarWashBooking;
+import com.test.app.TestAppBackEnd.entities.JobLineItem;
+import com.test.app.TestAppBackEnd.entities.MechanicRequest;
+import com.test.app.TestAppBackEnd.services.ReportService;
+import com.test.app.TestAppBackEnd.util.PageCursor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lists and CSV exports must not load line items booking by booking: each path sends the same number of statements
+ * for one row as for a full page.
+ */
+@Import(ReportService.class)
+class LineItemQueryCountTest extends MySqlQueryTestSupport {
+
+    private static final List<String> SERVICES = List.of("Exterior wash", "Wax", "Interior vacuum");
+
+    @Autowired private CarWashBookingRepository carWashBookings;
+    @Autowired private MechanicRequestRepository mechanicRequests;
+    @Autowired private ReportService reportService;
+    @Autowired private TestEntityManager entityManager;
+
+    private final LocalDate today = LocalDate.now();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, PageCursor.MAX_LIMIT})
+    void bookingPagesLoadServicesInOneQuery(int rows) {
+        String carWash = seedBookings(rows).carWashId();
+
+        inspector.start();
+        List<CarWashBooking> page = carWashBookings.findPageByCarWashId(carWash, null, null, PageCursor.probe(rows));
+        page.forEach(b -> assertEquals(SERVICES, b.getServiceTypes()));
+        List<QueryPlanInspector.RecordedQuery> statements = inspector.stop();
+
+        assertEquals(rows, page.size());
+        assertEquals(2, statements.size(), describe(statements));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, PageCursor.MAX_LIMIT})
+    void dateRangeListsFetchServicesWithTheBookings(int rows) {
+        Seeded seeded = seedBookings(rows);
+
+        inspector.start();
+        List<CarWashBooking> byClient = carWashBookings.findByClientUsernameAndDateBetween(
+                seeded.client(), today.minusDays(rows).toString(), today.toString());
+        byClient.forEach(b -> assertEquals(SERVICES, b.getServiceTypes()));
+        List<CarWashBooking> completed = carWashBookings.findByCarWashIdAndStatusAndDateBetween(
+                seeded.carWashId(), JobStatus.COMPLETED, today.minusDays(rows).toString(), today.toString());
+        completed.forEach(b -> assertEquals(SERVICES, b.getServiceTypes()));
+        List<QueryPlanInspector.RecordedQuery> statements = inspector.stop();
+
+        assertEquals(rows, byClient.size());
+        assertEquals(rows, completed.size());
+        assertEquals(2, statements.size(), describe(statements));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, PageCursor.MAX_LIMIT})
+    void carWashExportsAreOneStatement(int rows) {
+        Seeded seeded = seedBookings(rows);
+        String from = today.minusDays(rows).toString();
+        String to = today.toString();
+
+        inspector.start();
+        ByteArrayOutputStream clientReport = new ByteArrayOutputStream();
+        reportService.writeCarWashReportCsv(seeded.client(), from, to, clientReport);
+        List<QueryPlanInspector.RecordedQuery> clientStatements = inspector.stop();
+
+        inspector.start();
+        ByteArrayOutputStream providerReport = new ByteArrayOutputStream();
+        reportService.writeCompletedJobsReportCsv(null, seeded.carWashId(), from, to, providerReport);
+        List<QueryPlanInspector.RecordedQuery> providerStatements = inspector.stop();
+
+        assertEquals(1, clientStatements.size(), describe(clientStatements));
+        assertEquals(1, providerStatements.size(), describe(providerStatements));
+        for (ByteArrayOutputStream report : List.of(clientReport, providerReport)) {
+            List<String> lines = report.toString(StandardCharsets.UTF_8).lines().toList();
+            assertEquals(rows + 1, lines.size());
+            assertTrue(lines.get(1).contains(String.join("; ", SERVICES)), lines.get(1));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, PageCursor.MAX_LIMIT})
+    void mechanicPagesLoadLineItemsInOneQuery(int rows) {
+        String mechanic = "mechanic-" + UUID.randomUUID();
+        List<MechanicRequest> requests = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            MechanicRequest request = new MechanicRequest();
+            request.setUsername("client-" + i);
+            request.setDescription(String.join(", ", SERVICES));
+            request.setLineItems(lineItems());
+            request.setLocation("Street " + i);
+            request.setDate(today.minusDays(i));
+            request.setStatus(JobStatus.COMPLETED);
+            request.setServicePrice(500.0);
+            request.setCarType("Toyota");
+            request.setCarPlate("CA" + i);
+            request.setMechanicId(mechanic);
+            requests.add(request);
+        }
+        mechanicRequests.saveAll(requests);
+        entityManager.flush();
+        entityManager.clear();
+
+        inspector.start();
+        List<MechanicRequest> page = mechanicRequests.findPageByMechanicId(mechanic, null, null, PageCursor.probe(rows));
+        page.forEach(r -> assertEquals(SERVICES.size(), r.getLineItems().size()));
+        List<QueryPlanInspector.RecordedQuery> statements = inspector.stop();
+
+        assertEquals(rows, page.size());
+        assertEquals(2, statements.size(), describe(statements));
+    }
+
+    private record Seeded(String client, String carWashId) {}
+
+    /** {@code rows} completed bookings of one client at one car wash, one per day back from today. */
+    private Seeded seedBookings(int rows) {
+        Seeded seeded = new Seeded("client-" + UUID.randomUUID(), "carwash-" + UUID.randomUUID());
+        List<CarWashBooking> bookings = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            CarWashBooking booking = new CarWashBooking();
+            booking.setClientUsername(seeded.client());
+            booking.setCarWashId(seeded.carWashId());
+            booking.setCarPlate("CW" + i);
+            booking.setCarType("Hatchback");
+            booking.setLineItems(lineItems());
+            booking.setServicePrice(150.0);
+            booking.setDate(today.minusDays(i));
+            booking.setLocation("Street " + i);
+            booking.setStatus(JobStatus.COMPLETED);
+            bookings.add(booking);
+        }
+        carWashBookings.saveAll(bookings);
+        entityManager.flush();
+        entityManager.clear();
+        return seeded;
+    }
+
+    private static List<JobLineItem> lineItems() {
+        return SERVICES.stream().map(JobLineItem::named).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static String describe(List<QueryPlanInspector.RecordedQuery> statements) {
+        return statements.stream().map(QueryPlanInspector.RecordedQuery::sql).collect(Collectors.joining("\n"));
+    }
+}
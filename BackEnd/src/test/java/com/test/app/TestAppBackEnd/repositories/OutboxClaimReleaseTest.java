@@ -0,0 +1,136 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.config.SchemaMigrationConfig;
+import com.test.app.TestAppBackEnd.config.WorkloadExecutor;
+import com.test.app.TestAppBackEnd.entities.NotificationOutbox;
+import com.test.app.TestAppBackEnd.services.NotificationOutboxDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An outbox batch the executor rejects is released, not leased: no attempt is used up and the rows are due again
+ * at once, so a saturated pool cannot run messages out of retries before they were ever sent. Needs Docker;
+ * skipped otherwise.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(SchemaMigrationConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxClaimReleaseTest {
+
+    private static final int MESSAGES = 3;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired private NotificationOutboxRepository outbox;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final Set<String> delivered = ConcurrentHashMap.newKeySet();
+    private WorkloadExecutor executor;
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // One thread and a one-slot queue, both taken: every submit is rejected until unblock opens
+        executor = new WorkloadExecutor("outbox-test", 1, 1, WorkloadExecutor.RejectionPolicy.ABORT, Thread::new);
+        executor.execute(this::awaitUnblock);
+        executor.execute(this::awaitUnblock);
+        dispatcher = new NotificationOutboxDispatcher(outbox, message -> delivered.add(message.getId()),
+                executor, executor, 100, 1, 8, 120, 10, 3600, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        executor.shutdownNow();
+        outbox.deleteAll();
+    }
+
+    @Test
+    void rejectedBatchKeepsItsAttemptsAndStaysDue() {
+        List<String> ids = enqueue();
+
+        dispatcher.poll();
+
+        Instant now = Instant.now();
+        for (String id : ids) {
+            NotificationOutbox stored = outbox.findById(id).orElseThrow();
+            assertEquals("pending", stored.getStatus());
+            assertEquals(0, stored.getAttempts(), "attempts of " + id);
+            assertFalse(stored.getNextAttemptAt().isAfter(now), "still leased: " + id);
+        }
+        assertEquals((long) MESSAGES, dispatcher.stats().get("deferred"));
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    void releasedMessagesAreSentOnTheNextPoll() throws Exception {
+        List<String> ids = enqueue();
+        dispatcher.poll();
+
+        unblock.countDown();
+        awaitIdle();
+        dispatcher.poll();
+        awaitIdle();
+
+        for (String id : ids) {
+            NotificationOutbox stored = outbox.findById(id).orElseThrow();
+            assertEquals("sent", stored.getStatus());
+            assertEquals(1, stored.getAttempts(), "attempts of " + id);
+        }
+        assertEquals(Set.copyOf(ids), delivered);
+    }
+
+    private List<String> enqueue() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            NotificationOutbox message = new NotificationOutbox(NotificationOutbox.CHANNEL_EMAIL,
+                    "user" + i + "@example.com", "Subject", "Body", "test:" + i);
+            ids.add(outbox.save(message).getId());
+        }
+        return ids;
+    }
+
+    private void awaitUnblock() {
+        try {
+            unblock.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Waits until every task handed to the executor so far has finished. */
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getCompletedTaskCount() < executor.getTaskCount()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("executor still busy");
+            Thread.sleep(20);
+        }
+    }
+}
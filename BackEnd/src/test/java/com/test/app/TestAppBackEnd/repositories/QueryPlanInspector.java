@@ -0,0 +1,111 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SELECTs the repositories send (SQL plus bound parameters) through a wrapped DataSource,
+ * then runs MySQL EXPLAIN on each with the same parameters to find full table scans.
+ */
+final class QueryPlanInspector {
+
+    record RecordedQuery(String sql, Map<Integer, Object> params) {}
+
+    /** One EXPLAIN row; type ALL means the table is read in full. */
+    record PlanRow(String table, String type, String key, long rows) {
+        boolean isFullScan() {
+            return "ALL".equals(type);
+        }
+    }
+
+    private final List<RecordedQuery> recorded = new CopyOnWriteArrayList<>();
+    private volatile DataSource target;
+    private volatile boolean recording;
+
+    DataSource wrap(DataSource dataSource) {
+        this.target = dataSource;
+        return proxy(DataSource.class, dataSource, (method, result, args) ->
+                result instanceof Connection connection ? wrapConnection(connection) : result);
+    }
+
+    void start() {
+        recorded.clear();
+        recording = true;
+    }
+
+    List<RecordedQuery> stop() {
+        recording = false;
+        return List.copyOf(recorded);
+    }
+
+    List<PlanRow> explain(RecordedQuery query) throws SQLException {
+        List<PlanRow> plan = new ArrayList<>();
+        try (Connection connection = target.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.sql())) {
+            for (Map.Entry<Integer, Object> param : query.params().entrySet()) {
+                statement.setObject(param.getKey(), param.getValue());
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(new PlanRow(rs.getString("table"), rs.getString("type"), rs.getString("key"), rs.getLong("rows")));
+                }
+            }
+        }
+        return plan;
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, result, args) ->
+                result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                        ? wrapStatement(statement, (String) args[0])
+                        : result);
+    }
+
+    private PreparedStatement wrapStatement(PreparedStatement statement, String sql) {
+        boolean select = sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+        Map<Integer, Object> params = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        params.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        params.clear();
+                    } else if (select && recording && (name.equals("executeQuery") || name.equals("execute"))
+                            && (args == null || args.length == 0)) {
+                        recorded.add(new RecordedQuery(sql, new TreeMap<>(params)));
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private interface ResultWrapper {
+        Object wrap(Method method, Object result, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T delegate, ResultWrapper wrapper) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> wrapper.wrap(method, invoke(delegate, method, args), args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.constants.JobStatus;
+import com.test.app.TestAppBackEnd.entities.CarWashBooking;
+import com.test.app.TestAppBackEnd.entities.MechanicRequest;
+import com.test.app.TestAppBackEnd.entities.Payment;
+import com.test.app.TestAppBackEnd.entities.ProviderServiceOffering;
+import com.test.app.TestAppBackEnd.util.PageCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds a skewed dataset (many clients and providers, mostly completed jobs), runs the hot repository
+ * queries and fails if MySQL plans any of them as a full table scan.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=500")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryIndexUsageTest extends MySqlQueryTestSupport {
+
+    private static final int CLIENTS = 60;
+    private static final int PROVIDERS = 30;
+    private static final int ROWS = 6000;
+
+    @Autowired private MechanicRequestRepository mechanicRequests;
+    @Autowired private CarWashBookingRepository carWashBookings;
+    @Autowired private PaymentRepository payments;
+    @Autowired private ProviderServiceOfferingRepository offerings;
+    @Autowired private JdbcTemplate jdbc;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeAll
+    void seed() {
+        Random random = new Random(42);
+        List<MechanicRequest> requests = new ArrayList<>();
+        List<CarWashBooking> bookings = new ArrayList<>();
+        List<Payment> paid = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            String client = client(random.nextInt(CLIENTS));
+            String provider = provider(random.nextInt(PROVIDERS));
+            JobStatus status = skewedStatus(random);
+            LocalDate date = today.minusDays(random.nextInt(730));
+            boolean unassigned = status == JobStatus.PENDING;
+
+            MechanicRequest request = new MechanicRequest();
+            request.setUsername(client);
+            request.setDescription("Brake pads and service " + i);
+            request.setLocation("Street " + i);
+            request.setDate(date);
+            request.setStatus(status);
+            request.setServicePrice(500.0);
+            request.setCarType("Sedan");
+            request.setCarPlate("CA" + i);
+            request.setMechanicId(unassigned ? null : provider);
+            requests.add(request);
+
+            CarWashBooking booking = new CarWashBooking();
+            booking.setClientUsername(client);
+            booking.setCarWashId(unassigned ? null : provider);
+            booking.setCarPlate("CW" + i);
+            booking.setCarType("Hatchback");
+            booking.setServicePrice(150.0);
+            booking.setDate(date);
+            booking.setLocation("Street " + i);
+            booking.setStatus(status);
+            bookings.add(booking);
+
+            Payment payment = new Payment();
+            payment.setAmount(500.0);
+            payment.setPlatformFee(50.0);
+            payment.setPaidAt(date.atTime(10, 0).plusMinutes(i % 600));
+            payment.setStatus("completed");
+            payment.setClientUsername(client);
+            if (i % 2 == 0) payment.setMechanicId(provider); else payment.setCarWashId(provider);
+            payment.setJobId("job-" + i);
+            paid.add(payment);
+        }
+        mechanicRequests.saveAll(requests);
+        carWashBookings.saveAll(bookings);
+        payments.saveAll(paid);
+
+        List<ProviderServiceOffering> catalog = new ArrayList<>();
+        for (int p = 0; p < PROVIDERS * 10; p++) {
+            for (int s = 0; s < 5; s++) {
+                ProviderServiceOffering offering = new ProviderServiceOffering();
+                offering.setProviderUsername("provider-user-" + p);
+                offering.setProviderId("provider-id-" + p);
+                offering.setProviderType(p % 2 == 0 ? "mechanic" : "carwash");
+                offering.setServiceName("Service " + s);
+                offering.setPrice(100.0 + s);
+                offering.setLatitude(String.valueOf(-26.0 - p / 100.0));
+                offering.setLongitude(String.valueOf(28.0 + p / 100.0));
+                catalog.add(offering);
+            }
+        }
+        offerings.saveAll(catalog);
+
+        jdbc.execute("ANALYZE TABLE request_mechanic, car_wash_booking, payments, provider_service_offering");
+    }
+
+    @Test
+    void mechanicRequestQueriesUseIndexes() throws Exception {
+        String client = client(7);
+        String provider = provider(3);
+        LocalDate from = today.minusDays(90);
+
+        inspector.start();
+        List<MechanicRequest> firstPage = mechanicRequests.findPageByUsername(client, null, null, PageCursor.probe(20));
+        MechanicRequest last = firstPage.get(firstPage.size() - 1);
+        mechanicRequests.findByUsername(client);
+        mechanicRequests.findPageByUsername(client, last.getDate(), last.getId(), PageCursor.probe(20));
+        mechanicRequests.findByMechanicId(provider);
+        mechanicRequests.findPageByMechanicId(provider, last.getDate(), last.getId(), PageCursor.probe(20));
+        mechanicRequests.findPageByStatusAndMechanicIdIsNull(JobStatus.PENDING, null, null, PageCursor.probe(20));
+        mechanicRequests.findPage(last.getDate(), last.getId(), PageCursor.probe(20));
+        mechanicRequests.findByUsernameAndDateBetweenOrderByDateDesc(client, from, today);
+        mechanicRequests.findByMechanicIdAndDateBetweenOrderByDateDesc(provider, from, today);
+        mechanicRequests.findByMechanicIdAndStatusAndDateBetweenOrderByDateDesc(provider, JobStatus.COMPLETED, from, today);
+        mechanicRequests.countIncompleteByMechanicId(provider);
+        mechanicRequests.countInFlightByMechanic();
+        assertNoFullScans(inspector.stop());
+    }
+
+    @Test
+    void carWashBookingQueriesUseIndexes() throws Exception {
+        String client = client(11);
+        String provider = provider(5);
+
+        inspector.start();
+        List<CarWashBooking> firstPage = carWashBookings.findPageByClientUsername(client, null, null, PageCursor.probe(20));
+        CarWashBooking last = firstPage.get(firstPage.size() - 1);
+        carWashBookings.findByClientUsername(client);
+        carWashBookings.findPageByClientUsername(client, last.getDate(), last.getId(), PageCursor.probe(20));
+        carWashBookings.findByCarWashId(provider);
+        carWashBookings.findPageByCarWashId(provider, last.getDate(), last.getId(), PageCursor.probe(20));
+        carWashBookings.findPage(last.getDate(), last.getId(), PageCursor.probe(20));
+        carWashBookings.countIncompleteByCarWashId(provider);
+        carWashBookings.countInFlightByCarWash();
+        assertNoFullScans(inspector.stop());
+    }
+
+    @Test
+    void paymentQueriesUseIndexes() throws Exception {
+        String client = client(23);
+        String provider = provider(9);
+        LocalDateTime from = today.minusDays(90).atStartOfDay();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+
+        inspector.start();
+        List<Payment> firstPage = payments.findPageByClientUsername(client, null, null, PageCursor.probe(20));
+        Payment last = firstPage.get(firstPage.size() - 1);
+        payments.findByClientUsername(client);
+        payments.findByMechanicId(provider);
+        payments.findByCarWashId(provider);
+        payments.findPageByMechanicId(provider, last.getPaidAt(), last.getId(), PageCursor.probe(20));
+        payments.findPageByCarWashId(provider, last.getPaidAt(), last.getId(), PageCursor.probe(20));
+        payments.findPage(last.getPaidAt(), last.getId(), PageCursor.probe(20));
+        payments.findByMechanicIdAndPaidAtBetweenOrderByPaidAtDesc(provider, from, to);
+        payments.findByCarWashIdAndPaidAtBetweenOrderByPaidAtDesc(provider, from, to);
+        assertNoFullScans(inspector.stop());
+    }
+
+    @Test
+    void offeringLookupUsesIndexes() throws Exception {
+        // findByProviderTypeOrderByServiceNameAsc returns about half the table by design, so a scan is fair there.
+        inspector.start();
+        offerings.findByProviderUsernameAndProviderTypeOrderByServiceNameAsc("provider-user-4", "mechanic");
+        offerings.findByProviderId("provider-id-4");
+        assertNoFullScans(inspector.stop());
+    }
+
+    private void assertNoFullScans(List<QueryPlanInspector.RecordedQuery> queries) throws Exception {
+        assertFalse(queries.isEmpty(), "no queries were recorded");
+        List<String> scans = new ArrayList<>();
+        for (QueryPlanInspector.RecordedQuery query : queries) {
+            List<QueryPlanInspector.PlanRow> plan = inspector.explain(query);
+            if (plan.stream().anyMatch(QueryPlanInspector.PlanRow::isFullScan)) {
+                scans.add(query.sql() + "\n    " + plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), "Full table scans:\n" + String.join("\n", scans));
+    }
+
+    private static JobStatus skewedStatus(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 70) return JobStatus.COMPLETED;
+        if (roll < 80) return JobStatus.CANCELLED;
+        if (roll < 85) return JobStatus.PAID;
+        if (roll < 90) return JobStatus.IN_PROGRESS;
+        return JobStatus.PENDING;
+    }
+
+    private static String client(int n) {
+        return "client-" + n;
+    }
+
+    private static String provider(int n) {
+        return "provider-" + n;
+    }
+}
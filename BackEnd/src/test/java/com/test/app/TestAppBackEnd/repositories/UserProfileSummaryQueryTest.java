@@ -0,0 +1,102 @@
+package com.test.app.TestAppBackEnd.repositories;
+
+import com.test.app.TestAppBackEnd.constants.Role;
+import com.test.app.TestAppBackEnd.entities.UserProfile;
+import com.test.app.TestAppBackEnd.models.UserProfileSummary;
+import com.test.app.TestAppBackEnd.util.PageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Profile list rows come from one native statement per page, roles included, and map to the list DTO.
+ */
+class UserProfileSummaryQueryTest extends MySqlQueryTestSupport {
+
+    @Autowired private UserProfileRepository profiles;
+    @Autowired private TestEntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        profiles.saveAll(List.of(
+                profile("alice", null, EnumSet.of(Role.CLIENT)),
+                profile("bob", 2L, EnumSet.of(Role.MECHANIC, Role.ADMIN)),
+                profile("carol", 1L, EnumSet.of(Role.MECHANIC)),
+                profile("dave", 3L, EnumSet.of(Role.CARWASH))));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesAreOneStatementWithRoles() {
+        inspector.start();
+        List<UserProfileSummary> page = summaries(profiles.findSummaryPage(null, PageCursor.probe(2)));
+        List<QueryPlanInspector.RecordedQuery> statements = inspector.stop();
+
+        assertEquals(1, statements.size());
+        assertEquals(List.of("alice", "bob", "carol"), usernames(page));
+        UserProfileSummary bob = page.get(1);
+        assertEquals(Set.of(Role.MECHANIC, Role.ADMIN), bob.roles());
+        assertEquals(2L, bob.numberOfEmployees());
+        assertEquals("bob@example.com", bob.email());
+        assertEquals("+27", bob.countryCode());
+
+        assertEquals(List.of("dave"), usernames(summaries(profiles.findSummaryPage("carol", PageCursor.probe(2)))));
+    }
+
+    @Test
+    void rolePagesKeepOnlyHolders() {
+        assertEquals(List.of("bob", "carol"),
+                usernames(summaries(profiles.findSummaryPageByRole(Role.MECHANIC.name(), null, PageCursor.probe(10)))));
+        assertEquals(List.of("carol"),
+                usernames(summaries(profiles.findSummaryPageByRole(Role.MECHANIC.name(), "bob", PageCursor.probe(10)))));
+    }
+
+    @Test
+    void searchMatchesNamesAndPhoneNumbers() {
+        assertEquals(List.of("carol"),
+                usernames(summaries(profiles.findSummariesWithSearch("Carol", PageRequest.of(0, 10)))));
+        assertEquals(List.of("dave"),
+                usernames(summaries(profiles.findSummariesWithSearch("0824", PageRequest.of(0, 10)))));
+    }
+
+    @Test
+    void phoneNumbersByUsername() {
+        assertEquals(Set.of("alice=0821000000", "dave=0824000000"),
+                profiles.findPhoneNumbersByUsernameIn(List.of("alice", "dave", "nobody")).stream()
+                        .map(p -> p.getUsername() + "=" + p.getPhoneNumber())
+                        .collect(Collectors.toSet()));
+    }
+
+    private static UserProfile profile(String username, Long employees, Set<Role> roles) {
+        UserProfile profile = new UserProfile();
+        profile.setUsername(username);
+        profile.setEmail(username + "@example.com");
+        profile.setFirstName(Character.toUpperCase(username.charAt(0)) + username.substring(1));
+        profile.setLastName("Tester");
+        profile.setPhoneNumber("082" + (username.charAt(0) - 'a' + 1) + "000000");
+        profile.setCountryCode("+27");
+        profile.setLatitude("-26.2");
+        profile.setLongitude("28.0");
+        profile.setNumberOfEmployees(employees);
+        profile.setRoles(EnumSet.copyOf(roles));
+        return profile;
+    }
+
+    private static List<UserProfileSummary> summaries(List<UserProfileRepository.SummaryRow> rows) {
+        return rows.stream().map(UserProfileSummary::of).toList();
+    }
+
+    private static List<String> usernames(List<UserProfileSummary> page) {
+        return page.stream().map(UserProfileSummary::username).toList();
+    }
+}
@@ -52,6 +52,19 @@ class ApiService {
     }
   }
 
+  /** GET a paged list endpoint and follow nextCursor until the last page; returns the merged response. */
+  async getAllPages(endpoint, params = {}) {
+    const first = await this.get(endpoint, { params });
+    const data = Array.isArray(first?.data) ? [...first.data] : first?.data;
+    let cursor = first?.nextCursor;
+    while (cursor && Array.isArray(data)) {
+      const next = await this.get(endpoint, { params: { ...params, cursor } });
+      data.push(...(next?.data || []));
+      cursor = next?.nextCursor;
+    }
+    return { ...first, data, nextCursor: undefined };
+  }
+
   // ---------- Response/Error Handling ----------
   handleResponse(response) {
     return response?.data ?? response;
@@ -185,15 +198,15 @@ async sendEmail(emailData) {
   }
 
   async getAllRequestHistory(params = {}) {
-    return this.get(API_ENDPOINTS.REQUEST_HISTORY, { params });
+    return this.getAllPages(API_ENDPOINTS.REQUEST_HISTORY, params);
   }
 
   async getUserRequestHistory(username, params = {}) {
-    return this.get(API_ENDPOINTS.REQUEST_HISTORY_BY_USER(username), { params });
+    return this.getAllPages(API_ENDPOINTS.REQUEST_HISTORY_BY_USER(username), params);
   }
 
   async getRequestHistoryByMechanicId(mechanicId, params = {}) {
-    return this.get(API_ENDPOINTS.REQUEST_HISTORY_BY_MECHANIC(mechanicId), { params });
+    return this.getAllPages(API_ENDPOINTS.REQUEST_HISTORY_BY_MECHANIC(mechanicId), params);
   }
 
   async updateRequestHistoryByUsername(username, requestData) {
@@ -224,7 +237,7 @@ async sendEmail(emailData) {
   }
 
   async fetchMechanicRequestsByCustomer(username) {
-    return this.get(API_ENDPOINTS.REQUEST_MECHANIC_BY_USER(username));
+    return this.getAllPages(API_ENDPOINTS.REQUEST_MECHANIC_BY_USER(username));
   }
 
   /** Alias */
@@ -261,21 +274,26 @@ async sendEmail(emailData) {
 
   // ---------- Payments ----------
 async getAllPayments() {
-  return this.get(API_ENDPOINTS.PAYMENTS);
+  return this.getAllPages(API_ENDPOINTS.PAYMENTS);
 }
 
 async getPaymentsByClient(username) {
-  return this.get(`${API_ENDPOINTS.PAYMENTS}/client/${username}`);
+  return this.getAllPages(`${API_ENDPOINTS.PAYMENTS}/client/${username}`);
 }
 async getPaymentsByClients(params = {}) {
-  return this.get(`${API_ENDPOINTS.PAYMENTS}/getPayments`, { params });
+  return this.getAllPages(`${API_ENDPOINTS.PAYMENTS}/getPayments`, params);
 }
 
 async getPaymentsByMechanic(mechanicId, params = {}) {
-  return this.get(`${API_ENDPOINTS.PAYMENTS}/mechanic/${mechanicId}`, { params });
+  return this.getAllPages(`${API_ENDPOINTS.PAYMENTS}/mechanic/${mechanicId}`, params);
 }
 async getPaymentsByCarWash(carWashId, params = {}) {
-  return this.get(`${API_ENDPOINTS.PAYMENTS}/carWash/${carWashId}`, { params });
+  return this.getAllPages(`${API_ENDPOINTS.PAYMENTS}/carWash/${carWashId}`, params);
+}
+
+/** Payment count and sums for the current user (all payments for admins), added up on the server. */
+async getPaymentTotals() {
+  return this.get(API_ENDPOINTS.PAYMENT_TOTALS);
 }
 
 async createPayment(paymentRequest) {
@@ -295,15 +313,15 @@ async createCarWashBooking(bookingData) {
 }
 
 async getAllCarWashBookings(params = {}) {
-  return this.get(API_ENDPOINTS.CARWASH_BOOKINGS, { params });
+  return this.getAllPages(API_ENDPOINTS.CARWASH_BOOKINGS, params);
 }
 
 async getCarWashBookingsByClient(username, params = {}) {
-  return this.get(API_ENDPOINTS.CARWASH_BOOKINGS_BY_CLIENT(username), { params });
+  return this.getAllPages(API_ENDPOINTS.CARWASH_BOOKINGS_BY_CLIENT(username), params);
 }
 
   async getCarWashBookingsByCarWashId(carWashId, params = {}) {
-    return this.get(API_ENDPOINTS.CARWASH_BOOKINGS_BY_CARWASH(carWashId), { params });
+    return this.getAllPages(API_ENDPOINTS.CARWASH_BOOKINGS_BY_CARWASH(carWashId), params);
   }
 
 async getCarWashBookingById(id) {
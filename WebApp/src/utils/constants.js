@@ -31,6 +31,7 @@ export const API_ENDPOINTS = {
   PAYMENT_BY_CLIENT: (username) => `/payments/client/${username}`,
   PAYMENT_BY_MECHANIC: (mechanicId) => `/payments/mechanic/${mechanicId}`,
   PAYMENT_BY_CARWASHID: (carWashId) => `/payments/carWash/${carWashId}`,
+  PAYMENT_TOTALS: '/payments/totals',
 
   CREATE_PAYMENT: '/payments/pay',
   CREATE_PAYMENT_INTENT: '/payments/create-intent',